@@ -0,0 +1,173 @@
+package portsim;
+
+import portsim.cargo.CargoStore;
+import portsim.metrics.MetricsServer;
+import portsim.port.Port;
+import portsim.port.ScheduledMovementReader;
+import portsim.port.TickProfiler;
+import portsim.util.BadEncodingException;
+
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Entry point for running the Port Simulation without a GUI.
+ * <p>
+ * Loads a port from a file, runs it for a number of minutes as fast as possible and reports
+ * how long the run took.
+ */
+public class HeadlessRunner {
+
+    /**
+     * Number of nanoseconds in a millisecond
+     */
+    private static final long NANOS_PER_MILLI = 1000000;
+
+    /**
+     * Number of minutes ahead of the current time for which scheduled movements are read
+     */
+    private static final long SCHEDULE_LOOKAHEAD = 60;
+
+    /**
+     * <b>Note</b>: this class only provides a static entry point and is not meant to be
+     * instantiated.
+     */
+    private HeadlessRunner() {}
+
+    /**
+     * Runs the simulation headlessly.
+     * <p>
+     * Usage:
+     * {@code port_file minutes [--profile] [--columnar] [--metrics metrics_port]
+     * [--schedule schedule_file]}
+     * <p>
+     * Where
+     * <ul>
+     * <li>{@code port_file} is the path to the file containing the port</li>
+     * <li>{@code minutes} is the number of minutes to simulate</li>
+     * <li>{@code --profile} prints a per-phase timing summary after the run
+     * (see {@link TickProfiler#summary()})</li>
+     * <li>{@code --columnar} keeps the port's stored cargo in a columnar store off the heap
+     * and scans it when loading departing ships (see {@link Port#setCargoStore(CargoStore)})</li>
+     * <li>{@code --metrics metrics_port} serves Prometheus metrics for the run on
+     * {@code http://localhost:metrics_port/metrics} (see {@link MetricsServer})</li>
+     * <li>{@code --schedule schedule_file} streams further movements from a time-sorted
+     * schedule file as the simulation runs (see {@link ScheduledMovementReader})</li>
+     * </ul>
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            printUsage();
+            System.exit(1);
+        }
+        long minutes;
+        try {
+            minutes = Long.parseLong(args[1]);
+        } catch (NumberFormatException e) {
+            System.err.println("The number of minutes must be a long: " + args[1]);
+            System.exit(1);
+            return;
+        }
+        boolean profile = false;
+        boolean columnar = false;
+        int metricsPort = -1;
+        String scheduleFile = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--profile")) {
+                profile = true;
+            } else if (args[i].equals("--columnar")) {
+                columnar = true;
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                try {
+                    metricsPort = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("The metrics port must be an integer: " + args[i]);
+                    System.exit(1);
+                }
+            } else if (args[i].equals("--schedule") && i + 1 < args.length) {
+                scheduleFile = args[++i];
+            } else {
+                System.err.println("Unknown option: " + args[i]);
+                printUsage();
+                System.exit(1);
+            }
+        }
+
+        Port port;
+        try (FileReader reader = new FileReader(args[0])) {
+            port = Port.initialisePort(reader);
+        } catch (BadEncodingException | IOException e) {
+            System.err.println("Error loading from file. Stack trace below:");
+            e.printStackTrace();
+            System.exit(1);
+            return;
+        }
+
+        if (profile) {
+            port.setProfiler(new TickProfiler());
+        }
+        if (columnar) {
+            port.setCargoStore(new CargoStore());
+        }
+        ScheduledMovementReader schedule = null;
+        if (scheduleFile != null) {
+            try {
+                schedule = new ScheduledMovementReader(new FileReader(scheduleFile),
+                    SCHEDULE_LOOKAHEAD);
+            } catch (IOException e) {
+                System.err.println("Could not open schedule: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+            port.addMovementSource(schedule);
+        }
+        MetricsServer metrics = null;
+        if (metricsPort >= 0) {
+            try {
+                metrics = new MetricsServer(metricsPort);
+            } catch (IOException e) {
+                System.err.println("Could not start metrics server: " + e.getMessage());
+                System.exit(1);
+            }
+            metrics.publish(port);
+        }
+
+        long start = System.nanoTime();
+        for (long i = 0; i < minutes; i++) {
+            port.elapseOneMinute();
+            if (metrics != null) {
+                metrics.publish(port);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (metrics != null) {
+            metrics.close();
+        }
+        if (schedule != null) {
+            try {
+                schedule.close();
+            } catch (IOException e) {
+                // nothing more will be read
+            }
+        }
+
+        System.out.printf("Simulated %d minute(s) of %s in %d ms (now at time %d)%n",
+            minutes, port.getName(), elapsed / NANOS_PER_MILLI, port.getTime());
+        if (schedule != null && schedule.getRejectedCount() > 0) {
+            System.out.printf("Rejected %d scheduled movement(s), last: %s%n",
+                schedule.getRejectedCount(), schedule.getLastRejection());
+        }
+        if (profile) {
+            System.out.println(port.getProfiler().summary());
+        }
+    }
+
+    /* Prints the command line usage to standard error */
+    private static void printUsage() {
+        System.err.println("Usage: port_file minutes [--profile] [--columnar]"
+            + " [--metrics metrics_port] [--schedule schedule_file]\n");
+        System.err.println("Example: saves/port_default.txt 10080 --profile");
+    }
+}
@@ -8,6 +8,7 @@ import portsim.display.ViewModel;
 import portsim.util.BadEncodingException;
 
 import java.io.IOException;
+import java.util.List;
 
 
 /**
@@ -24,18 +25,20 @@ public class Launcher extends Application {
     /**
      * Launches the GUI.
      * <p>
-     * Usage: {@code port_file}
+     * Usage: {@code port_file [metrics_port]}
      * <p>
      * Where
      * <ul>
      * <li>{@code port_file} is the path to the file containing the port</li>
+     * <li>{@code metrics_port} (optional) is the local TCP port on which to serve Prometheus
+     * metrics for the running simulation</li>
      * </ul>
      * @param args command line arguments
      * @given
      */
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.err.println("Usage: port_file\n");
+        if (args.length != 1 && args.length != 2) {
+            System.err.println("Usage: port_file [metrics_port]\n");
             System.err.println("You did not specify the names of the required save file"
                     + " from which to load.");
             System.err.println("To do this, you need to add the command line "
@@ -56,9 +59,14 @@ public class Launcher extends Application {
     @Override
     public void start(Stage stage) {
         View view;
+        List<String> args = getParameters().getRaw();
         try {
-            view = new View(stage, new ViewModel(getParameters().getRaw().get(0)));
-        } catch (BadEncodingException | IOException e) {
+            ViewModel viewModel = new ViewModel(args.get(0));
+            if (args.size() > 1) {
+                viewModel.startMetricsServer(Integer.parseInt(args.get(1)));
+            }
+            view = new View(stage, viewModel);
+        } catch (BadEncodingException | IOException | NumberFormatException e) {
             System.err.println("Error loading from file. Stack trace below:");
             e.printStackTrace();
             Platform.exit();
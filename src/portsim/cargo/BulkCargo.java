@@ -31,7 +31,13 @@ public class BulkCargo extends Cargo {
      */
     public BulkCargo(int id, String destination, int tonnage,
                      BulkCargoType type) throws IllegalArgumentException {
-        super(id, destination);
+        this(id, destination, tonnage, type, true);
+    }
+
+    /* Creates new BulkCargo, adding it to the cargo registry only if register is true */
+    BulkCargo(int id, String destination, int tonnage, BulkCargoType type, boolean register)
+        throws IllegalArgumentException {
+        super(id, destination, register);
         if (tonnage < 0) {
             throw new IllegalArgumentException("The cargo tonnage "
                 + "must be greater than or equal to 0: " + tonnage);
@@ -60,6 +66,19 @@ public class BulkCargo extends Cargo {
         return type;
     }
 
+    /**
+     * Creates new bulk cargo with the given ID and the same destination, tonnage and type as
+     * this cargo.
+     *
+     * @param id ID of the new bulk cargo
+     * @return new bulk cargo
+     * @throws IllegalArgumentException if a cargo already exists with the given ID or ID &lt; 0
+     */
+    @Override
+    public BulkCargo copyWithId(int id) throws IllegalArgumentException {
+        return new BulkCargo(id, getDestination(), tonnage, type);
+    }
+
     /**
      * Returns true if and only if this BulkCargo is equal to the other given
      * BulkCargo.
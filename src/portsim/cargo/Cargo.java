@@ -3,6 +3,7 @@ package portsim.cargo;
 import portsim.util.BadEncodingException;
 import portsim.util.Encodable;
 import portsim.util.NoSuchCargoException;
+import portsim.util.PlaceCode;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -27,11 +28,21 @@ public abstract class Cargo implements Encodable {
      */
     private String destination;
 
+    /**
+     * Code of this cargo's destination in the {@link PlaceCode} table
+     */
+    private int destinationCode;
+
     /**
      * Database of all cargo currently active in the simulation
      */
     private static Map<Integer, Cargo> cargoRegistry = new HashMap<>();
 
+    /**
+     * Highest ID given to a piece of cargo since the registry was last reset, or -1 if none
+     */
+    private static int highestId = -1;
+
     /**
      * Creates a new Cargo with the given ID and destination port.
      * <p>
@@ -43,7 +54,24 @@ public abstract class Cargo implements Encodable {
      * @ass1_partial
      */
     public Cargo(int id, String destination) throws IllegalArgumentException {
-        if (Cargo.cargoExists(id)) {
+        this(id, destination, true);
+    }
+
+    /**
+     * Creates a new Cargo with the given ID and destination port, which is only added to the
+     * cargo registry if {@code register} is true.
+     * <p>
+     * Unregistered cargo is used to describe cargo held outside the registry (see
+     * {@link CargoStore#get(int)}) without affecting the rest of the simulation.
+     *
+     * @param id          cargo ID
+     * @param destination destination port
+     * @param register    true to add the cargo to the registry
+     * @throws IllegalArgumentException if registering and a cargo already exists with the given
+     *                                  ID, or ID &lt; 0
+     */
+    Cargo(int id, String destination, boolean register) throws IllegalArgumentException {
+        if (register && Cargo.cargoExists(id)) {
             throw new IllegalArgumentException("The specified cargo already "
                 + "exists: " + id);
         }
@@ -52,8 +80,12 @@ public abstract class Cargo implements Encodable {
                 + " or equal to 0: " + id);
         }
         this.id = id;
-        this.destination = destination;
-        cargoRegistry.put(id, this);
+        this.destinationCode = PlaceCode.intern(destination);
+        this.destination = PlaceCode.nameOf(destinationCode);
+        if (register) {
+            cargoRegistry.put(id, this);
+            highestId = Math.max(highestId, id);
+        }
     }
 
     /**
@@ -76,6 +108,30 @@ public abstract class Cargo implements Encodable {
         return destination;
     }
 
+    /**
+     * Returns the code of this cargo's destination.
+     * <p>
+     * Two pieces of cargo have the same destination if and only if their destination codes are
+     * equal (see {@link PlaceCode}).
+     *
+     * @return the cargo's destination code
+     */
+    public int getDestinationCode() {
+        return destinationCode;
+    }
+
+    /**
+     * Creates a new piece of cargo of the same kind as this one, with the same destination and
+     * type, but the given ID.
+     * <p>
+     * The new cargo is added to the cargo registry like any other.
+     *
+     * @param id ID of the new cargo
+     * @return new cargo with the given ID
+     * @throws IllegalArgumentException if a cargo already exists with the given ID or ID &lt; 0
+     */
+    public abstract Cargo copyWithId(int id) throws IllegalArgumentException;
+
     /**
      * Returns the global registry of all pieces of cargo, as a mapping
      * from cargo IDs to Cargo instances.
@@ -102,6 +158,15 @@ public abstract class Cargo implements Encodable {
         return cargoRegistry.containsKey(id);
     }
 
+    /**
+     * Returns an ID that no cargo in the registry has, greater than every ID given so far.
+     *
+     * @return unused cargo ID
+     */
+    public static int nextUnusedId() {
+        return highestId + 1;
+    }
+
     /**
      * Returns the cargo specified by the given ID.
      *
@@ -118,6 +183,11 @@ public abstract class Cargo implements Encodable {
 
     }
 
+    /* Returns the registered cargo with the given ID, or null if there is none */
+    static Cargo findRegistered(int id) {
+        return cargoRegistry.get(id);
+    }
+
     /**
      * Returns true if and only if this cargo is equal to the other given cargo.
      * <p>
@@ -141,7 +211,7 @@ public abstract class Cargo implements Encodable {
 
         Cargo other = (Cargo) o;
 
-        if (!other.destination.equals(this.destination)) {
+        if (other.destinationCode != this.destinationCode) {
             return false;
         }
 
@@ -159,7 +229,7 @@ public abstract class Cargo implements Encodable {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(this.id, this.destination);
+        return Objects.hash(this.id, this.destinationCode);
     }
 
     /**
@@ -312,5 +382,6 @@ public abstract class Cargo implements Encodable {
      */
     public static void resetCargoRegistry() {
         Cargo.cargoRegistry = new HashMap<>();
+        Cargo.highestId = -1;
     }
 }
@@ -0,0 +1,776 @@
+package portsim.cargo;
+
+import portsim.util.NoSuchCargoException;
+import portsim.util.PlaceCode;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A compact, column-oriented store of cargo for very large warehouses.
+ * <p>
+ * Each piece of cargo is held as a fixed-width row of its ID, destination code (see
+ * {@link PlaceCode}), kind (container or bulk cargo), type and tonnage, in memory allocated
+ * outside the Java heap. A stored row uses 16 bytes, so ten million pieces of cargo take
+ * 160 MB, and storing cargo does not keep a {@link Cargo} object for it alive. Rows are also
+ * indexed by cargo ID, using between 8 and 16 bytes of heap per row, so that cargo can be found
+ * and removed by ID without a scan.
+ * <p>
+ * Rows are addressed by index, in the order the cargo was added. Scans such as
+ * {@link #findLoadable(int, boolean, int, int)} and the count methods read the columns directly
+ * without creating any Cargo objects. A Cargo object is only looked up in the cargo registry,
+ * or created outside it, when {@link #get(int)} is called.
+ * <p>
+ * Removing a row leaves a gap so that the indices of the other rows do not change. Gaps are
+ * skipped by scans, and are discarded by {@link #compact()}, which renumbers the rows that
+ * remain.
+ */
+public class CargoStore {
+
+    /**
+     * Number of bytes used by each row
+     */
+    private static final int ROW_BYTES = 16;
+
+    /**
+     * Offset within a row of the cargo ID
+     */
+    private static final int ID = 0;
+
+    /**
+     * Offset within a row of the destination code
+     */
+    private static final int DESTINATION = 4;
+
+    /**
+     * Offset within a row of the tonnage (0 for containers)
+     */
+    private static final int TONNAGE = 8;
+
+    /**
+     * Offset within a row of the kind of cargo
+     */
+    private static final int KIND = 12;
+
+    /**
+     * Offset within a row of the ordinal of the cargo's type
+     */
+    private static final int TYPE = 13;
+
+    /**
+     * Kind of a row whose cargo has been removed
+     */
+    private static final byte REMOVED = 0;
+
+    /**
+     * Kind of a row holding a container
+     */
+    private static final byte CONTAINER = 1;
+
+    /**
+     * Kind of a row holding bulk cargo
+     */
+    private static final byte BULK = 2;
+
+    /**
+     * Index slot that has never held a row
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Index slot whose row has been removed
+     */
+    private static final int DELETED = -2;
+
+    /**
+     * Smallest number of slots in the ID index
+     */
+    private static final int MIN_INDEX_SLOTS = 16;
+
+    /**
+     * Number of rows allocated when no capacity is given
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Largest number of rows that fit in a single buffer
+     */
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE / ROW_BYTES;
+
+    /**
+     * Container types, indexed by ordinal
+     */
+    private static final ContainerType[] CONTAINER_TYPES = ContainerType.values();
+
+    /**
+     * Bulk cargo types, indexed by ordinal
+     */
+    private static final BulkCargoType[] BULK_CARGO_TYPES = BulkCargoType.values();
+
+    /**
+     * Off-heap memory holding the rows
+     */
+    private ByteBuffer rows;
+
+    /**
+     * Number of rows in use, including removed rows
+     */
+    private int size;
+
+    /**
+     * Number of rows in use that have been removed
+     */
+    private int removed;
+
+    /**
+     * Open-addressed hash table from cargo ID to row, holding the index of a row that has not
+     * been removed, {@link #EMPTY} or {@link #DELETED} in each slot. Rows with the same ID
+     * occupy separate slots.
+     */
+    private int[] index;
+
+    /**
+     * Number of index slots that are not {@link #EMPTY}
+     */
+    private int indexUsed;
+
+    /**
+     * Read-only view of the cargo in the store, created once and shared by all callers
+     */
+    private final List<Cargo> view;
+
+    /**
+     * Creates a new empty store with room for a default number of rows before it needs to grow.
+     */
+    public CargoStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new empty store with room for the given number of rows before it needs to grow.
+     *
+     * @param capacity number of rows to allocate
+     * @throws IllegalArgumentException if capacity &lt; 0 or is larger than can be allocated
+     */
+    public CargoStore(int capacity) throws IllegalArgumentException {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 0 and "
+                + MAX_CAPACITY + ": " + capacity);
+        }
+        this.rows = allocate(capacity);
+        this.size = 0;
+        this.removed = 0;
+        this.index = emptyIndex(capacity);
+        this.indexUsed = 0;
+        this.view = new CargoView();
+    }
+
+    /**
+     * Adds a row for the given piece of cargo.
+     * <p>
+     * The store does not keep a reference to the cargo object.
+     *
+     * @param cargo cargo to add
+     * @return index of the new row
+     * @throws IllegalArgumentException if the cargo is neither a Container nor BulkCargo
+     */
+    public int add(Cargo cargo) throws IllegalArgumentException {
+        if (cargo instanceof Container) {
+            Container container = (Container) cargo;
+            return addRow(container.getId(), container.getDestinationCode(), 0, CONTAINER,
+                container.getType().ordinal());
+        } else if (cargo instanceof BulkCargo) {
+            BulkCargo bulkCargo = (BulkCargo) cargo;
+            return addRow(bulkCargo.getId(), bulkCargo.getDestinationCode(),
+                bulkCargo.getTonnage(), BULK, bulkCargo.getType().ordinal());
+        }
+        throw new IllegalArgumentException("Cannot store cargo of class "
+            + cargo.getClass().getSimpleName());
+    }
+
+    /**
+     * Adds a row for a container without creating a Container object for it.
+     *
+     * @param id          cargo ID
+     * @param destination destination port
+     * @param type        type of container
+     * @return index of the new row
+     * @throws IllegalArgumentException if ID &lt; 0
+     * @require no other cargo in the simulation has the given ID
+     */
+    public int addContainer(int id, String destination, ContainerType type)
+        throws IllegalArgumentException {
+        checkId(id);
+        return addRow(id, PlaceCode.intern(destination), 0, CONTAINER, type.ordinal());
+    }
+
+    /**
+     * Adds a row for bulk cargo without creating a BulkCargo object for it.
+     *
+     * @param id          cargo ID
+     * @param destination destination port
+     * @param tonnage     the weight of the cargo
+     * @param type        the type of cargo
+     * @return index of the new row
+     * @throws IllegalArgumentException if ID &lt; 0 or tonnage &lt; 0
+     * @require no other cargo in the simulation has the given ID
+     */
+    public int addBulkCargo(int id, String destination, int tonnage, BulkCargoType type)
+        throws IllegalArgumentException {
+        checkId(id);
+        if (tonnage < 0) {
+            throw new IllegalArgumentException("The cargo tonnage "
+                + "must be greater than or equal to 0: " + tonnage);
+        }
+        return addRow(id, PlaceCode.intern(destination), tonnage, BULK, type.ordinal());
+    }
+
+    /**
+     * Returns the number of rows in the store, including removed rows.
+     * <p>
+     * Valid row indices are {@code 0} to {@code getRowCount() - 1}.
+     *
+     * @return number of rows
+     */
+    public int getRowCount() {
+        return size;
+    }
+
+    /**
+     * Returns the number of pieces of cargo in the store, not counting removed rows.
+     *
+     * @return number of pieces of cargo stored
+     */
+    public int size() {
+        return size - removed;
+    }
+
+    /**
+     * Returns true if the cargo in the given row has been removed.
+     *
+     * @param row row index
+     * @return true if the row has been removed
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public boolean isRemoved(int row) throws IndexOutOfBoundsException {
+        return kind(row) == REMOVED;
+    }
+
+    /**
+     * Returns the ID of the cargo in the given row.
+     *
+     * @param row row index
+     * @return cargo ID
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public int getId(int row) throws IndexOutOfBoundsException {
+        return rows.getInt(offset(row) + ID);
+    }
+
+    /**
+     * Returns the destination code of the cargo in the given row.
+     *
+     * @param row row index
+     * @return destination code (see {@link PlaceCode})
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public int getDestinationCode(int row) throws IndexOutOfBoundsException {
+        return rows.getInt(offset(row) + DESTINATION);
+    }
+
+    /**
+     * Returns the destination of the cargo in the given row.
+     *
+     * @param row row index
+     * @return destination port
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public String getDestination(int row) throws IndexOutOfBoundsException {
+        return PlaceCode.nameOf(getDestinationCode(row));
+    }
+
+    /**
+     * Returns true if the cargo in the given row is a container.
+     *
+     * @param row row index
+     * @return true if the row holds a container, false if it holds bulk cargo or was removed
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public boolean isContainer(int row) throws IndexOutOfBoundsException {
+        return kind(row) == CONTAINER;
+    }
+
+    /**
+     * Returns the weight in tonnes of the cargo in the given row.
+     *
+     * @param row row index
+     * @return tonnage of bulk cargo, or 0 for a container
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public int getTonnage(int row) throws IndexOutOfBoundsException {
+        return rows.getInt(offset(row) + TONNAGE);
+    }
+
+    /**
+     * Returns the container type of the cargo in the given row.
+     *
+     * @param row row index
+     * @return container type, or null if the row does not hold a container
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public ContainerType getContainerType(int row) throws IndexOutOfBoundsException {
+        if (kind(row) != CONTAINER) {
+            return null;
+        }
+        return CONTAINER_TYPES[rows.get(offset(row) + TYPE)];
+    }
+
+    /**
+     * Returns the bulk cargo type of the cargo in the given row.
+     *
+     * @param row row index
+     * @return bulk cargo type, or null if the row does not hold bulk cargo
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public BulkCargoType getBulkCargoType(int row) throws IndexOutOfBoundsException {
+        if (kind(row) != BULK) {
+            return null;
+        }
+        return BULK_CARGO_TYPES[rows.get(offset(row) + TYPE)];
+    }
+
+    /**
+     * Returns the cargo object for the given row.
+     * <p>
+     * If a piece of cargo with the row's ID is in the cargo registry, that object is returned.
+     * Otherwise a new Container or BulkCargo is created from the row each time this method is
+     * called. The new cargo is not added to the registry, so reading the store never changes
+     * the rest of the simulation.
+     *
+     * @param row row index
+     * @return cargo stored in the row
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     * @throws NoSuchCargoException      if the row has been removed
+     */
+    public Cargo get(int row) throws IndexOutOfBoundsException, NoSuchCargoException {
+        if (kind(row) == REMOVED) {
+            throw new NoSuchCargoException("The cargo in row " + row + " has been removed");
+        }
+        return cargoAt(row);
+    }
+
+    /**
+     * Returns a read-only view of the cargo in the store, in row order, skipping removed rows.
+     * <p>
+     * Each element is obtained as by {@link #get(int)}. The view always reflects the rows
+     * currently stored. It is iterated in a single pass over the rows, but while the store has
+     * removed rows, finding an element by its position in the view takes a scan.
+     *
+     * @return read-only view of the stored cargo
+     */
+    public List<Cargo> asList() {
+        return view;
+    }
+
+    /**
+     * Returns the index of the first row holding cargo with the given ID.
+     *
+     * @param id cargo ID
+     * @return index of the first row with the ID, or -1 if no row that has not been removed
+     * has the ID
+     */
+    public int findRow(int id) {
+        int first = -1;
+        for (int slot = slotOf(id); index[slot] != EMPTY; slot = nextSlot(slot)) {
+            int row = index[slot];
+            if (row >= 0 && getIdAt(row) == id && (first < 0 || row < first)) {
+                first = row;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Removes the cargo in the given row.
+     * <p>
+     * The indices of other rows are not changed.
+     *
+     * @param row row index
+     * @throws IndexOutOfBoundsException if the row index is out of range
+     */
+    public void remove(int row) throws IndexOutOfBoundsException {
+        if (kind(row) == REMOVED) {
+            return;
+        }
+        for (int slot = slotOf(getIdAt(row)); index[slot] != EMPTY; slot = nextSlot(slot)) {
+            if (index[slot] == row) {
+                index[slot] = DELETED;
+                break;
+            }
+        }
+        markRemoved(row);
+    }
+
+    /**
+     * Removes every row holding cargo with the given ID, looking the rows up by ID rather than
+     * scanning the store.
+     * <p>
+     * The indices of other rows are not changed.
+     *
+     * @param id cargo ID
+     * @return number of rows removed
+     */
+    public int removeById(int id) {
+        int count = 0;
+        for (int slot = slotOf(id); index[slot] != EMPTY; slot = nextSlot(slot)) {
+            int row = index[slot];
+            if (row >= 0 && getIdAt(row) == id) {
+                index[slot] = DELETED;
+                markRemoved(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Discards removed rows, moving the rows that remain down so that they keep their relative
+     * order.
+     * <p>
+     * Row indices obtained before compacting are no longer valid afterwards.
+     */
+    public void compact() {
+        int write = 0;
+        for (int read = 0; read < size; read++) {
+            if (kind(read) == REMOVED) {
+                continue;
+            }
+            if (write != read) {
+                int from = offset(read);
+                int to = offset(write);
+                rows.putLong(to, rows.getLong(from));
+                rows.putLong(to + 8, rows.getLong(from + 8));
+            }
+            write++;
+        }
+        size = write;
+        removed = 0;
+        rebuildIndex();
+    }
+
+    /**
+     * Returns the index of the first row at or after the given row holding cargo that a ship
+     * from the given port of origin could load.
+     * <p>
+     * A row matches if it has not been removed, its destination code is equal to the given code,
+     * and it holds a container if {@code container} is true, or bulk cargo of at most
+     * {@code maxTonnage} tonnes otherwise.
+     *
+     * @param destinationCode code of the ship's port of origin
+     * @param container       true to find containers, false to find bulk cargo
+     * @param maxTonnage      maximum tonnage of bulk cargo to match; ignored for containers
+     * @param fromRow         index of the row to start searching from
+     * @return index of the first matching row, or -1 if there is none
+     */
+    public int findLoadable(int destinationCode, boolean container, int maxTonnage,
+                            int fromRow) {
+        byte wanted = container ? CONTAINER : BULK;
+        for (int row = Math.max(fromRow, 0); row < size; row++) {
+            int base = row * ROW_BYTES;
+            if (rows.get(base + KIND) == wanted
+                && rows.getInt(base + DESTINATION) == destinationCode
+                && (container || rows.getInt(base + TONNAGE) <= maxTonnage)) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of pieces of cargo stored with the given destination.
+     *
+     * @param destinationCode destination code (see {@link PlaceCode})
+     * @return number of pieces of cargo bound for the destination
+     */
+    public int countByDestination(int destinationCode) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            int base = row * ROW_BYTES;
+            if (rows.get(base + KIND) != REMOVED
+                && rows.getInt(base + DESTINATION) == destinationCode) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of containers stored of each container type.
+     * <p>
+     * Types with no containers stored are not included.
+     *
+     * @return container counts by type
+     */
+    public Map<ContainerType, Integer> countContainerTypes() {
+        int[] counts = countTypes(CONTAINER, CONTAINER_TYPES.length);
+        Map<ContainerType, Integer> result = new EnumMap<>(ContainerType.class);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(CONTAINER_TYPES[i], counts[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of pieces of bulk cargo stored of each bulk cargo type.
+     * <p>
+     * Types with no bulk cargo stored are not included.
+     *
+     * @return bulk cargo counts by type
+     */
+    public Map<BulkCargoType, Integer> countBulkCargoTypes() {
+        int[] counts = countTypes(BULK, BULK_CARGO_TYPES.length);
+        Map<BulkCargoType, Integer> result = new EnumMap<>(BulkCargoType.class);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                result.put(BULK_CARGO_TYPES[i], counts[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total weight in tonnes of the bulk cargo stored.
+     *
+     * @return total tonnage
+     */
+    public long getTotalTonnage() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            int base = row * ROW_BYTES;
+            if (rows.get(base + KIND) == BULK) {
+                total += rows.getInt(base + TONNAGE);
+            }
+        }
+        return total;
+    }
+
+    /* Counts rows of the given kind by type ordinal */
+    private int[] countTypes(byte kind, int types) {
+        int[] counts = new int[types];
+        for (int row = 0; row < size; row++) {
+            int base = row * ROW_BYTES;
+            if (rows.get(base + KIND) == kind) {
+                counts[rows.get(base + TYPE)]++;
+            }
+        }
+        return counts;
+    }
+
+    /* Returns the cargo for a row that has not been removed, without registering new cargo */
+    private Cargo cargoAt(int row) {
+        int id = getIdAt(row);
+        Cargo registered = Cargo.findRegistered(id);
+        if (registered != null) {
+            return registered;
+        }
+        int base = row * ROW_BYTES;
+        String destination = PlaceCode.nameOf(rows.getInt(base + DESTINATION));
+        if (rows.get(base + KIND) == CONTAINER) {
+            return new Container(id, destination, CONTAINER_TYPES[rows.get(base + TYPE)], false);
+        }
+        return new BulkCargo(id, destination, rows.getInt(base + TONNAGE),
+            BULK_CARGO_TYPES[rows.get(base + TYPE)], false);
+    }
+
+    /* Marks a row as removed without touching the index */
+    private void markRemoved(int row) {
+        rows.put(row * ROW_BYTES + KIND, REMOVED);
+        removed++;
+    }
+
+    /* Returns the ID in a row known to be in range */
+    private int getIdAt(int row) {
+        return rows.getInt(row * ROW_BYTES + ID);
+    }
+
+    /* Returns the index slot at which to start looking for the given ID */
+    private int slotOf(int id) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (index.length - 1);
+    }
+
+    /* Returns the index slot to look in after the given one */
+    private int nextSlot(int slot) {
+        return (slot + 1) & (index.length - 1);
+    }
+
+    /*
+     * Adds a row that is about to be counted in size to the index, rebuilding the index first if
+     * it would become more than half full
+     */
+    private void indexRow(int row) {
+        if (2 * (indexUsed + 1) > index.length) {
+            rebuildIndex();
+        }
+        int slot = slotOf(getIdAt(row));
+        while (index[slot] >= 0) {
+            slot = nextSlot(slot);
+        }
+        if (index[slot] == EMPTY) {
+            indexUsed++;
+        }
+        index[slot] = row;
+    }
+
+    /* Replaces the index with one holding every row that has not been removed */
+    private void rebuildIndex() {
+        index = emptyIndex(2 * (size() + 1));
+        indexUsed = 0;
+        for (int row = 0; row < size; row++) {
+            if (rows.get(row * ROW_BYTES + KIND) != REMOVED) {
+                int slot = slotOf(getIdAt(row));
+                while (index[slot] != EMPTY) {
+                    slot = nextSlot(slot);
+                }
+                index[slot] = row;
+                indexUsed++;
+            }
+        }
+    }
+
+    /* Appends a row with the given column values, growing the buffer if it is full */
+    private int addRow(int id, int destinationCode, int tonnage, byte kind, int type) {
+        if (size == rows.capacity() / ROW_BYTES) {
+            grow();
+        }
+        int row = size;
+        int base = row * ROW_BYTES;
+        rows.putInt(base + ID, id);
+        rows.putInt(base + DESTINATION, destinationCode);
+        rows.putInt(base + TONNAGE, tonnage);
+        rows.put(base + KIND, kind);
+        rows.put(base + TYPE, (byte) type);
+        indexRow(row);
+        size++;
+        return row;
+    }
+
+    /* Replaces the buffer with one twice the size, copying the rows in use */
+    private void grow() {
+        int capacity = rows.capacity() / ROW_BYTES;
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException("Cargo store is full: " + capacity + " rows");
+        }
+        int newCapacity = (int) Math.min(Math.max(2L * capacity, DEFAULT_CAPACITY),
+            MAX_CAPACITY);
+        ByteBuffer grown = allocate(newCapacity);
+        ByteBuffer used = rows.duplicate();
+        used.position(0).limit(size * ROW_BYTES);
+        grown.put(used);
+        grown.clear();
+        rows = grown;
+    }
+
+    /* Returns the byte offset of the given row, checking it is in range */
+    private int offset(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of range for " + size
+                + " rows");
+        }
+        return row * ROW_BYTES;
+    }
+
+    /* Returns the kind of the given row */
+    private byte kind(int row) {
+        return rows.get(offset(row) + KIND);
+    }
+
+    /* Checks a cargo ID is valid */
+    private static void checkId(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Cargo ID must be greater than"
+                + " or equal to 0: " + id);
+        }
+    }
+
+    /* Allocates off-heap memory for the given number of rows */
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * ROW_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /* Returns an empty index with a power-of-two number of slots, at least twice the rows */
+    private static int[] emptyIndex(int rowCount) {
+        int slots = MIN_INDEX_SLOTS;
+        while (slots < 2L * rowCount) {
+            slots <<= 1;
+        }
+        int[] empty = new int[slots];
+        Arrays.fill(empty, EMPTY);
+        return empty;
+    }
+
+    /* Read-only list of the cargo in the rows that have not been removed */
+    private class CargoView extends AbstractList<Cargo> {
+
+        @Override
+        public Cargo get(int position) {
+            if (position < 0 || position >= size()) {
+                throw new IndexOutOfBoundsException("Position " + position
+                    + " out of range for " + size() + " pieces of cargo");
+            }
+            if (removed == 0) {
+                return cargoAt(position);
+            }
+            int row = nextLive(0);
+            for (int seen = 0; seen < position; seen++) {
+                row = nextLive(row + 1);
+            }
+            return cargoAt(row);
+        }
+
+        @Override
+        public int size() {
+            return CargoStore.this.size();
+        }
+
+        @Override
+        public Iterator<Cargo> iterator() {
+            return new Iterator<>() {
+                private int row = nextLive(0);
+
+                @Override
+                public boolean hasNext() {
+                    return row < size;
+                }
+
+                @Override
+                public Cargo next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Cargo cargo = cargoAt(row);
+                    row = nextLive(row + 1);
+                    return cargo;
+                }
+            };
+        }
+
+        /* Returns the first row at or after the given one that has not been removed */
+        private int nextLive(int from) {
+            int row = from;
+            while (row < size && rows.get(row * ROW_BYTES + KIND) == REMOVED) {
+                row++;
+            }
+            return row;
+        }
+    }
+}
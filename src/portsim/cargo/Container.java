@@ -26,7 +26,13 @@ public class Container extends Cargo {
      */
     public Container(int id, String destination, ContainerType type)
         throws IllegalArgumentException {
-        super(id, destination);
+        this(id, destination, type, true);
+    }
+
+    /* Creates a new Container, adding it to the cargo registry only if register is true */
+    Container(int id, String destination, ContainerType type, boolean register)
+        throws IllegalArgumentException {
+        super(id, destination, register);
         this.type = type;
     }
 
@@ -40,6 +46,18 @@ public class Container extends Cargo {
         return type;
     }
 
+    /**
+     * Creates a new container with the given ID and the same destination and type as this one.
+     *
+     * @param id ID of the new container
+     * @return new container
+     * @throws IllegalArgumentException if a cargo already exists with the given ID or ID &lt; 0
+     */
+    @Override
+    public Container copyWithId(int id) throws IllegalArgumentException {
+        return new Container(id, getDestination(), type);
+    }
+
     /**
      * Returns true if and only if this Container is equal to the other given
      * Container.
@@ -3,15 +3,17 @@ package portsim.display;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
 import javafx.scene.input.MouseButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.TextAlignment;
-import portsim.cargo.BulkCargo;
-import portsim.port.Quay;
-import portsim.port.ShipQueue;
+import portsim.cargo.BulkCargoType;
+import portsim.cargo.ContainerType;
+import portsim.port.PortSnapshot;
+import portsim.port.QueuePriority;
 import portsim.ship.BulkCarrier;
 import portsim.ship.ContainerShip;
 import portsim.ship.NauticalFlag;
@@ -22,6 +24,21 @@ import java.util.*;
 /**
  * Subclass of the JavaFX Canvas to represent the main elements of the port graphically.
  * <p>
+ * The parts of the port that never change (the water, land, roads, depots and the markings of
+ * the ship queue) are drawn once and cached as a background image. After that, each call to
+ * {@link #draw()} only repaints the regions whose contents have changed since they were last
+ * drawn: the ship queue, the warehouse and each individual quay. A region is repainted by
+ * copying its part of the background back onto the canvas and drawing its contents on top.
+ * <p>
+ * Only a window of the ship queue is drawn, however long the queue is. The window can be
+ * scrolled with the mouse wheel, and the ships outside it are summarised by priority class.
+ * <p>
+ * Turning the mouse wheel anywhere else (or anywhere while holding the shortcut key) zooms in
+ * and out around the pointer, and dragging pans the zoomed view. Cargo is drawn at a level of
+ * detail that suits the zoom: individual containers when zoomed in, or one bar per cargo type
+ * when zoomed out or when there is too much cargo to draw each piece, so the cost of a frame
+ * does not grow with the amount of cargo.
+ * <p>
  * <b>NOTE: </b> The contents of this file do not necessarily follow best practice
  *
  * @given
@@ -34,9 +51,96 @@ public class PortCanvas extends Canvas {
     private final ViewModel viewModel;
 
     /**
-     * Mapping of clickable regions (rectangles) to ships drawn on the canvas
+     * Index of the places a ship can be drawn on the canvas (one slot per quay followed by one
+     * per row of the ship queue), or null if nothing has been drawn yet
+     */
+    private HitGrid hitGrid;
+
+    /**
+     * Ship drawn in each slot of {@link #hitGrid}, or null where no ship is drawn
+     */
+    private Ship[] drawnShip;
+
+    /**
+     * State of the contents last drawn in each region of the canvas, used to decide whether the
+     * region needs to be repainted
+     */
+    private final Map<Integer, List<Object>> drawnState;
+
+    /**
+     * Cached image of the parts of the port that never change, or null if it has not been drawn
      */
-    private final Map<ClickableRegion, Ship> drawnShip;
+    private WritableImage background;
+
+    /**
+     * Number of quays drawn on the canvas, or -1 if nothing has been drawn yet
+     */
+    private int drawnQuays;
+
+    /**
+     * Key of the region containing the ship queue (quays use their index as their key)
+     */
+    private static final int QUEUE_REGION = -1;
+
+    /**
+     * Key of the region containing the warehouse of stored cargo
+     */
+    private static final int WAREHOUSE_REGION = -2;
+
+    /**
+     * Number of rows in the ship queue, each showing a ship or the summary of the ships not shown
+     */
+    private static final int QUEUE_CAPACITY = 7;
+
+    /**
+     * Position in the ship queue of the first ship drawn, counting from zero
+     */
+    private int queueScroll;
+
+    /**
+     * Smallest zoom factor, at which the whole port fits the canvas
+     */
+    private static final double MIN_ZOOM = 1;
+
+    /**
+     * Largest zoom factor
+     */
+    private static final double MAX_ZOOM = 4;
+
+    /**
+     * Smallest zoom factor at which individual containers are drawn
+     */
+    private static final double DETAIL_ZOOM = 2;
+
+    /**
+     * Factor by which the zoom changes for each step of the mouse wheel
+     */
+    private static final double ZOOM_STEP = 1.25;
+
+    /**
+     * Current zoom factor
+     */
+    private double zoom;
+
+    /**
+     * X-coordinate of the port shown at the left edge of the canvas
+     */
+    private double panX;
+
+    /**
+     * Y-coordinate of the port shown at the top edge of the canvas
+     */
+    private double panY;
+
+    /**
+     * X-coordinate of the mouse when it was last pressed or dragged, in canvas pixels
+     */
+    private double dragX;
+
+    /**
+     * Y-coordinate of the mouse when it was last pressed or dragged, in canvas pixels
+     */
+    private double dragY;
 
     /**
      * Width of an aircraft when drawn on the canvas, in pixels
@@ -109,6 +213,117 @@ public class PortCanvas extends Canvas {
         }
     }
 
+    /**
+     * A uniform grid of square cells laid over the canvas, recording which clickable regions
+     * overlap each cell, so that the region under a point is found by checking only the few
+     * regions in the cell containing the point.
+     * <p>
+     * Regions are numbered in the order they are added. The grid is built once for a layout and
+     * then only read, so resolving a click allocates nothing.
+     */
+    private static class HitGrid {
+
+        /**
+         * Width and height of each cell, in pixels
+         */
+        private final double cellSize;
+
+        /**
+         * Number of columns of cells
+         */
+        private final int columns;
+
+        /**
+         * Number of rows of cells
+         */
+        private final int rows;
+
+        /**
+         * Numbers of the regions overlapping each cell, with cells stored row by row
+         */
+        private final List<List<Integer>> cells;
+
+        /**
+         * Regions added to the grid, indexed by number
+         */
+        private final List<ClickableRegion> regions;
+
+        /**
+         * Creates a new empty grid covering a canvas of the given dimensions.
+         *
+         * @param width    width of the canvas, in pixels
+         * @param height   height of the canvas, in pixels
+         * @param cellSize width and height of each cell, in pixels
+         */
+        public HitGrid(double width, double height, double cellSize) {
+            this.cellSize = cellSize;
+            this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+            this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+            this.cells = new ArrayList<>(columns * rows);
+            for (int i = 0; i < columns * rows; i++) {
+                cells.add(new ArrayList<>(2));
+            }
+            this.regions = new ArrayList<>();
+        }
+
+        /**
+         * Adds a region to the grid. Parts of the region outside the canvas can never be
+         * clicked, so they are not indexed.
+         *
+         * @param region region to add
+         * @return number of the region
+         */
+        public int add(ClickableRegion region) {
+            int number = regions.size();
+            regions.add(region);
+            int firstColumn = Math.max(0, (int) Math.floor(region.xcoord / cellSize));
+            int lastColumn = Math.min(columns - 1,
+                (int) Math.floor((region.xcoord + region.width) / cellSize));
+            int firstRow = Math.max(0, (int) Math.floor(region.ycoord / cellSize));
+            int lastRow = Math.min(rows - 1,
+                (int) Math.floor((region.ycoord + region.height) / cellSize));
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    cells.get(row * columns + column).add(number);
+                }
+            }
+            return number;
+        }
+
+        /**
+         * Returns the number of regions added to the grid.
+         *
+         * @return number of regions
+         */
+        public int size() {
+            return regions.size();
+        }
+
+        /**
+         * Returns the number of the region containing the given point. If regions overlap,
+         * the one added last is returned.
+         *
+         * @param x x-coord of the point
+         * @param y y-coord of the point
+         * @return number of the region, or -1 if the point is not in any region
+         */
+        public int find(double x, double y) {
+            int column = (int) Math.floor(x / cellSize);
+            int row = (int) Math.floor(y / cellSize);
+            if (column < 0 || column >= columns || row < 0 || row >= rows) {
+                return -1;
+            }
+            List<Integer> cell = cells.get(row * columns + column);
+            for (int i = cell.size() - 1; i >= 0; i--) {
+                int number = cell.get(i);
+                if (regions.get(number).wasClicked(x, y)) {
+                    return number;
+                }
+            }
+            return -1;
+        }
+    }
+
     /**
      * Creates a new PortCanvas with the given dimensions.
      *
@@ -121,21 +336,21 @@ public class PortCanvas extends Canvas {
         super(width, height);
 
         this.viewModel = viewModel;
-        this.drawnShip = new HashMap<>();
+        this.drawnShip = new Ship[0];
+        this.drawnState = new HashMap<>();
+        this.drawnQuays = -1;
+        this.zoom = MIN_ZOOM;
 
         setOnMouseClicked(event -> {
-            /* Discard any click that is not a primary (left mouse button) click */
-            if (event.getButton() != MouseButton.PRIMARY) {
+            /* Discard any click that is not a primary (left mouse button) click, or that ended
+             * a drag */
+            if (event.getButton() != MouseButton.PRIMARY || !event.isStillSincePress()) {
                 return;
             }
-            double x = event.getX();
-            double y = event.getY();
-            Ship clickedShip = null;
-            for (Map.Entry<ClickableRegion, Ship> entry : drawnShip.entrySet()) {
-                if (entry.getKey().wasClicked(x, y)) {
-                    clickedShip = entry.getValue();
-                }
-            }
+            double x = toPortX(event.getX());
+            double y = toPortY(event.getY());
+            int slot = hitGrid == null ? -1 : hitGrid.find(x, y);
+            Ship clickedShip = slot < 0 ? null : drawnShip[slot];
             viewModel.getSelectedShip().set(clickedShip);
             viewModel.registerChange();
 
@@ -143,24 +358,274 @@ public class PortCanvas extends Canvas {
             /* Ensures the canvas gains focus when it is clicked */
             addEventFilter(MouseEvent.MOUSE_PRESSED, e -> requestFocus());
         });
+
+        setOnScroll(event -> {
+            if (event.getDeltaY() == 0) {
+                return;
+            }
+            if (!event.isShortcutDown()
+                && toPortX(event.getX()) >= getWidth() - SHIP_WIDTH * 2 + 10) {
+                /* Scroll the ship queue a ship at a time when the wheel is turned over it */
+                queueScroll += event.getDeltaY() > 0 ? -1 : 1;
+            } else {
+                zoomAround(event.getX(), event.getY(),
+                    event.getDeltaY() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP);
+            }
+            viewModel.registerChange();
+        });
+
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+
+        setOnMouseDragged(event -> {
+            panTo(panX - (event.getX() - dragX) / zoom, panY - (event.getY() - dragY) / zoom);
+            dragX = event.getX();
+            dragY = event.getY();
+            viewModel.registerChange();
+        });
     }
 
     /**
-     * Draws all the relevant elements of the port onto the canvas.
+     * Zooms out to show the whole port.
+     */
+    public void resetZoom() {
+        zoomAround(0, 0, MIN_ZOOM / zoom);
+        viewModel.registerChange();
+    }
+
+    /*
+     * Changes the zoom by the given factor, keeping the point of the port under the given
+     * canvas position where it is.
+     */
+    private void zoomAround(double canvasX, double canvasY, double factor) {
+        double portX = toPortX(canvasX);
+        double portY = toPortY(canvasY);
+        double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        if (newZoom != zoom) {
+            zoom = newZoom;
+            background = null;
+        }
+        panTo(portX - canvasX / zoom, portY - canvasY / zoom);
+    }
+
+    /*
+     * Moves the view so the given point of the port is at the top left of the canvas, keeping
+     * the view within the port. If the view moves, everything drawn is discarded so that it is
+     * redrawn in place.
+     */
+    private void panTo(double x, double y) {
+        double newX = Math.max(0, Math.min(getWidth() - getWidth() / zoom, x));
+        double newY = Math.max(0, Math.min(getHeight() - getHeight() / zoom, y));
+        if (newX != panX || newY != panY) {
+            panX = newX;
+            panY = newY;
+            background = null;
+        }
+    }
+
+    /* Converts an x-coord on the canvas to the x-coord of the port drawn there */
+    private double toPortX(double canvasX) {
+        return panX + canvasX / zoom;
+    }
+
+    /* Converts a y-coord on the canvas to the y-coord of the port drawn there */
+    private double toPortY(double canvasY) {
+        return panY + canvasY / zoom;
+    }
+
+    /* Applies the zoom and pan of the view, so that drawing is done in port coordinates */
+    private void applyView(GraphicsContext gc) {
+        gc.scale(zoom, zoom);
+        gc.translate(-panX, -panY);
+    }
+
+    /**
+     * Draws all the relevant elements of the port onto the canvas, repainting only the regions
+     * whose contents have changed since the last call.
      *
      * @given
      */
     public void draw() {
-        this.drawnShip.clear();
+        // Draw from a single snapshot so the picture is consistent while the simulation runs
+        PortSnapshot snapshot = this.viewModel.getSnapshot();
+        List<PortSnapshot.QuayState> quays = snapshot.getQuays();
+
+        boolean relayout = quays.size() != drawnQuays;
+        if (background == null) {
+            drawBackground();
+            background = snapshot(null, null);
+            relayout = true;
+        }
+        if (relayout) {
+            // the view has moved or quays have been added or removed, so every region has to
+            // be repainted
+            GraphicsContext gc = getGraphicsContext2D();
+            gc.drawImage(background, 0, 0);
+            drawnState.clear();
+            buildHitGrid(quays.size());
+            drawnQuays = quays.size();
+        }
 
+        Ship selected = viewModel.getSelectedShip().get();
+        drawWarehouse(snapshot);
+        drawShipQueue(snapshot, selected);
+        for (int i = 0; i < quays.size(); i++) {
+            PortSnapshot.QuayState quay = quays.get(i);
+            drawQuay(i, quay, bulkCargoType(snapshot, quay.getShip()), selected);
+        }
+    }
+
+    /*
+     * Repaints a region of the port if its state differs from the state it was last drawn
+     * with, by restoring the background under the region and running the given drawing action
+     * clipped to the region. Regions outside the view are not drawn. The region is given in
+     * port coordinates. Returns true if the region was repainted.
+     */
+    private boolean repaintRegion(int key, List<Object> state, double x, double y,
+                                  double width, double height, Runnable drawContents) {
+        if (state.equals(drawnState.get(key))) {
+            return false;
+        }
+        drawnState.put(key, state);
+        double canvasX = (x - panX) * zoom;
+        double canvasY = (y - panY) * zoom;
+        if (canvasX >= getWidth() || canvasY >= getHeight()
+            || canvasX + width * zoom <= 0 || canvasY + height * zoom <= 0) {
+            return false;
+        }
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.save();
+        applyView(gc);
+        gc.drawImage(background, canvasX, canvasY, width * zoom, height * zoom,
+            x, y, width, height);
+        gc.beginPath();
+        gc.rect(x, y, width, height);
+        gc.clip();
+        drawContents.run();
+        gc.restore();
+        return true;
+    }
+
+    /*
+     * Returns true if cargo should be drawn piece by piece: when zoomed in far enough to make
+     * out each piece, and there is room for the given number of pieces.
+     */
+    private boolean isDetailed(int count, int room) {
+        return zoom >= DETAIL_ZOOM && count <= room;
+    }
+
+    /* Returns the colour used to draw containers of the given type */
+    private static Color containerColor(ContainerType type) {
+        switch (type) {
+            case OPEN_TOP:
+                return Color.DARKGREEN;
+            case REEFER:
+                return Color.STEELBLUE;
+            case TANKER:
+                return Color.SADDLEBROWN;
+            default:
+                return Color.FIREBRICK;
+        }
+    }
+
+    /*
+     * Draws the given numbers of containers of each type into an area of the given number of
+     * columns and rows of containers with its top left at x,y. The containers are drawn one by
+     * one if detailed, otherwise as one bar per type whose height is in proportion to the
+     * number of containers of that type.
+     */
+    private void drawContainers(int[] counts, double x, double y, int cols, int rows) {
+        GraphicsContext gc = getGraphicsContext2D();
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        if (isDetailed(total, cols * rows)) {
+            int i = 0;
+            for (ContainerType type : ContainerType.values()) {
+                gc.setFill(containerColor(type));
+                for (int j = 0; j < counts[type.ordinal()]; j++, i++) {
+                    gc.fillRect(x + (i % cols) * (CONTAINER_WIDTH + 2),
+                        y + (double) (i / cols) * (CONTAINER_HEIGHT + 2),
+                        CONTAINER_WIDTH, CONTAINER_HEIGHT);
+                }
+            }
+        } else if (total > 0) {
+            final double width = cols * (CONTAINER_WIDTH + 2) - 2;
+            final double height = rows * (CONTAINER_HEIGHT + 2) - 2;
+            double barY = y;
+            for (ContainerType type : ContainerType.values()) {
+                double barHeight = height * counts[type.ordinal()] / total;
+                gc.setFill(containerColor(type));
+                gc.fillRect(x, barY, width, barHeight);
+                barY += barHeight;
+            }
+        }
+    }
+
+    /* Returns the number of containers of each type on board the ship docked at a quay */
+    private static int[] containerCounts(PortSnapshot.QuayState q) {
+        int[] counts = new int[ContainerType.values().length];
+        for (ContainerType type : ContainerType.values()) {
+            counts[type.ordinal()] = q.getContainerCount(type);
+        }
+        return counts;
+    }
+
+    /*
+     * Indexes the place a ship is drawn at each quay and in each row of the shipQueue. Only
+     * needs to be done when the layout of the canvas changes.
+     */
+    private void buildHitGrid(int numQuays) {
+        hitGrid = new HitGrid(getWidth(), getHeight(), SHIP_WIDTH);
+        for (int i = 0; i < numQuays; i++) {
+            hitGrid.add(shipRegion(quayX(i), quayShipY(i)));
+        }
+        for (int row = 0; row < QUEUE_CAPACITY; row++) {
+            hitGrid.add(shipRegion(queueShipX(), queueShipY(row)));
+        }
+        drawnShip = new Ship[hitGrid.size()];
+    }
+
+    /* Returns the clickable region of a ship drawn with its top left corner at x,y */
+    private static ClickableRegion shipRegion(double x, double y) {
+        return new ClickableRegion(x + 10, y, SHIP_WIDTH * 4 / 3, SHIP_HEIGHT);
+    }
+
+    /* Returns the x-coord of the left edge of the quay at the given index */
+    private static double quayX(int index) {
+        return 5 + SHIP_WIDTH * 5 / 3 * (index < 4 ? index : index - 4);
+    }
+
+    /* Returns the y-coord of the top of a ship docked at the quay at the given index */
+    private double quayShipY(int index) {
+        return index < 4 ? SHIP_HEIGHT / 3 : getHeight() - SHIP_HEIGHT * 4 / 3;
+    }
+
+    /* Returns the x-coord of the left edge of the ships in the shipQueue */
+    private double queueShipX() {
+        return getWidth() - SHIP_WIDTH * 2 + 10 + SHIP_WIDTH / 3;
+    }
+
+    /* Returns the y-coord of the top of the ship in the given row of the shipQueue */
+    private static double queueShipY(int row) {
+        return 10 + 12 + row * (SHIP_HEIGHT + 12);
+    }
+
+    /* Draws the parts of the port that never change */
+    private void drawBackground() {
         GraphicsContext gc = getGraphicsContext2D();
 
         gc.setFill(Color.DODGERBLUE);
         gc.fillRect(0, 0, getWidth(), getHeight());
 
+        gc.save();
+        applyView(gc);
         drawPort();
-        drawShipQueue(this.viewModel.getPort().getShipQueue());
-        drawQuays();
+        drawShipQueueMarkings();
+        gc.restore();
     }
 
     /* Draws the port */
@@ -213,15 +678,7 @@ public class PortCanvas extends Canvas {
         gc.fillRect(380, roadStartY + 150, 30, 20);
         gc.fillRect(350, roadStartY + 160, 90, 5);
 
-        gc.setFill(Color.FIREBRICK);
-        int num = viewModel.getPort().getCargo().size();
         int cols = 9;
-        for (int i = 0; i < num * 4; i++) {
-            gc.fillRect(220 + 8 + (i % cols) * (CONTAINER_WIDTH + 2),
-                roadStartY + 50 + 8 + (double) (i / cols + 1) * (CONTAINER_HEIGHT + 2),
-                CONTAINER_WIDTH, CONTAINER_HEIGHT);
-        }
-
         // generate static containers in stable random pattern.
         gc.setFill(Color.BLUEVIOLET);
         random.setSeed(123);
@@ -258,6 +715,40 @@ public class PortCanvas extends Canvas {
         }
     }
 
+    /* Draws the cargo stored in the warehouse, if the amount stored has changed */
+    private void drawWarehouse(PortSnapshot snapshot) {
+        final double roadStartY = SHIP_HEIGHT * 3 / 2 + 60;
+        final int cols = 9;
+        final int rows = (int) ((200 - 8) / (CONTAINER_HEIGHT + 2)) - 1;
+        final int bulkCargo = snapshot.getStoredBulkCargoCount();
+        final int[] containers = new int[ContainerType.values().length];
+        for (ContainerType type : ContainerType.values()) {
+            containers[type.ordinal()] = snapshot.getStoredContainerCount(type);
+        }
+        List<Object> state = new ArrayList<>();
+        state.add(isDetailed(snapshot.getStoredCargoCount(), rows * cols));
+        state.add(bulkCargo);
+        for (int count : containers) {
+            state.add(count);
+        }
+        repaintRegion(WAREHOUSE_REGION, state, 221, roadStartY + 51, 148, 198, () -> {
+            double x = 220 + 8;
+            double y = roadStartY + 50 + 8 + CONTAINER_HEIGHT + 2;
+            // bulk cargo is drawn as a heap along the bottom of the warehouse
+            int bulkRows = 0;
+            if (bulkCargo > 0) {
+                bulkRows = isDetailed(snapshot.getStoredCargoCount(), rows * cols)
+                    ? (bulkCargo + cols - 1) / cols
+                    : Math.max(1, rows * bulkCargo / snapshot.getStoredCargoCount());
+                GraphicsContext gc = getGraphicsContext2D();
+                gc.setFill(Color.DARKSLATEGREY);
+                gc.fillRect(x, y + (rows - bulkRows) * (CONTAINER_HEIGHT + 2),
+                    cols * (CONTAINER_WIDTH + 2) - 2, bulkRows * (CONTAINER_HEIGHT + 2) - 2);
+            }
+            drawContainers(containers, x, y, cols, rows - bulkRows);
+        });
+    }
+
     // draws a truck at the position x,y
     private void drawTruck(double x, double y) {
         // truck
@@ -283,10 +774,9 @@ public class PortCanvas extends Canvas {
             y + 2, 6, CONTAINER_HEIGHT * 2 - 4);
     }
 
-    /* Draws the shipQueue */
-    private void drawShipQueue(ShipQueue sq) {
+    /* Draws the markings of the shipQueue */
+    private void drawShipQueueMarkings() {
         final double x = getWidth() - SHIP_WIDTH * 2 + 10;
-        final int capacity = 7;
 
         GraphicsContext gc = getGraphicsContext2D();
         gc.setFill(Color.ROYALBLUE);
@@ -304,38 +794,131 @@ public class PortCanvas extends Canvas {
             gc.setFill(Color.BLACK);
             gc.fillRect(x, pad + 5 + i * lineLength, SHIP_WIDTH * 2 + 10,
                 2);
-            // Fill text numbers
-            gc.setFill(Color.WHITE);
-            gc.setTextBaseline(VPos.CENTER);
-            gc.setTextAlign(TextAlignment.LEFT);
-            gc.setFont(Font.font("monospace", FontWeight.BOLD, 12));
-            gc.fillText(String.valueOf(i + 1),
-                x + 10, // 10 px right pad
-                (i + 1) * lineLength);
         }
         gc.setFill(Color.BLACK);
         gc.fillRect(x, getHeight() - pad - 5, SHIP_WIDTH * 2 + 10,
             2);
-        // draw ships
-        for (int j = 0; j < capacity && j < sq.getShipQueue().size(); j++) {
-            drawShip(sq.getShipQueue().get(j), x + SHIP_WIDTH / 3,
-                pad + 12 + j * lineLength, true);
+    }
+
+    /*
+     * Draws the window of the shipQueue starting at the scroll position, if it has changed.
+     * When the queue does not fit, the last row summarises the ships outside the window by
+     * priority class instead of showing a ship.
+     */
+    private void drawShipQueue(PortSnapshot snapshot, Ship selected) {
+        final double x = getWidth() - SHIP_WIDTH * 2 + 10;
+        final double lineLength = SHIP_HEIGHT + 12;
+        final double pad = 10;
+        final List<Ship> queued = snapshot.getQueuedShips();
+        final boolean summarised = queued.size() > QUEUE_CAPACITY;
+        final int rows = summarised ? QUEUE_CAPACITY - 1 : queued.size();
+        // keep the window within the queue as ships leave it
+        queueScroll = Math.max(0, Math.min(queueScroll, queued.size() - rows));
+        final int first = queueScroll;
+        final List<Ship> shown = queued.subList(first, first + rows);
+
+        // ships outside the window are the queued ships minus those shown
+        final int[] hidden = new int[QueuePriority.values().length];
+        for (QueuePriority priority : QueuePriority.values()) {
+            hidden[priority.ordinal()] = snapshot.getQueuedShipCount(priority);
+        }
+        final BulkCargoType[] bulkTypes = new BulkCargoType[shown.size()];
+        List<Object> state = new ArrayList<>();
+        state.add(first);
+        for (int j = 0; j < shown.size(); j++) {
+            Ship ship = shown.get(j);
+            hidden[QueuePriority.of(ship).ordinal()]--;
+            bulkTypes[j] = bulkCargoType(snapshot, ship);
+            state.add(shipState(ship, selected, bulkTypes[j]));
+        }
+        if (summarised) {
+            for (int count : hidden) {
+                state.add(count);
+            }
+        }
+
+        repaintRegion(QUEUE_REGION, state, x + 2, 0, getWidth() - x - 2, getHeight(), () -> {
+            GraphicsContext gc = getGraphicsContext2D();
+            for (int j = 0; j < QUEUE_CAPACITY; j++) {
+                drawnShip[drawnQuays + j] = j < shown.size() ? shown.get(j) : null;
+            }
+            for (int j = 0; j < shown.size(); j++) {
+                drawShip(shown.get(j), queueShipX(), queueShipY(j), true, null, bulkTypes[j]);
+                // position of the ship in the queue
+                gc.setFill(Color.WHITE);
+                gc.setTextBaseline(VPos.CENTER);
+                gc.setTextAlign(TextAlignment.LEFT);
+                gc.setFont(Font.font("monospace", FontWeight.BOLD, 12));
+                gc.fillText(String.valueOf(first + j + 1),
+                    x + 10, // 10 px right pad
+                    (j + 1) * lineLength);
+            }
+            if (summarised) {
+                drawQueueSummary(hidden, x + 10, pad + 12 + rows * lineLength);
+            }
+        });
+    }
+
+    /* Draws the number of ships in each priority class not shown in the shipQueue */
+    private void drawQueueSummary(int[] hidden, double x, double y) {
+        final double lineHeight = 13;
+        int total = 0;
+        for (int count : hidden) {
+            total += count;
+        }
+
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setFill(Color.WHITE);
+        gc.setTextBaseline(VPos.TOP);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setFont(Font.font("monospace", FontWeight.BOLD, 12));
+        gc.fillText(String.format("%d more ships", total), x, y);
+        gc.setFont(Font.font("monospace", FontWeight.NORMAL, 12));
+        double lineY = y + lineHeight;
+        for (QueuePriority priority : QueuePriority.values()) {
+            int count = hidden[priority.ordinal()];
+            if (count > 0) {
+                // dangerous cargo is shown in red, as for the ships themselves
+                gc.setFill(priority == QueuePriority.DANGEROUS ? Color.RED : Color.WHITE);
+                gc.fillText(String.format("%-10s %d", priority, count), x, lineY);
+                lineY += lineHeight;
+            }
         }
     }
 
+    /*
+     * Returns the type of the bulk cargo the snapshot recorded on board the given ship, or null
+     * if there was none or the ship was not in the snapshot.
+     */
+    private static BulkCargoType bulkCargoType(PortSnapshot snapshot, Ship ship) {
+        PortSnapshot.ShipCargo cargo = ship == null ? null : snapshot.getShipCargo(ship);
+        return cargo == null ? null : cargo.getBulkCargoType();
+    }
+
+    /*
+     * Returns the state of a ship that affects how it is drawn: the ship itself, whether it is
+     * selected and the type of any bulk cargo on board.
+     */
+    private static List<Object> shipState(Ship ship, Ship selected, BulkCargoType bulkType) {
+        if (ship == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(ship, Objects.equals(ship, selected), bulkType);
+    }
+
     /*
      * Draws a ship at the given position on the canvas.
      *
      * @param ship ship to draw
      * @param x x-coord of top left corner
      * @param y y-coord of top left corner
+     * @param containers number of containers of each type on board, or null if not known
+     * @param bulkType type of the bulk cargo on board, or null if none
      */
-    private void drawShip(Ship ship, double x, double y, boolean name) {
+    private void drawShip(Ship ship, double x, double y, boolean name, int[] containers,
+                          BulkCargoType bulkType) {
         Color textColor = Color.BLACK;
 
-        this.drawnShip.put(new ClickableRegion(x + 10, y, SHIP_WIDTH * 4 / 3, SHIP_HEIGHT),
-            ship);
-
         // hazardous cargo
         if (ship.getFlag() == NauticalFlag.BRAVO) {
             textColor = Color.RED;
@@ -363,19 +946,16 @@ public class PortCanvas extends Canvas {
 
         // contents
         if (ship instanceof ContainerShip) {
-            gc.setFill(Color.FIREBRICK);
-            for (int i = 0; i < 5; i++) {
-                for (int j = 0; j < 7; j++) {
-                    gc.fillRect(x + SHIP_WIDTH / 3 + 8 + i * (CONTAINER_WIDTH + 2),
-                        y + 11 + j * (CONTAINER_HEIGHT + 2),
-                        CONTAINER_WIDTH, CONTAINER_HEIGHT);
-                }
+            if (containers == null) {
+                // cargo not known, so draw a full hold
+                containers = new int[ContainerType.values().length];
+                containers[ContainerType.STANDARD.ordinal()] = 5 * 7;
             }
+            drawContainers(containers, x + SHIP_WIDTH / 3 + 8, y + 11, 5, 7);
         } else if (ship instanceof BulkCarrier) {
             gc.setFill(Color.BLACK);
-            BulkCargo c = ((BulkCarrier) ship).getCargo();
-            if (c != null) {
-                switch (c.getType()) {
+            if (bulkType != null) {
+                switch (bulkType) {
                     case GRAIN:
                         gc.setFill(Color.KHAKI);
                         break;
@@ -408,56 +988,68 @@ public class PortCanvas extends Canvas {
         }
     }
 
-    /* Draws the quays and their ships */
-    private void drawQuays() {
-        GraphicsContext gc = getGraphicsContext2D();
-        gc.setFill(Color.MIDNIGHTBLUE);
-        List<Quay> quays = this.viewModel.getPort().getQuays();
-
+    /* Draws the quay at the given index and its ship, if either has changed */
+    private void drawQuay(int index, PortSnapshot.QuayState q, BulkCargoType bulkType,
+                          Ship selected) {
         final double quayWidth = SHIP_WIDTH * 5 / 3;
-        final double marginLeft = 5;
-        for (int i = 0; i < quays.size(); i++) {
-            Quay q = quays.get(i);
-            if (i < 4) {
-                double quayStartX = marginLeft + quayWidth * i;
-                double quayStartY = SHIP_HEIGHT / 3;
-                if (!q.isEmpty()) {
-                    drawShip(q.getShip(), quayStartX, quayStartY, true);
-                }
-                for (int j = 0; j < 2; j++) {
-                    gc.setFill(Color.MIDNIGHTBLUE);
-                    double x = quayStartX + j * SHIP_WIDTH / 3 + SHIP_WIDTH / 3 + 20;
-                    double y = quayStartY + SHIP_HEIGHT + 5;
-                    gc.fillRect(x, y, 20, 30);
-                    gc.fillRect(x + 6, y - 20, 4, 22);
-                }
-                gc.setFill(Color.BLACK);
-                gc.setTextAlign(TextAlignment.CENTER);
-                gc.setFont(Font.font("monospace", FontWeight.NORMAL, 12));
-                gc.fillText(String.format("%s: %d", q.getClass().getSimpleName(), q.getId()),
-                    quayStartX + 2 * SHIP_WIDTH / 3 + 10,
-                    quayStartY + SHIP_HEIGHT + 50);
-            } else {
-                double quayStartX = marginLeft + quayWidth * (i - 4);
-                double quayStartY = getHeight() - SHIP_HEIGHT * 3 / 2;
-                if (!q.isEmpty()) {
-                    drawShip(q.getShip(), quayStartX, getHeight() - SHIP_HEIGHT * 4 / 3, true);
-                }
-                for (int j = 0; j < 2; j++) {
-                    gc.setFill(Color.MIDNIGHTBLUE);
-                    double x = quayStartX + j * SHIP_WIDTH / 3 + SHIP_WIDTH / 3 + 20;
-                    double y = quayStartY - 25;
-                    gc.fillRect(x, y, 20, 30);
-                    gc.fillRect(x + 6, y + 25, 4, 22);
-                }
-                gc.setFill(Color.BLACK);
-                gc.setTextAlign(TextAlignment.CENTER);
-                gc.setFont(Font.font("monospace", FontWeight.NORMAL, 12));
-                gc.fillText(String.format("Quay: %d", q.getId()),
-                    quayStartX + 2 * SHIP_WIDTH / 3 + 10,
-                    quayStartY - 30);
-            }
-
+        final int[] containers = containerCounts(q);
+        List<Object> state = new ArrayList<>(Arrays.asList(q.getTypeName(), q.getId(),
+            shipState(q.getShip(), selected, bulkType)));
+        for (int count : containers) {
+            state.add(count);
+        }
+        if (index < 4) {
+            double quayStartX = quayX(index);
+            double quayStartY = SHIP_HEIGHT / 3;
+            repaintRegion(index, state, quayStartX, 0, quayWidth,
+                quayStartY + SHIP_HEIGHT + 55, () -> {
+                    GraphicsContext gc = getGraphicsContext2D();
+                    drawnShip[index] = q.getShip();
+                    if (!q.isEmpty()) {
+                        drawShip(q.getShip(), quayStartX, quayShipY(index), true,
+                            containers, bulkType);
+                    }
+                    for (int j = 0; j < 2; j++) {
+                        gc.setFill(Color.MIDNIGHTBLUE);
+                        double x = quayStartX + j * SHIP_WIDTH / 3 + SHIP_WIDTH / 3 + 20;
+                        double y = quayStartY + SHIP_HEIGHT + 5;
+                        gc.fillRect(x, y, 20, 30);
+                        gc.fillRect(x + 6, y - 20, 4, 22);
+                    }
+                    gc.setFill(Color.BLACK);
+                    gc.setTextBaseline(VPos.BOTTOM);
+                    gc.setTextAlign(TextAlignment.CENTER);
+                    gc.setFont(Font.font("monospace", FontWeight.NORMAL, 12));
+                    gc.fillText(String.format("%s: %d", q.getTypeName(), q.getId()),
+                        quayStartX + 2 * SHIP_WIDTH / 3 + 10,
+                        quayStartY + SHIP_HEIGHT + 50);
+                });
+        } else {
+            double quayStartX = quayX(index);
+            double quayStartY = getHeight() - SHIP_HEIGHT * 3 / 2;
+            repaintRegion(index, state, quayStartX, quayStartY - 45, quayWidth,
+                getHeight() - quayStartY + 45, () -> {
+                    GraphicsContext gc = getGraphicsContext2D();
+                    drawnShip[index] = q.getShip();
+                    if (!q.isEmpty()) {
+                        drawShip(q.getShip(), quayStartX, quayShipY(index), true,
+                            containers, bulkType);
+                    }
+                    for (int j = 0; j < 2; j++) {
+                        gc.setFill(Color.MIDNIGHTBLUE);
+                        double x = quayStartX + j * SHIP_WIDTH / 3 + SHIP_WIDTH / 3 + 20;
+                        double y = quayStartY - 25;
+                        gc.fillRect(x, y, 20, 30);
+                        gc.fillRect(x + 6, y + 25, 4, 22);
+                    }
+                    gc.setFill(Color.BLACK);
+                    gc.setTextBaseline(VPos.BOTTOM);
+                    gc.setTextAlign(TextAlignment.CENTER);
+                    gc.setFont(Font.font("monospace", FontWeight.NORMAL, 12));
+                    gc.fillText(String.format("Quay: %d", q.getId()),
+                        quayStartX + 2 * SHIP_WIDTH / 3 + 10,
+                        quayStartY - 30);
+                });
         }
     }
 
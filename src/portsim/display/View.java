@@ -48,21 +48,6 @@ public class View {
      */
     private PortCanvas canvas;
 
-    /**
-     * Last recorded time in nanoseconds
-     */
-    private long lastNanoTime;
-
-    /**
-     * Time spent un-paused since last minute, in nanoseconds
-     */
-    private long timeSpentUnpaused = 0;
-
-    /**
-     * Time interval between ticks of the view model
-     */
-    private final IntegerProperty secondsPerMinute = new SimpleIntegerProperty(5);
-
     /**
      * Maximum number of ports that can be displayed each side
      */
@@ -113,17 +98,11 @@ public class View {
         buttons.getChildren().add(space);
         buttons.getChildren().add(time);
 
-        var middleInfoBox = createInfoBox(viewModel.getCargoManifestText(), 10);
-        var scroll = new ScrollPane();
-        scroll.setContent(middleInfoBox);
-        scroll.setFitToHeight(true);
-        scroll.setFitToWidth(true);
-
         var leftPanel = new VBox();
         var topInfoBox = createInfoBox(viewModel.getShipInfoText(), 8);
         leftPanel.getChildren().add(topInfoBox);
         leftPanel.getChildren().add(buttons);
-        leftPanel.getChildren().add(scroll);
+        leftPanel.getChildren().add(createManifestBox());
         leftPanel.getChildren().add(space);
         var bottomInfoBox = createInfoBox(viewModel.getEvaluatorsText(), 11);
         var scroll2 = new ScrollPane();
@@ -142,6 +121,49 @@ public class View {
         return pane;
     }
 
+    /*
+     * Creates the cargo manifest of the selected ship: a summary of the cargo types on board,
+     * controls to filter and sort the cargo, and a list of the cargo. The list only creates
+     * cells for the rows that are visible, so only visible cargo is formatted.
+     */
+    private VBox createManifestBox() {
+        var summary = createInfoBox(viewModel.getCargoManifestText(), 3);
+
+        var types = new ComboBox<String>(viewModel.getManifestTypes());
+        types.valueProperty().bindBidirectional(viewModel.getManifestTypeFilter());
+        types.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(types, Priority.ALWAYS);
+
+        var order = new ComboBox<ViewModel.ManifestOrder>();
+        order.getItems().addAll(ViewModel.ManifestOrder.values());
+        order.valueProperty().bindBidirectional(viewModel.getManifestOrder());
+        order.setMaxWidth(Double.MAX_VALUE);
+        HBox.setHgrow(order, Priority.ALWAYS);
+
+        var filters = new HBox();
+        filters.setSpacing(5);
+        filters.getChildren().add(types);
+        filters.getChildren().add(order);
+
+        var destination = new TextField();
+        destination.setPromptText("Filter by destination");
+        destination.textProperty().bindBidirectional(viewModel.getManifestDestinationFilter());
+
+        var cargo = new ListView<Cargo>(viewModel.getManifest());
+        cargo.setPlaceholder(new Label("No cargo to show"));
+        cargo.setFixedCellSize(24);
+        cargo.setPrefHeight(24 * 7);
+        cargo.setPrefWidth(200);
+
+        var manifestBox = new VBox();
+        manifestBox.setSpacing(5);
+        manifestBox.getChildren().add(summary);
+        manifestBox.getChildren().add(filters);
+        manifestBox.getChildren().add(destination);
+        manifestBox.getChildren().add(cargo);
+        return manifestBox;
+    }
+
     /* Creates a menu bar that allows actions to be taken within the GUI */
     private MenuBar createMenuBar() {
         MenuBar menuBar = new MenuBar();
@@ -213,30 +235,53 @@ public class View {
         pause.textProperty().bind(viewModel.getPauseMenuText());
         pause.setOnAction(event -> viewModel.togglePaused());
         pause.setAccelerator(KeyCombination.keyCombination("Shortcut+P"));
-        MenuItem lowSpeed = new MenuItem("_5 seconds per minute");
-        lowSpeed.setMnemonicParsing(true);
-        lowSpeed.setOnAction(e -> secondsPerMinute.set(5));
-        lowSpeed.disableProperty().bind(secondsPerMinute.isEqualTo(5));
-        MenuItem medSpeed = new MenuItem("_3 seconds per minute");
-        medSpeed.setMnemonicParsing(true);
-        medSpeed.setOnAction(e -> secondsPerMinute.set(3));
-        medSpeed.disableProperty().bind(secondsPerMinute.isEqualTo(3));
-        MenuItem highSpeed = new MenuItem("_1 second per minute");
-        highSpeed.setMnemonicParsing(true);
-        highSpeed.setOnAction(e -> secondsPerMinute.set(1));
-        highSpeed.disableProperty().bind(secondsPerMinute.isEqualTo(1));
+        MenuItem fastForward = new MenuItem("Fast-forward to _next movement");
+        fastForward.setMnemonicParsing(true);
+        fastForward.setOnAction(event -> viewModel.fastForward());
+        fastForward.setAccelerator(KeyCombination.keyCombination("Shortcut+F"));
+        CheckMenuItem profile = new CheckMenuItem("P_rofile ticks");
+        profile.setMnemonicParsing(true);
+        profile.setOnAction(e -> viewModel.setProfiling(profile.isSelected()));
+        MenuItem showProfile = new MenuItem("Show tick pro_file...");
+        showProfile.setMnemonicParsing(true);
+        showProfile.setOnAction(e -> viewModel.createInfoDialog("Tick profile",
+            viewModel.getProfileSummary()));
+        showProfile.disableProperty().bind(profile.selectedProperty().not());
+        MenuItem resetZoom = new MenuItem("Reset _zoom");
+        resetZoom.setMnemonicParsing(true);
+        resetZoom.setOnAction(e -> canvas.resetZoom());
+        resetZoom.setAccelerator(KeyCombination.keyCombination("Shortcut+0"));
         Menu menuSim = new Menu("_Simulation");
         menuSim.setMnemonicParsing(true);
         Menu speed = new Menu("_Speed");
         speed.setMnemonicParsing(true);
-        speed.getItems().add(lowSpeed);
-        speed.getItems().add(medSpeed);
-        speed.getItems().add(highSpeed);
+        speed.getItems().add(createSpeedMenuItem("_5 seconds per minute", 1.0 / 5));
+        speed.getItems().add(createSpeedMenuItem("_3 seconds per minute", 1.0 / 3));
+        speed.getItems().add(createSpeedMenuItem("_1 second per minute", 1));
+        speed.getItems().add(createSpeedMenuItem("1 _hour per second", 60));
+        speed.getItems().add(createSpeedMenuItem("1 _day per second", 60 * 24));
+        speed.getItems().add(createSpeedMenuItem("As _fast as possible",
+            SimulationThread.AS_FAST_AS_POSSIBLE));
         menuSim.getItems().add(pause);
+        menuSim.getItems().add(fastForward);
         menuSim.getItems().add(speed);
+        menuSim.getItems().add(resetZoom);
+        menuSim.getItems().add(new SeparatorMenuItem());
+        menuSim.getItems().add(profile);
+        menuSim.getItems().add(showProfile);
         return menuSim;
     }
 
+    /* Creates a menu item that sets the simulation to the given speed, in minutes per second */
+    private MenuItem createSpeedMenuItem(String text, double minutesPerSecond) {
+        MenuItem item = new MenuItem(text);
+        item.setMnemonicParsing(true);
+        item.setOnAction(e -> viewModel.getSpeed().set(minutesPerSecond));
+        item.disableProperty().bind(Bindings.createBooleanBinding(
+            () -> viewModel.getSpeed().get() == minutesPerSecond, viewModel.getSpeed()));
+        return item;
+    }
+
     /* Creates a menu item that, when clicked, prompts for a new ship to be added */
     private MenuItem createAddShipMenu() {
         MenuItem addShip = new MenuItem("New _ship...");
@@ -307,14 +352,14 @@ public class View {
                 return;
             }
 
-            Ship newShip;
-            if (shipType.get().equals("BulkCarrier")) {
-                newShip = new BulkCarrier(imoNumber.get(), shipName.get(), shipOrigin.get(),
-                    shipNauticalFlag.get(), capacity.get());
-            } else {
-                newShip = new ContainerShip(imoNumber.get(), shipName.get(), shipOrigin.get(),
+            Ship newShip = viewModel.callInSimulation(() -> {
+                if (shipType.get().equals("BulkCarrier")) {
+                    return new BulkCarrier(imoNumber.get(), shipName.get(), shipOrigin.get(),
+                        shipNauticalFlag.get(), capacity.get());
+                }
+                return new ContainerShip(imoNumber.get(), shipName.get(), shipOrigin.get(),
                     shipNauticalFlag.get(), capacity.get());
-            }
+            });
             //  Quay (If valid)
             var choice = chooseShipLocation("Add Ship to Quay or save for later",
                 "Please choose either a quay or save for later", newShip);
@@ -324,9 +369,14 @@ public class View {
             if (choice.get() instanceof Quay) {
                 Quay q = ((Quay) choice.get());
                 // if another ship has docked since choice was made (if sim is running)
-                if (q.isEmpty()) {
+                boolean docked = viewModel.callInSimulation(() -> {
+                    if (!q.isEmpty()) {
+                        return false;
+                    }
                     q.shipArrives(newShip);
-                } else {
+                    return true;
+                });
+                if (!docked) {
                     viewModel.createErrorDialog("Cannot add ship to Quay",
                         "Since selecting that Quay (" + q.toString() + ") it has become occupied. "
                             +
@@ -334,7 +384,6 @@ public class View {
                     return;
                 }
             }
-            viewModel.registerChange();
         });
         return addShip;
     }
@@ -390,7 +439,6 @@ public class View {
                 return;
             }
 
-            Cargo newCargo;
             if (shipType.get().equals("BulkCargo")) {
                 var cargoTonnage = getResponse("Add Cargo",
                     "Please enter the cargo weight in tonnes",
@@ -400,13 +448,12 @@ public class View {
                 if (cargoTonnage.isEmpty() || cargoTonnage.get() < 1) {
                     return;
                 }
-                newCargo = new BulkCargo(cargoId.get(), cargoDestination.get(), cargoTonnage.get(),
-                    (BulkCargoType) cargoType.get());
+                viewModel.callInSimulation(() -> new BulkCargo(cargoId.get(),
+                    cargoDestination.get(), cargoTonnage.get(), (BulkCargoType) cargoType.get()));
             } else {
-                newCargo = new Container(cargoId.get(), cargoDestination.get(),
-                    (ContainerType) cargoType.get());
+                viewModel.callInSimulation(() -> new Container(cargoId.get(),
+                    cargoDestination.get(), (ContainerType) cargoType.get()));
             }
-            viewModel.registerChange();
         });
         return addCargo;
     }
@@ -426,7 +473,7 @@ public class View {
                 return;
             }
 
-            var defaultQuayNumber = 1 + viewModel.getPort().getQuays().size();
+            var defaultQuayNumber = 1 + viewModel.getSnapshot().getQuays().size();
             var quayNum = getResponse("Add Quay",
                 "Please enter the quay ID",
                 "quay ID:",
@@ -452,9 +499,8 @@ public class View {
                 newQuay = new ContainerQuay(quayNum.get(), cargoCapacity.get());
             }
 
-            viewModel.getPort().addQuay(newQuay);
+            viewModel.runInSimulation(() -> viewModel.getPort().addQuay(newQuay));
             viewModel.getNumQuays().set(viewModel.getNumQuays().get() + 1);
-            viewModel.registerChange();
         });
         addQuay.disableProperty().bind(Bindings.greaterThan(viewModel.getNumQuays(),
             MAX_QUAYS - 1));
@@ -485,13 +531,15 @@ public class View {
                 } else {
                     newMovement = ShipMovement.fromString(encoding.get());
                 }
-                viewModel.getPort().addMovement(newMovement);
+                viewModel.callInSimulation(() -> {
+                    viewModel.getPort().addMovement(newMovement);
+                    return null;
+                });
             } catch (Exception exception) {
                 viewModel.createErrorDialog("Error creating movement",
                     exception.getMessage());
                 return;
             }
-            viewModel.registerChange();
         });
         return addMovement;
     }
@@ -518,9 +566,8 @@ public class View {
                 default:
                     return;
             }
-            viewModel.getPort().addStatisticsEvaluator(ev);
-
-            viewModel.registerChange();
+            StatisticsEvaluator added = ev;
+            viewModel.runInSimulation(() -> viewModel.getPort().addStatisticsEvaluator(added));
         });
         return addEval;
     }
@@ -552,11 +599,14 @@ public class View {
     /* Prompts the user to choose a quay from a list of all the port's quays or to add later */
     private Optional<Object> chooseShipLocation(String title, String header, Ship ship) {
         var options = new TreeMap<String, Object>();
-        for (Quay quay : viewModel.getPort().getQuays()) {
-            if (quay.isEmpty() && ship.canDock(quay)) {
-                options.put(quay.toString(), quay);
+        viewModel.callInSimulation(() -> {
+            for (Quay quay : viewModel.getPort().getQuaysView()) {
+                if (quay.isEmpty() && ship.canDock(quay)) {
+                    options.put(quay.toString(), quay);
+                }
             }
-        }
+            return null;
+        });
         options.put("Add ship later", "");
         var choice = getChoice(title, header, "Location:",
             options.keySet().toArray(new String[0])[0],
@@ -640,36 +690,24 @@ public class View {
     }
 
     /**
-     * Initialises the view and begins the timer responsible for performing ticks
+     * Initialises the view, starts the simulation thread and begins the timer responsible for
+     * showing the latest state of the simulation each frame
      *
      * @given
      */
     public void run() {
-        final long nanosPerSecond = 1000000000;
-
         new AnimationTimer() {
             @Override
             public void handle(long currentNanoTime) {
+                viewModel.update();
                 if (viewModel.isChanged()) {
                     viewModel.notChanged();
                     canvas.draw();
                 }
-
-                if (viewModel.getPaused().get()) {
-                    lastNanoTime = currentNanoTime;
-                    return;
-                }
-
-                timeSpentUnpaused += currentNanoTime - lastNanoTime;
-                lastNanoTime = currentNanoTime;
-
-                if (timeSpentUnpaused > secondsPerMinute.get() * nanosPerSecond) {
-                    timeSpentUnpaused = 0;
-                    viewModel.elapseOneMinute();
-                }
             }
         }.start();
 
+        viewModel.startSimulation();
         this.stage.show();
         this.canvas.draw();
     }
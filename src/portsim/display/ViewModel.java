@@ -1,27 +1,47 @@
 package portsim.display;
 
+import javafx.application.Platform;
 import javafx.beans.property.*;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.scene.control.Alert;
+import javafx.scene.control.TextArea;
+import javafx.scene.text.Font;
 
 import portsim.cargo.BulkCargoType;
-import portsim.cargo.Cargo;
 import portsim.evaluators.*;
+import portsim.events.SaveEvent;
+import portsim.metrics.MetricsServer;
 import portsim.port.Port;
+import portsim.port.PortSnapshot;
+import portsim.port.SimulationThread;
+import portsim.port.TickProfiler;
 import portsim.ship.BulkCarrier;
 import portsim.ship.ContainerShip;
 import portsim.ship.Ship;
 import portsim.util.BadEncodingException;
 import portsim.cargo.BulkCargo;
+import portsim.cargo.Cargo;
 import portsim.cargo.Container;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.StringJoiner;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 /**
  * View model for the Port Simulation GUI.
@@ -29,11 +49,135 @@ import java.util.stream.Collectors;
  * @ass2
  */
 public class ViewModel {
+    /**
+     * Orders in which the cargo manifest can be listed.
+     */
+    public enum ManifestOrder {
+        /**
+         * In order of cargo ID
+         */
+        ID("Sort by ID", Comparator.comparingInt(Cargo::getId)),
+        /**
+         * In order of destination, with cargo that has no destination first, then cargo ID
+         */
+        DESTINATION("Sort by destination",
+            Comparator.comparing(Cargo::getDestination,
+                Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparingInt(Cargo::getId)),
+        /**
+         * In order of cargo type, then cargo ID
+         */
+        TYPE("Sort by type",
+            Comparator.comparing(ViewModel::cargoTypeName).thenComparingInt(Cargo::getId));
+
+        /**
+         * Text shown for this order
+         */
+        private final String text;
+
+        /**
+         * Comparator that lists cargo in this order
+         */
+        private final Comparator<Cargo> comparator;
+
+        /* Creates a new manifest order */
+        ManifestOrder(String text, Comparator<Cargo> comparator) {
+            this.text = text;
+            this.comparator = comparator;
+        }
+
+        /**
+         * Returns the comparator that lists cargo in this order.
+         *
+         * @return cargo comparator
+         */
+        public Comparator<Cargo> getComparator() {
+            return comparator;
+        }
+
+        /**
+         * Returns the text shown for this order, e.g. {@code "Sort by ID"}.
+         *
+         * @return display text
+         */
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Entry of the manifest type filter that shows cargo of every type
+     */
+    public static final String ALL_TYPES = "All types";
+
+    /**
+     * Shortest time between updates of the evaluator and ship information text, in nanoseconds
+     */
+    private static final long TEXT_REFRESH_NANOS = 1_000_000_000L / 4;
+
     /**
      * Port  model containing ships and quays
      */
     private final Port port;
 
+    /**
+     * Thread running the simulation of the port
+     */
+    private final SimulationThread simulation;
+
+    /**
+     * Evaluator text most recently generated on the simulation thread
+     */
+    private final AtomicReference<String> latestEvaluatorText;
+
+    /**
+     * Evaluators the latest evaluator text was generated from (simulation thread only)
+     */
+    private List<StatisticsEvaluator> textEvaluators = new ArrayList<>();
+
+    /**
+     * Versions of {@link #textEvaluators} when the latest evaluator text was generated
+     * (simulation thread only)
+     */
+    private long[] textVersions = new long[0];
+
+    /**
+     * Time the latest evaluator text was generated, from {@link System#nanoTime()}
+     */
+    private volatile long evaluatorTextNanos;
+
+    /**
+     * Whether an evaluator has changed since the latest evaluator text was generated, but the
+     * text has not been generated again yet to keep to the refresh rate
+     */
+    private volatile boolean evaluatorTextStale;
+
+    /**
+     * Evaluator text the GUI is showing
+     */
+    private String shownEvaluatorText;
+
+    /**
+     * Properties of the selected ship the ship information text was last generated from
+     */
+    private List<Object> shownShipInfo;
+
+    /**
+     * Time the ship information text was last generated, from {@link System#nanoTime()}
+     */
+    private long shipInfoNanos;
+
+    /**
+     * Sequence number of the snapshot the GUI was last updated from
+     */
+    private long shownSequence = -1;
+
+    /**
+     * Tick exception that has already been reported to the user, or null
+     */
+    private RuntimeException reportedError;
+
     /**
      * Whether the state of the model has changed
      */
@@ -71,6 +215,44 @@ public class ViewModel {
     private final StringProperty cargoManifestText = new SimpleStringProperty(
         "Cargo Manifest");
 
+    /**
+     * Cargo that was on board the selected ship when the manifest was last dumped, in loading
+     * order
+     */
+    private final ObservableList<Cargo> manifest = FXCollections.observableArrayList();
+
+    /**
+     * Cargo in the manifest that matches the manifest filters
+     */
+    private final FilteredList<Cargo> filteredManifest = new FilteredList<>(manifest);
+
+    /**
+     * Cargo in the manifest that matches the manifest filters, in the chosen order
+     */
+    private final SortedList<Cargo> sortedManifest = new SortedList<>(filteredManifest);
+
+    /**
+     * Cargo types in the manifest that can be filtered on, starting with {@link #ALL_TYPES}
+     */
+    private final ObservableList<String> manifestTypes =
+        FXCollections.observableArrayList(ALL_TYPES);
+
+    /**
+     * Cargo type the manifest is filtered to, or {@link #ALL_TYPES}
+     */
+    private final StringProperty manifestTypeFilter = new SimpleStringProperty(ALL_TYPES);
+
+    /**
+     * Start of the destination the manifest is filtered to, or empty to show all destinations
+     */
+    private final StringProperty manifestDestinationFilter = new SimpleStringProperty("");
+
+    /**
+     * Order in which the manifest is listed
+     */
+    private final ObjectProperty<ManifestOrder> manifestOrder =
+        new SimpleObjectProperty<>(ManifestOrder.ID);
+
     /**
      * Text displayed in the time label
      */
@@ -89,11 +271,21 @@ public class ViewModel {
     private final ObjectProperty<Ship> selectedShip =
         new SimpleObjectProperty<>();
 
+    /**
+     * Target speed of the simulation, in simulated minutes per second
+     */
+    private final DoubleProperty speed = new SimpleDoubleProperty(0.2);
+
     /**
      * File path of the port file that we loaded from
      */
     private final String defaultPortSaveLocation;
 
+    /**
+     * Server exposing metrics about the port, or null if metrics are not being served
+     */
+    private volatile MetricsServer metricsServer;
+
     /**
      * Creates a new view model and constructs a port by reading from the given filenames.
      *
@@ -109,26 +301,46 @@ public class ViewModel {
         this.defaultPortSaveLocation = filename;
 
         this.port = Port.initialisePort(new FileReader(filename));
+        this.simulation = new SimulationThread(port, this::publish);
+        this.latestEvaluatorText = new AtomicReference<>();
+        refreshEvaluatorText(port.getEvaluators());
+        this.simulation.setSpeed(speed.get());
+        this.speed.addListener((observable, oldValue, newValue) ->
+            simulation.setSpeed(newValue.doubleValue()));
 
-        this.numQuays.set(port.getQuays().size());
+        this.numQuays.set(port.getQuaysView().size());
 
         this.selectedShip.addListener((observable, oldValue, newValue) -> {
+            PortSnapshot.ShipCargo cargo = newValue == null ? null
+                : simulation.getSnapshot().getShipCargo(newValue);
             if (newValue == null) {
                 shipInfoText.set("No ship selected");
             } else {
-                shipInfoText.set(generateShipInfoText(newValue));
+                shipInfoText.set(generateShipInfoText(newValue, cargo));
             }
+            shownShipInfo = shipInfo(newValue, cargo);
+            shipInfoNanos = System.nanoTime();
         });
 
+        this.manifestTypeFilter.addListener((observable, oldValue, newValue) ->
+            filteredManifest.setPredicate(createManifestFilter()));
+        this.manifestDestinationFilter.addListener((observable, oldValue, newValue) ->
+            filteredManifest.setPredicate(createManifestFilter()));
+        this.sortedManifest.setComparator(manifestOrder.get().getComparator());
+        this.manifestOrder.addListener((observable, oldValue, newValue) ->
+            sortedManifest.setComparator(newValue == null
+                ? ManifestOrder.ID.getComparator() : newValue.getComparator()));
+
     }
 
     /**
      * Returns an event handler for when the "Dump Cargo Manifest"
      * button is clicked.
      * <p>
-     * The overall purpose of this event handler is to update the {@code cargoManifestText} string
-     * property with the string representation of the  cargo on the currently selected ship, as
-     * returned by {@link BulkCarrier#getCargo()} or {@link ContainerShip#getCargo()}.
+     * The overall purpose of this event handler is to fill the cargo manifest list (see
+     * {@link #getManifest()}) with the cargo on the currently selected ship, as returned by
+     * {@link BulkCarrier#getCargo()} or {@link ContainerShip#getCargo()}, and to update the
+     * {@code cargoManifestText} string property with a summary of that cargo.
      * <p>
      * The event handler should perform the following actions:
      * <ol>
@@ -137,20 +349,22 @@ public class ViewModel {
      * </li>
      * <li>If calling {@link BulkCarrier#getCargo()} or {@link ContainerShip#getCargo()} for the
      * currently selected ship returns a value indicating there is no cargo on board , then the
-     * {@code cargoManifestText} property should be set to {@code "No cargo on board."}.</li>
-     * <li>If the ship currently selected  is a {@link BulkCarrier}, the {@code
-     * cargoManifestText} property should be set to the {@link BulkCargo#toString()} representation
-     * of the cargo onboard. <br> For Example:<pre>BulkCargo 42 to Brazil [OIL - 420]</pre></li>
-     * <li>If the ship currently selected  is a {@link ContainerShip}, the {@code
-     * cargoManifestText} property should be set to a String containing the
-     * {@link Container#toString()} representation of each of the cargo onboard separated by a
-     * comma and {@link System#lineSeparator()}.
-     * <br><b>Note: The last line should not have a
-     * trailing comma</b><br> For Example:
-     * <pre>Container 43 to Australia [OTHER],</pre>
-     * <pre>Container 66 to Australia [OPEN_TOP],</pre>
-     * <pre>Container 92 to Australia [OPEN_TOP]</pre></li>
+     * manifest should be emptied and the {@code cargoManifestText} property should be set to
+     * {@code "No cargo on board."}.</li>
+     * <li>Otherwise the manifest should be set to the cargo on board, and the {@code
+     * cargoManifestText} property should be set to the number of pieces of cargo on board
+     * followed by the number of each {@link portsim.cargo.ContainerType} or
+     * {@link BulkCargoType}, with each line separated by {@link System#lineSeparator()}.
+     * <br> For Example:
+     * <pre>
+     * 3 pieces of cargo on board
+     * OPEN_TOP : 2
+     * OTHER : 1
+     * </pre></li>
      * </ol>
+     * Only references to the cargo are copied from the ship, so dumping the manifest of a ship
+     * carrying many containers is quick; each piece of cargo is only formatted when it is
+     * displayed.
      *
      * @return event handler for "Show Cargo Manifest for Selected Ship" button
      * @ass2
@@ -164,29 +378,86 @@ public class ViewModel {
                     return;
                 }
                 selectedShip = getSelectedShip().get();
-                // Default value if ship contents are null
-                String textToSet = "No cargo on board.";
-                Cargo cargo;
-                if (selectedShip instanceof BulkCarrier
-                    && ((BulkCarrier) selectedShip).getCargo() != null) {
-                    textToSet = ((BulkCarrier) selectedShip).getCargo().toString();
-                }
-                if (selectedShip instanceof ContainerShip
-                    && !((ContainerShip) selectedShip).getCargo().isEmpty()) {
-                    textToSet =
-                        ((ContainerShip) selectedShip).getCargo().stream().map(Object::toString)
-                            .collect(
-                                Collectors.joining(',' + System.lineSeparator()));
-                }
-
-                cargoManifestText.set(textToSet);
+                // The ship's cargo can only be read safely on the simulation thread
+                showManifest(callInSimulation(() -> getCargoOnBoard(selectedShip)));
             }
         };
     }
 
+    /* Returns a copy of the list of cargo on board the given ship */
+    private static List<Cargo> getCargoOnBoard(Ship ship) {
+        if (ship instanceof BulkCarrier && ((BulkCarrier) ship).getCargo() != null) {
+            return Collections.singletonList(((BulkCarrier) ship).getCargo());
+        }
+        if (ship instanceof ContainerShip) {
+            return new ArrayList<>(((ContainerShip) ship).getCargoView());
+        }
+        return Collections.emptyList();
+    }
+
+    /* Shows the given cargo in the manifest, along with a summary of its types */
+    private void showManifest(List<Cargo> cargo) {
+        Map<String, Integer> typeCounts = new TreeMap<>();
+        for (Cargo c : cargo) {
+            typeCounts.merge(cargoTypeName(c), 1, Integer::sum);
+        }
+        if (cargo.isEmpty()) {
+            cargoManifestText.set("No cargo on board.");
+        } else {
+            StringJoiner lineJoiner = new StringJoiner(System.lineSeparator());
+            lineJoiner.add(cargo.size() + (cargo.size() == 1 ? " piece" : " pieces")
+                + " of cargo on board");
+            for (Map.Entry<String, Integer> entry : typeCounts.entrySet()) {
+                lineJoiner.add(entry.getKey() + " : " + entry.getValue());
+            }
+            cargoManifestText.set(lineJoiner.toString());
+        }
+        List<String> types = new ArrayList<>();
+        types.add(ALL_TYPES);
+        types.addAll(typeCounts.keySet());
+        if (!types.contains(manifestTypeFilter.get())) {
+            manifestTypeFilter.set(ALL_TYPES);
+        }
+        manifestTypes.setAll(types);
+        manifest.setAll(cargo);
+    }
+
+    /* Returns the name of the type of the given cargo, e.g. REEFER */
+    private static String cargoTypeName(Cargo cargo) {
+        if (cargo instanceof Container) {
+            return ((Container) cargo).getType().name();
+        } else if (cargo instanceof BulkCargo) {
+            return ((BulkCargo) cargo).getType().name();
+        }
+        return cargo.getClass().getSimpleName();
+    }
+
+    /*
+     * Creates a predicate that accepts cargo matching the current manifest filters. Cargo with
+     * no destination only matches an empty destination filter.
+     */
+    private Predicate<Cargo> createManifestFilter() {
+        String type = manifestTypeFilter.get();
+        String destination = manifestDestinationFilter.get() == null ? ""
+            : manifestDestinationFilter.get().trim().toLowerCase(Locale.ROOT);
+        boolean allTypes = type == null || type.equals(ALL_TYPES);
+        if (allTypes && destination.isEmpty()) {
+            return null;
+        }
+        return cargo -> (allTypes || cargoTypeName(cargo).equals(type))
+            && (destination.isEmpty() || (cargo.getDestination() != null
+            && cargo.getDestination().toLowerCase(Locale.ROOT).startsWith(destination)));
+    }
+
     /**
      * The purpose of this method is to update the {@code evaluatorsText} string.
-     * Called each {@link #elapseOneMinute()}
+     * Called each time the GUI is updated with a new snapshot of the port (see
+     * {@link #update()}).
+     * <p>
+     * The text is generated on the simulation thread, only when an evaluator's
+     * {@link StatisticsEvaluator#getVersion() version} has changed and at most four times a
+     * second, and this method sets the {@code evaluatorsText} property to the latest text if it
+     * is not already showing it.
      * <p>
      * The string should be set to the following with each line separated by
      * {@link System#lineSeparator()}.
@@ -246,8 +517,52 @@ public class ViewModel {
      * @ass2
      */
     public void updateEvaluatorText() {
+        if (evaluatorTextStale
+            && System.nanoTime() - evaluatorTextNanos >= TEXT_REFRESH_NANOS) {
+            // a change was held back and nothing has been published since to pick it up
+            evaluatorTextStale = false;
+            runInSimulation(() -> refreshEvaluatorText(port.getEvaluators()));
+        }
+        String text = latestEvaluatorText.get();
+        if (!text.equals(shownEvaluatorText)) {
+            shownEvaluatorText = text;
+            evaluatorsText.set(text);
+        }
+    }
+
+    /*
+     * Generates the evaluator text on the simulation thread if any evaluator has been added,
+     * removed or changed since the text was last generated, unless it was generated less than
+     * TEXT_REFRESH_NANOS ago, in which case the change is marked stale to be picked up later.
+     */
+    private void refreshEvaluatorText(List<StatisticsEvaluator> evaluators) {
+        boolean changed = evaluators.size() != textEvaluators.size();
+        for (int i = 0; i < evaluators.size() && !changed; i++) {
+            changed = evaluators.get(i) != textEvaluators.get(i)
+                || evaluators.get(i).getVersion() != textVersions[i];
+        }
+        if (!changed) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (latestEvaluatorText.get() != null && now - evaluatorTextNanos < TEXT_REFRESH_NANOS) {
+            evaluatorTextStale = true;
+            return;
+        }
+        textEvaluators = new ArrayList<>(evaluators);
+        textVersions = new long[evaluators.size()];
+        for (int i = 0; i < evaluators.size(); i++) {
+            textVersions[i] = evaluators.get(i).getVersion();
+        }
+        latestEvaluatorText.set(generateEvaluatorText(evaluators));
+        evaluatorTextNanos = now;
+        evaluatorTextStale = false;
+    }
+
+    /* Generates the evaluator text for the given evaluators */
+    private static String generateEvaluatorText(List<StatisticsEvaluator> evaluators) {
         StringJoiner lineJoiner = new StringJoiner(System.lineSeparator());
-        for (StatisticsEvaluator ev : port.getEvaluators()) {
+        for (StatisticsEvaluator ev : evaluators) {
             lineJoiner.add(ev.getClass().getSimpleName());
             if (ev instanceof CargoDecompositionEvaluator) {
                 CargoDecompositionEvaluator e = (CargoDecompositionEvaluator) ev;
@@ -269,10 +584,10 @@ public class ViewModel {
                 lineJoiner.add(e.getQuaysOccupied() + " Quay(s) currently occupied");
             }
         }
-        if (port.getEvaluators().isEmpty()) {
+        if (evaluators.isEmpty()) {
             lineJoiner.add("No Evaluators Present");
         }
-        evaluatorsText.set(lineJoiner.toString());
+        return lineJoiner.toString();
     }
 
     /**
@@ -297,6 +612,8 @@ public class ViewModel {
      * EncodedMovement
      * EncodedMovement...
      * Evaluators:numEvaluators:EvaluatorSimpleName,EvaluatorSimpleName,...
+     * EncodedEvaluator
+     * EncodedEvaluator...
      * </pre>
      * Where:
      * <ul>
@@ -323,6 +640,8 @@ public class ViewModel {
      *   <li>numEvaluators is the number of statistics evaluators in the Port</li>
      *   <li>EvaluatorSimpleName is the name given by {@link Class#getSimpleName()} for
      *   each evaluator in the aforementioned list</li>
+     *   <li>EncodedEvaluator is the encoded representation of the statistics gathered by each
+     *   evaluator in the aforementioned list</li>
      * </ul>
      * <p>
      * After all the data has been written, the writer should be closed.
@@ -334,10 +653,20 @@ public class ViewModel {
      */
     public void saveAs(Writer portWriter) throws IOException {
 
+        SaveEvent saved = new SaveEvent();
+        saved.begin();
         /* Write the port to the port writer */
+        String encoded = callInSimulation(port::encode);
         BufferedWriter writer = new BufferedWriter(portWriter);
-        writer.write(port.encode());
+        writer.write(encoded);
         writer.close();
+        saved.end();
+        if (saved.shouldCommit()) {
+            saved.setPortName(port.getName());
+            saved.setTime(getSnapshot().getTime());
+            saved.setCharacters(encoded.length());
+            saved.commit();
+        }
     }
 
     /**
@@ -351,22 +680,212 @@ public class ViewModel {
     }
 
     /**
-     * Elapses one minute in the model and updates the state of the GUI.
+     * Returns the thread running the simulation of the port.
+     * <p>
+     * Once the simulation has started, the port must only be accessed from commands passed to
+     * {@link #runInSimulation(Runnable)} or {@link #callInSimulation(Callable)}.
+     *
+     * @return simulation thread
+     */
+    public SimulationThread getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * Starts the thread running the simulation. The simulation remains paused until
+     * {@link #togglePaused()} is called.
+     */
+    public void startSimulation() {
+        simulation.start();
+    }
+
+    /**
+     * Returns the most recently published snapshot of the port.
+     *
+     * @return latest snapshot of the port
+     */
+    public PortSnapshot getSnapshot() {
+        return simulation.getSnapshot();
+    }
+
+    /**
+     * Runs the given action on the simulation thread between ticks, without waiting for it.
+     * The GUI is updated with the result once the simulation publishes its next snapshot.
+     *
+     * @param action action to run with access to the port
+     */
+    public void runInSimulation(Runnable action) {
+        simulation.execute(action);
+    }
+
+    /**
+     * Runs the given action on the simulation thread between ticks and waits for its result.
+     *
+     * @param action action to run with access to the port
+     * @param <T>    type of the action's result
+     * @return result of the action
+     * @throws RuntimeException if the action throws an unchecked exception, which is rethrown
+     *                          as is
+     * @throws CompletionException if the action throws a checked exception
+     */
+    public <T> T callInSimulation(Callable<T> action) {
+        try {
+            return simulation.submit(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts serving Prometheus metrics about the port on the given local TCP port.
+     * <p>
+     * A new sample is published at most once a second as the simulation runs.
+     *
+     * @param tcpPort local TCP port to listen on
+     * @throws IOException if the metrics server cannot listen on the given port
+     * @see MetricsServer
+     */
+    public void startMetricsServer(int tcpPort) throws IOException {
+        MetricsServer server = new MetricsServer(tcpPort);
+        runInSimulation(() -> server.publish(port));
+        this.metricsServer = server;
+    }
+
+    /**
+     * Starts or stops profiling the port's ticks.
+     * <p>
+     * Enabling profiling attaches a new, empty {@link TickProfiler} to the port. Disabling it
+     * detaches the profiler so that ticks are no longer timed.
+     *
+     * @param enabled whether ticks should be profiled
+     */
+    public void setProfiling(boolean enabled) {
+        runInSimulation(() -> port.setProfiler(enabled ? new TickProfiler() : null));
+    }
+
+    /**
+     * Returns a summary of the tick timings recorded since profiling was enabled.
+     *
+     * @return profile summary, or a message indicating profiling is disabled
+     * @see TickProfiler#summary()
+     */
+    public String getProfileSummary() {
+        return callInSimulation(() -> {
+            TickProfiler profiler = port.getProfiler();
+            if (profiler == null) {
+                return "Tick profiling is disabled.";
+            }
+            return profiler.summary();
+        });
+    }
+
+    /**
+     * Elapses one minute in the model. The GUI is updated once the simulation publishes the
+     * resulting snapshot.
      *
      * @given
      */
     public void elapseOneMinute() {
-        port.elapseOneMinute();
-        timeText.set(String.format("Time: %02d:%02d", port.getTime() / 60, port.getTime() % 60));
+        runInSimulation(port::elapseOneMinute);
+    }
+
+    /**
+     * Runs the simulation as fast as possible until the next scheduled movement is due, skipping
+     * through the quiet period before it. The GUI is updated once per frame while
+     * fast-forwarding.
+     *
+     * @see SimulationThread#fastForwardToNextMovement()
+     */
+    public void fastForward() {
+        simulation.fastForwardToNextMovement();
+    }
+
+    /**
+     * Updates the state of the GUI from the latest snapshot published by the simulation, if it
+     * has not already been shown. Called once per frame on the JavaFX application thread.
+     * <p>
+     * If a tick has failed since the last update, an error dialog is shown describing the
+     * failure.
+     */
+    public void update() {
+        RuntimeException error = simulation.getLastError();
+        if (error != null && error != reportedError) {
+            reportedError = error;
+            if (!paused.get()) {
+                togglePaused();
+            }
+            Platform.runLater(() -> createErrorDialog("Simulation paused",
+                "A tick failed: " + error));
+        }
+        // the text panels are checked every frame, so that a change held back to keep to their
+        // refresh rate is shown once the simulation stops publishing
         updateEvaluatorText();
-        if (selectedShip.isNotNull().get()) {
-            this.shipInfoText.set(generateShipInfoText(selectedShip.get()));
+        updateShipInfoText();
+        PortSnapshot snapshot = simulation.getSnapshot();
+        if (snapshot.getSequence() == shownSequence) {
+            return;
         }
+        shownSequence = snapshot.getSequence();
+        long time = snapshot.getTime();
+        timeText.set(String.format("Time: %02d:%02d", time / 60, time % 60));
+        numQuays.set(snapshot.getQuays().size());
         registerChange();
     }
 
-    /* Generates the formatted information text for the given ship */
-    private String generateShipInfoText(Ship ship) {
+    /*
+     * Generates the ship information text again if the properties of the selected ship it
+     * shows have changed in the latest snapshot, at most once every TEXT_REFRESH_NANOS. The
+     * text is left as it is once the ship has left the port and is no longer in the snapshot.
+     */
+    private void updateShipInfoText() {
+        Ship ship = selectedShip.get();
+        long now = System.nanoTime();
+        if (ship == null || now - shipInfoNanos < TEXT_REFRESH_NANOS) {
+            return;
+        }
+        PortSnapshot.ShipCargo cargo = simulation.getSnapshot().getShipCargo(ship);
+        if (cargo == null) {
+            return;
+        }
+        List<Object> info = shipInfo(ship, cargo);
+        if (!info.equals(shownShipInfo)) {
+            shownShipInfo = info;
+            shipInfoNanos = now;
+            shipInfoText.set(generateShipInfoText(ship, cargo));
+        }
+    }
+
+    /*
+     * Returns the properties of the given ship that can change while it is shown, taking its
+     * cargo from a snapshot rather than from the ship itself.
+     */
+    private static List<Object> shipInfo(Ship ship, PortSnapshot.ShipCargo cargo) {
+        if (ship instanceof BulkCarrier) {
+            return Arrays.asList(ship, ship.getFlag(),
+                cargo == null ? null : cargo.getBulkCargoType());
+        } else if (ship instanceof ContainerShip) {
+            return Arrays.asList(ship, ship.getFlag(), cargo == null ? null : cargo.getCount());
+        }
+        return Arrays.asList(ship, ship == null ? null : ship.getFlag());
+    }
+
+    /* Called on the simulation thread each time it publishes a snapshot of the port */
+    private void publish(PortSnapshot snapshot, Port port) {
+        MetricsServer server = metricsServer;
+        if (server != null) {
+            server.publish(port);
+        }
+        refreshEvaluatorText(port.getEvaluators());
+    }
+
+    /*
+     * Generates the formatted information text for the given ship, describing its cargo as
+     * recorded in a snapshot. The cargo is left out if the ship was not in the snapshot.
+     */
+    private String generateShipInfoText(Ship ship, PortSnapshot.ShipCargo cargo) {
         StringJoiner lineJoiner = new StringJoiner(System.lineSeparator());
         lineJoiner.add("Name:\t\t" + ship.getName());
         lineJoiner.add("imoNumber\t" + ship.getImoNumber());
@@ -374,12 +893,14 @@ public class ViewModel {
         lineJoiner.add("IMO number:\t" + ship.getImoNumber());
         lineJoiner.add("Nautical Flag: \t" + ship.getFlag());
         lineJoiner.add("Port of origin:\t" + ship.getOriginFlag());
+        if (cargo == null) {
+            return lineJoiner.toString();
+        }
         if (ship instanceof BulkCarrier) {
-            BulkCargo c = ((BulkCarrier) ship).getCargo();
-            lineJoiner.add("Carrying:      \t" + (c == null ? "Nothing" : c.getType()));
+            BulkCargoType type = cargo.getBulkCargoType();
+            lineJoiner.add("Carrying:      \t" + (type == null ? "Nothing" : type));
         } else if (ship instanceof ContainerShip) {
-            lineJoiner.add("Carrying:      \t" + ((ContainerShip) ship).getCargo().size()
-                + " containers");
+            lineJoiner.add("Carrying:      \t" + cargo.getCount() + " containers");
         }
         return lineJoiner.toString();
     }
@@ -391,6 +912,7 @@ public class ViewModel {
      */
     public void togglePaused() {
         this.paused.setValue(!this.paused.getValue());
+        simulation.setPaused(this.paused.get());
         if (this.paused.get()) {
             this.pausedStatusText.setValue(" (Paused)");
             this.pauseMenuText.setValue("Un_pause");
@@ -451,6 +973,16 @@ public class ViewModel {
         return paused;
     }
 
+    /**
+     * Returns the property storing the target speed of the simulation, in simulated minutes per
+     * second ({@link SimulationThread#AS_FAST_AS_POSSIBLE} to run as fast as possible).
+     *
+     * @return speed property
+     */
+    public DoubleProperty getSpeed() {
+        return speed;
+    }
+
     /**
      * Returns the property storing the contents of the ship info text box.
      *
@@ -471,6 +1003,57 @@ public class ViewModel {
         return cargoManifestText;
     }
 
+    /**
+     * Returns the cargo in the manifest of the selected ship that matches the manifest filters,
+     * in the chosen order.
+     * <p>
+     * The list holds the cargo itself rather than text, so a view displaying it only needs to
+     * format the cargo that is visible.
+     *
+     * @return filtered and sorted manifest
+     * @see #getShipContentsHandler()
+     */
+    public ObservableList<Cargo> getManifest() {
+        return sortedManifest;
+    }
+
+    /**
+     * Returns the cargo types present in the manifest, preceded by {@link #ALL_TYPES}.
+     *
+     * @return types the manifest can be filtered to
+     */
+    public ObservableList<String> getManifestTypes() {
+        return manifestTypes;
+    }
+
+    /**
+     * Returns the property storing the cargo type the manifest is filtered to.
+     *
+     * @return type filter property, set to {@link #ALL_TYPES} to show every type
+     */
+    public StringProperty getManifestTypeFilter() {
+        return manifestTypeFilter;
+    }
+
+    /**
+     * Returns the property storing the destination the manifest is filtered to. Cargo is
+     * shown if its destination starts with the filter, ignoring case.
+     *
+     * @return destination filter property, empty to show every destination
+     */
+    public StringProperty getManifestDestinationFilter() {
+        return manifestDestinationFilter;
+    }
+
+    /**
+     * Returns the property storing the order in which the manifest is listed.
+     *
+     * @return manifest order property
+     */
+    public ObjectProperty<ManifestOrder> getManifestOrder() {
+        return manifestOrder;
+    }
+
     /**
      * Returns the property storing the contents of the time info text box.
      *
@@ -548,6 +1131,25 @@ public class ViewModel {
         alert.showAndWait();
     }
 
+    /**
+     * Creates and shows an information dialog whose content is shown in a monospaced font.
+     *
+     * @param headerText  text to show in the dialog header
+     * @param contentText text to show in the dialog content box
+     */
+    public void createInfoDialog(String headerText, String contentText) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Information");
+        alert.setHeaderText(headerText);
+        TextArea content = new TextArea(contentText);
+        content.setEditable(false);
+        content.setFont(Font.font("monospace", 12));
+        alert.getDialogPane().setContent(content);
+        alert.getDialogPane().setPrefWidth(720);
+
+        alert.showAndWait();
+    }
+
     /**
      * Creates and shows a success dialog.
      *
@@ -8,8 +8,10 @@ import portsim.movement.ShipMovement;
 import portsim.ship.BulkCarrier;
 import portsim.ship.ContainerShip;
 import portsim.ship.Ship;
+import portsim.util.BadEncodingException;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -115,27 +117,33 @@ public class CargoDecompositionEvaluator extends StatisticsEvaluator {
     @Override
     public void onProcessMovement(Movement movement) {
         if (movement.getDirection() == MovementDirection.INBOUND) {
+            // Only a movement carrying cargo changes the distributions
+            boolean counted = false;
             // Handle if cargo is on a ship
             if (movement instanceof ShipMovement) {
                 Ship ship = ((ShipMovement) movement).getShip();
                 if (ship instanceof ContainerShip) {
-                    List<Container> allCargo = ((ContainerShip) ship).getCargo();
+                    List<Container> allCargo = ((ContainerShip) ship).getCargoView();
                     for (Container cargo : allCargo) {
                         cargoDistribution.merge(cargo.getClass().getSimpleName(),  1,
                             Integer::sum);
                         containerDistribution.merge(cargo.getType(),  1,
                             Integer::sum);
                     }
+                    counted = !allCargo.isEmpty();
                 } else if (ship instanceof BulkCarrier) {
                     BulkCargo cargo = ((BulkCarrier) ship).getCargo();
-                    cargoDistribution.merge(cargo.getClass().getSimpleName(),  1,
-                        Integer::sum);
-                    bulkCargoDistribution.merge(cargo.getType(), 1,
-                        Integer::sum);
+                    if (cargo != null) {
+                        cargoDistribution.merge(cargo.getClass().getSimpleName(),  1,
+                            Integer::sum);
+                        bulkCargoDistribution.merge(cargo.getType(), 1,
+                            Integer::sum);
+                        counted = true;
+                    }
                 }
                 // handle coming into port
             } else if (movement instanceof CargoMovement) {
-                List<Cargo> allCargo = ((CargoMovement) movement).getCargo();
+                List<Cargo> allCargo = ((CargoMovement) movement).getCargoView();
                 for (Cargo cargo : allCargo) {
                     cargoDistribution.merge(cargo.getClass().getSimpleName(),  1,
                         Integer::sum);
@@ -148,7 +156,118 @@ public class CargoDecompositionEvaluator extends StatisticsEvaluator {
                     }
 
                 }
+                counted = !allCargo.isEmpty();
+            }
+            if (counted) {
+                markChanged();
             }
         }
     }
+
+    /**
+     * Adds the cargo class, container type and bulk cargo type counts of the other evaluator to
+     * the counts of this evaluator.
+     *
+     * @param other CargoDecompositionEvaluator whose distributions to add
+     */
+    @Override
+    protected void mergeFrom(StatisticsEvaluator other) {
+        CargoDecompositionEvaluator evaluator = (CargoDecompositionEvaluator) other;
+        for (Map.Entry<String, Integer> entry : evaluator.cargoDistribution.entrySet()) {
+            cargoDistribution.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        for (Map.Entry<ContainerType, Integer> entry
+            : evaluator.containerDistribution.entrySet()) {
+            containerDistribution.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+        for (Map.Entry<BulkCargoType, Integer> entry
+            : evaluator.bulkCargoDistribution.entrySet()) {
+            bulkCargoDistribution.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    /**
+     * Returns the machine-readable string representation of this evaluator's state.
+     * <p>
+     * The format of the string to return is
+     * <pre>CargoDecompositionEvaluator:time:cargoCounts:containerCounts:bulkCargoCounts</pre>
+     * Where:
+     * <ul>
+     *   <li>{@code time} is the time since the evaluator was created</li>
+     *   <li>{@code cargoCounts} is the cargo distribution as {@code cargoClass=count} pairs
+     *   separated by commas, keyed by the simple class name of the cargo</li>
+     *   <li>{@code containerCounts} is the container distribution as
+     *   {@code containerType=count} pairs separated by commas</li>
+     *   <li>{@code bulkCargoCounts} is the bulk cargo distribution as
+     *   {@code bulkCargoType=count} pairs separated by commas</li>
+     * </ul>
+     * For example:
+     * <pre>CargoDecompositionEvaluator:60:Container=2,BulkCargo=1:REEFER=2:OIL=1</pre>
+     *
+     * @return encoded string representation of this evaluator
+     */
+    @Override
+    public String encode() {
+        return String.format("%s:%s:%s:%s",
+            super.encode(),
+            encodeCounts(cargoDistribution),
+            encodeCounts(containerDistribution),
+            encodeCounts(bulkCargoDistribution));
+    }
+
+    /**
+     * Restores the cargo, container and bulk cargo distributions from the fields of the encoded
+     * evaluator.
+     *
+     * @param encoded fields of the encoded evaluator, split on {@code ':'}
+     * @throws BadEncodingException if the fields do not match {@link #encode()} or a type is not
+     *                              one of {@link ContainerType#values()} or
+     *                              {@link BulkCargoType#values()}
+     */
+    @Override
+    protected void decodeState(String[] encoded) throws BadEncodingException {
+        if (encoded.length != 5) {
+            throw new BadEncodingException("Incorrect number of fields for encoded "
+                + "CargoDecompositionEvaluator: " + encoded.length);
+        }
+        try {
+            for (Map.Entry<String, Long> entry : decodeCounts(encoded[2]).entrySet()) {
+                cargoDistribution.put(entry.getKey(), entry.getValue().intValue());
+            }
+            for (Map.Entry<String, Long> entry : decodeCounts(encoded[3]).entrySet()) {
+                containerDistribution.put(ContainerType.valueOf(entry.getKey()),
+                    entry.getValue().intValue());
+            }
+            for (Map.Entry<String, Long> entry : decodeCounts(encoded[4]).entrySet()) {
+                bulkCargoDistribution.put(BulkCargoType.valueOf(entry.getKey()),
+                    entry.getValue().intValue());
+            }
+        } catch (IllegalArgumentException e) {
+            throw new BadEncodingException("Invalid cargo type in encoded "
+                + "CargoDecompositionEvaluator", e);
+        }
+    }
+
+    /**
+     * Returns the number of times each cargo class and each cargo type has entered the port.
+     * <p>
+     * Cargo classes are keyed by their simple class name (e.g. {@code Container}) and cargo
+     * types by their enum class and constant name (e.g. {@code ContainerType.REEFER}).
+     *
+     * @return cargo class and type counts
+     */
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : cargoDistribution.entrySet()) {
+            counters.put(entry.getKey(), (long) entry.getValue());
+        }
+        for (Map.Entry<ContainerType, Integer> entry : containerDistribution.entrySet()) {
+            counters.put("ContainerType." + entry.getKey(), (long) entry.getValue());
+        }
+        for (Map.Entry<BulkCargoType, Integer> entry : bulkCargoDistribution.entrySet()) {
+            counters.put("BulkCargoType." + entry.getKey(), (long) entry.getValue());
+        }
+        return counters;
+    }
 }
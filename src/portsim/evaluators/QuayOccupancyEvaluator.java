@@ -3,9 +3,18 @@ package portsim.evaluators;
 import portsim.movement.Movement;
 import portsim.port.Port;
 import portsim.port.Quay;
+import portsim.util.BadEncodingException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Evaluator to monitor how many quays are currently occupied at the port.
+ * <p>
+ * Merging occupancy evaluators (see {@link #merge(StatisticsEvaluator)}) adds the occupancy
+ * of every other merged port, as it was at the time of the merge, to the occupancy of the
+ * monitored port, so that the occupancy of several port shards can be reported together.
  *
  * @ass2
  */
@@ -13,7 +22,12 @@ public class QuayOccupancyEvaluator extends StatisticsEvaluator {
     /**
      * Port to monitor
      */
-    private Port port;
+    private final Port port;
+
+    /**
+     * Occupied quays of the other ports merged into this evaluator, as captured when merged
+     */
+    private int mergedQuaysOccupied;
 
     /**
      * Constructs a new QuayOccupancyEvaluator.
@@ -24,19 +38,26 @@ public class QuayOccupancyEvaluator extends StatisticsEvaluator {
     public QuayOccupancyEvaluator(Port port) {
         super();
         this.port = port;
+        this.mergedQuaysOccupied = 0;
     }
 
     /**
      * Return the number of quays that are currently occupied.
      * <p>
-     * A quay is occupied if {@link Quay#isEmpty()} returns false.
+     * A quay is occupied if {@link Quay#isEmpty()} returns false. If other evaluators have been
+     * merged into this evaluator, the occupied quays captured from their ports are added.
      *
      * @return number of quays
      * @ass2
      */
     public int getQuaysOccupied() {
+        return countOccupied(port) + mergedQuaysOccupied;
+    }
+
+    /* Returns the number of quays at the given port that currently have a ship docked */
+    private static int countOccupied(Port port) {
         int count = 0;
-        for (Quay q : port.getQuays()) {
+        for (Quay q : port.getQuaysView()) {
             if (!q.isEmpty()) {
                 count++;
             }
@@ -46,6 +67,21 @@ public class QuayOccupancyEvaluator extends StatisticsEvaluator {
         // return (int) port.getQuays().stream().filter(quay -> !quay.isEmpty()).count();
     }
 
+    /**
+     * Returns a version stamp for the occupancy reported by this evaluator.
+     * <p>
+     * The occupancy of the monitored port is read from its quays when asked for rather than
+     * being gathered as the simulation runs, so the version also counts the changes to the
+     * port's quays recorded by {@link Port#getQuayChangeCount()}. Merges advance the version as
+     * for any other evaluator.
+     *
+     * @return version of this evaluator's statistics
+     */
+    @Override
+    public long getVersion() {
+        return super.getVersion() + port.getQuayChangeCount();
+    }
+
     /**
      * QuayOccupancyEvaluator does not make use of {@code onProcessMovement()}, so this
      * method can be left empty.
@@ -58,4 +94,100 @@ public class QuayOccupancyEvaluator extends StatisticsEvaluator {
     public void onProcessMovement(Movement movement) {
         // do nothing
     }
+
+    /**
+     * Does nothing. Movements are not used by this evaluator.
+     *
+     * @param movements movements to read
+     */
+    @Override
+    public void onProcessMovements(List<? extends Movement> movements) {
+        // do nothing
+    }
+
+    /**
+     * Captures the occupancy of the port monitored by the other evaluator, together with the
+     * occupancy already merged into it, and adds it to the occupancy reported by this evaluator.
+     * <p>
+     * Only the captured number of occupied quays is kept, so merging the same port twice counts
+     * its quays twice. The port monitored by this evaluator is always counted live and is not
+     * captured again if the other evaluator also monitors it; merging an evaluator with itself
+     * has no effect. Since an occupancy evaluator always monitors a port there is no identity
+     * for merging.
+     *
+     * @param other QuayOccupancyEvaluator whose ports' occupancy to add
+     */
+    @Override
+    protected void mergeFrom(StatisticsEvaluator other) {
+        if (other == this) {
+            return;
+        }
+        QuayOccupancyEvaluator evaluator = (QuayOccupancyEvaluator) other;
+        mergedQuaysOccupied += evaluator.mergedQuaysOccupied;
+        if (evaluator.port != port) {
+            mergedQuaysOccupied += countOccupied(evaluator.port);
+        }
+    }
+
+    /**
+     * Returns the machine-readable string representation of this evaluator's state.
+     * <p>
+     * The format of the string to return is
+     * <pre>QuayOccupancyEvaluator:time:merged</pre>
+     * Where {@code time} is as described in {@link StatisticsEvaluator#encode()} and
+     * {@code merged} is the number of occupied quays captured from merged ports. The
+     * {@code :merged} field is left out if no occupancy has been merged, since the occupancy of
+     * the monitored port is read from the port itself.
+     * <p>
+     * For example: <pre>QuayOccupancyEvaluator:1440:3</pre>
+     *
+     * @return encoded string representation of this evaluator
+     */
+    @Override
+    public String encode() {
+        if (mergedQuaysOccupied == 0) {
+            return super.encode();
+        }
+        return String.format("%s:%d", super.encode(), mergedQuaysOccupied);
+    }
+
+    /**
+     * Restores the occupancy captured from merged ports from the fields of the encoded
+     * evaluator.
+     *
+     * @param encoded fields of the encoded evaluator, split on {@code ':'}
+     * @throws BadEncodingException if the fields do not match {@link #encode()}
+     */
+    @Override
+    protected void decodeState(String[] encoded) throws BadEncodingException {
+        if (encoded.length == 2) {
+            return;
+        }
+        if (encoded.length != 3) {
+            throw new BadEncodingException("Incorrect number of fields for encoded "
+                + "QuayOccupancyEvaluator: " + encoded.length);
+        }
+        try {
+            mergedQuaysOccupied = Integer.parseInt(encoded[2]);
+        } catch (NumberFormatException e) {
+            throw new BadEncodingException("Merged occupancy is not an integer: "
+                + encoded[2], e);
+        }
+        if (mergedQuaysOccupied < 0) {
+            throw new BadEncodingException("Merged occupancy is negative: " + encoded[2]);
+        }
+    }
+
+    /**
+     * Returns the number of occupied quays under the key {@code quaysOccupied}.
+     *
+     * @return occupancy counter
+     * @see #getQuaysOccupied()
+     */
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("quaysOccupied", (long) getQuaysOccupied());
+        return counters;
+    }
 }
@@ -3,8 +3,10 @@ package portsim.evaluators;
 import portsim.movement.Movement;
 import portsim.movement.MovementDirection;
 import portsim.movement.ShipMovement;
+import portsim.util.BadEncodingException;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -83,6 +85,72 @@ public class ShipFlagEvaluator extends StatisticsEvaluator {
             String flag = shipMovement.getShip().getOriginFlag();
             // increment if seen else add as 1
             flagDistribution.merge(flag, 1, Integer::sum);
+            markChanged();
         }
     }
+
+    /**
+     * Adds the number of times each flag was seen by the other evaluator to the counts of this
+     * evaluator.
+     *
+     * @param other ShipFlagEvaluator whose flag distribution to add
+     */
+    @Override
+    protected void mergeFrom(StatisticsEvaluator other) {
+        for (Map.Entry<String, Integer> entry
+            : ((ShipFlagEvaluator) other).flagDistribution.entrySet()) {
+            flagDistribution.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        }
+    }
+
+    /**
+     * Returns the machine-readable string representation of this evaluator's state.
+     * <p>
+     * The format of the string to return is
+     * <pre>ShipFlagEvaluator:time:flag=count,flag=count,...</pre>
+     * Where:
+     * <ul>
+     *   <li>{@code time} is the time since the evaluator was created</li>
+     *   <li>{@code flag} is each country of origin flag seen and {@code count} is the number
+     *   of times it has been seen</li>
+     * </ul>
+     * For example: <pre>ShipFlagEvaluator:1440:Australia=3,Japan=1</pre>
+     *
+     * @return encoded string representation of this evaluator
+     */
+    @Override
+    public String encode() {
+        return String.format("%s:%s", super.encode(), encodeCounts(flagDistribution));
+    }
+
+    /**
+     * Restores the flag distribution from the fields of the encoded evaluator.
+     *
+     * @param encoded fields of the encoded evaluator, split on {@code ':'}
+     * @throws BadEncodingException if the fields do not match {@link #encode()}
+     */
+    @Override
+    protected void decodeState(String[] encoded) throws BadEncodingException {
+        if (encoded.length != 3) {
+            throw new BadEncodingException("Incorrect number of fields for encoded "
+                + "ShipFlagEvaluator: " + encoded.length);
+        }
+        for (Map.Entry<String, Long> entry : decodeCounts(encoded[2]).entrySet()) {
+            flagDistribution.put(entry.getKey(), entry.getValue().intValue());
+        }
+    }
+
+    /**
+     * Returns the number of times each country of origin flag has been seen, keyed by flag.
+     *
+     * @return flag counts
+     */
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : flagDistribution.entrySet()) {
+            counters.put(entry.getKey(), (long) entry.getValue());
+        }
+        return counters;
+    }
 }
@@ -4,8 +4,11 @@ import portsim.movement.Movement;
 import portsim.movement.MovementDirection;
 import portsim.movement.ShipMovement;
 import portsim.ship.Ship;
+import portsim.util.BadEncodingException;
+import portsim.util.NoSuchShipException;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -88,6 +91,7 @@ public class ShipThroughputEvaluator extends StatisticsEvaluator {
             ShipMovement shipMovement = (ShipMovement) movement;
             if (shipMovement.getDirection() == MovementDirection.OUTBOUND) {
                 shipsThrough.put(shipMovement.getShip(), this.getTime());
+                markChanged();
             }
         }
     }
@@ -104,6 +108,94 @@ public class ShipThroughputEvaluator extends StatisticsEvaluator {
     @Override
     public void elapseOneMinute() {
         super.elapseOneMinute();
-        shipsThrough.values().removeIf(value -> value + 60 < this.getTime());
+        if (shipsThrough.values().removeIf(value -> value + 60 < this.getTime())) {
+            markChanged();
+        }
+    }
+
+    /**
+     * Adds the ships that passed through the port according to the other evaluator to this
+     * evaluator.
+     * <p>
+     * Departure times are aligned so that each departure keeps the same age (minutes before the
+     * evaluator's current time) after merging. A ship seen by both evaluators is counted once,
+     * using its most recent departure.
+     *
+     * @param other ShipThroughputEvaluator whose ships to add
+     */
+    @Override
+    protected void mergeFrom(StatisticsEvaluator other) {
+        long mergedTime = Math.max(this.getTime(), other.getTime());
+        long thisShift = mergedTime - this.getTime();
+        long otherShift = mergedTime - other.getTime();
+        if (thisShift != 0) {
+            shipsThrough.replaceAll((ship, departed) -> departed + thisShift);
+        }
+        for (Map.Entry<Ship, Long> entry
+            : ((ShipThroughputEvaluator) other).shipsThrough.entrySet()) {
+            shipsThrough.merge(entry.getKey(), entry.getValue() + otherShift, Math::max);
+        }
+    }
+
+    /**
+     * Returns the machine-readable string representation of this evaluator's state.
+     * <p>
+     * The format of the string to return is
+     * <pre>ShipThroughputEvaluator:time:imoNumber=departed,imoNumber=departed,...</pre>
+     * Where:
+     * <ul>
+     *   <li>{@code time} is the time since the evaluator was created</li>
+     *   <li>{@code imoNumber} is the IMO number of each ship counted towards the throughput and
+     *   {@code departed} is the evaluator time at which it left the port</li>
+     * </ul>
+     * For example: <pre>ShipThroughputEvaluator:120:1258691=75,2372721=110</pre>
+     *
+     * @return encoded string representation of this evaluator
+     */
+    @Override
+    public String encode() {
+        Map<Long, Long> departures = new LinkedHashMap<>();
+        for (Map.Entry<Ship, Long> entry : shipsThrough.entrySet()) {
+            departures.put(entry.getKey().getImoNumber(), entry.getValue());
+        }
+        return String.format("%s:%s", super.encode(), encodeCounts(departures));
+    }
+
+    /**
+     * Restores the ships counted towards the throughput from the fields of the encoded
+     * evaluator.
+     *
+     * @param encoded fields of the encoded evaluator, split on {@code ':'}
+     * @throws BadEncodingException if the fields do not match {@link #encode()} or an IMO number
+     *                              does not belong to a ship in the simulation
+     */
+    @Override
+    protected void decodeState(String[] encoded) throws BadEncodingException {
+        if (encoded.length != 3) {
+            throw new BadEncodingException("Incorrect number of fields for encoded "
+                + "ShipThroughputEvaluator: " + encoded.length);
+        }
+        for (Map.Entry<String, Long> entry : decodeCounts(encoded[2]).entrySet()) {
+            try {
+                shipsThrough.put(Ship.getShipByImoNumber(Long.parseLong(entry.getKey())),
+                    entry.getValue());
+            } catch (NumberFormatException | NoSuchShipException e) {
+                throw new BadEncodingException("Ship counted by throughput evaluator does not "
+                    + "exist: " + entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the throughput of this evaluator under the key {@code throughputPerHour}.
+     *
+     * @return throughput counter
+     * @see #getThroughputPerHour()
+     */
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> counters = new LinkedHashMap<>();
+        counters.put("throughputPerHour", (long) getThroughputPerHour());
+        return counters;
     }
 }
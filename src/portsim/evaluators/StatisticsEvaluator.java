@@ -1,20 +1,33 @@
 package portsim.evaluators;
 
 import portsim.movement.Movement;
+import portsim.port.Port;
+import portsim.util.BadEncodingException;
+import portsim.util.Encodable;
 import portsim.util.Tickable;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
 /**
  * A base class representing an object that gathers and reports data on various aspects of the
  * port's operation.
  * @ass2
  */
-public abstract class StatisticsEvaluator implements Tickable {
+public abstract class StatisticsEvaluator implements Tickable, Encodable {
 
     /**
      * The current time elapsed since the evaluator was created
      */
     private long time;
 
+    /**
+     * Number of times the statistics gathered by this evaluator have changed
+     */
+    private long version;
+
     /**
      * Creates a statistics evaluator and initialises the time since the evaluator was created
      * to zero.
@@ -35,6 +48,31 @@ public abstract class StatisticsEvaluator implements Tickable {
         return time;
     }
 
+    /**
+     * Returns a version stamp for the statistics gathered by this evaluator.
+     * <p>
+     * The version is advanced whenever the values returned by {@link #getCounters()} may have
+     * changed, so a caller that has already presented the statistics can skip doing so again
+     * while the version stays the same. It does not change as time elapses unless a statistic
+     * changes too.
+     *
+     * @return version of this evaluator's statistics
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Advances the version of this evaluator's statistics, to record that they have changed.
+     * <p>
+     * Subclasses must call this method whenever they change a statistic.
+     *
+     * @see #getVersion()
+     */
+    protected void markChanged() {
+        version++;
+    }
+
     /**
      * Read a movement to update the relevant evaluator data.
      * <p>
@@ -45,6 +83,72 @@ public abstract class StatisticsEvaluator implements Tickable {
      */
     public abstract void onProcessMovement(Movement movement);
 
+    /**
+     * Read a batch of movements that were processed together to update the relevant evaluator
+     * data.
+     * <p>
+     * This method is called by {@link portsim.port.Port#elapseOneMinute()} for consecutive
+     * cargo movements in the same direction that are due in the same minute. By default, each
+     * movement is passed to {@link #onProcessMovement(Movement)} in order. Subclasses may
+     * override this method to handle a batch more efficiently, as long as the result is the
+     * same.
+     *
+     * @param movements movements to read, in the order they were processed
+     */
+    public void onProcessMovements(List<? extends Movement> movements) {
+        for (Movement movement : movements) {
+            onProcessMovement(movement);
+        }
+    }
+
+    /**
+     * Returns the current value of each statistic gathered by this evaluator, keyed by the
+     * name of the statistic.
+     * <p>
+     * Adding or removing elements from the returned map should not affect the evaluator.
+     *
+     * @return statistic names mapped to their current values
+     */
+    public abstract Map<String, Long> getCounters();
+
+    /**
+     * Combines the statistics gathered by another evaluator of the same class into this
+     * evaluator, e.g. to aggregate the results of several parallel trials or several port shards.
+     * <p>
+     * Merging is associative, so any number of evaluators can be reduced in any grouping to the
+     * same result. Except where noted by a subclass, a newly constructed evaluator acts as an
+     * identity for merging.
+     * <p>
+     * After merging, the time since this evaluator was created is the larger of the two
+     * evaluators' times. The other evaluator is not modified.
+     *
+     * @param other evaluator whose statistics to merge into this evaluator
+     * @return this evaluator, to allow merges to be chained
+     * @throws IllegalArgumentException if the other evaluator is null or not of the same class
+     *                                  as this evaluator
+     */
+    public StatisticsEvaluator merge(StatisticsEvaluator other) {
+        if (other == null || other.getClass() != this.getClass()) {
+            throw new IllegalArgumentException("Can only merge evaluators of the same class: "
+                + getClass().getSimpleName());
+        }
+        mergeFrom(other);
+        this.time = Math.max(this.time, other.time);
+        markChanged();
+        return this;
+    }
+
+    /**
+     * Merges the subclass-specific statistics of the given evaluator into this evaluator.
+     * <p>
+     * This method is called by {@link #merge(StatisticsEvaluator)}, which guarantees that the
+     * other evaluator is of the same class as this evaluator. When this method is called,
+     * {@link #getTime()} still returns this evaluator's time from before the merge.
+     *
+     * @param other evaluator of the same class whose statistics to merge
+     */
+    protected abstract void mergeFrom(StatisticsEvaluator other);
+
     /**
      * Simulate a minute passing.
      * The time since the evaluator was created should be incremented
@@ -56,4 +160,207 @@ public abstract class StatisticsEvaluator implements Tickable {
     public void elapseOneMinute() {
         this.time += 1;
     }
+
+    /**
+     * Returns the machine-readable string representation of this evaluator's state.
+     * <p>
+     * The format of the string to return is
+     * <pre>EvaluatorSimpleName:time</pre>
+     * Where:
+     * <ul>
+     *   <li>{@code EvaluatorSimpleName} is the name given by {@link Class#getSimpleName()} for
+     *   this evaluator</li>
+     *   <li>{@code time} is the time since the evaluator was created</li>
+     * </ul>
+     * Subclasses that gather statistics append their state to this representation.
+     * <p>
+     * For example: <pre>QuayOccupancyEvaluator:1440</pre>
+     *
+     * @return encoded string representation of this evaluator
+     */
+    @Override
+    public String encode() {
+        return String.format("%s:%d", getClass().getSimpleName(), time);
+    }
+
+    /**
+     * Reads a statistics evaluator and its gathered statistics from its encoded representation
+     * in the given string.
+     * <p>
+     * The format of the string should match the encoded representation of an evaluator, as
+     * described in {@link StatisticsEvaluator#encode()} (and subclasses).
+     * <p>
+     * The encoded string is invalid if any of the following conditions are true:
+     * <ul>
+     * <li>The evaluator name is not one of the possible evaluator classes</li>
+     * <li>The time is not a long (i.e. cannot be parsed by {@link Long#parseLong(String)})</li>
+     * <li>The encoded state does not match the format of the named evaluator</li>
+     * </ul>
+     *
+     * @param string string containing the encoded evaluator
+     * @param port   port whose evaluators are being read, used by evaluators that monitor the
+     *               port directly
+     * @return decoded evaluator instance
+     * @throws BadEncodingException if the format of the given string is invalid according to
+     *                              the rules above
+     */
+    public static StatisticsEvaluator fromString(String string, Port port)
+        throws BadEncodingException {
+        String[] encodedEvaluator = string.split(":", -1);
+        if (encodedEvaluator.length < 2) {
+            throw new BadEncodingException("Expected an encoded evaluator here: " + string);
+        }
+        StatisticsEvaluator evaluator = create(encodedEvaluator[0], port);
+        try {
+            evaluator.time = Long.parseLong(encodedEvaluator[1]);
+        } catch (NumberFormatException e) {
+            throw new BadEncodingException("The time of an evaluator should be a long: "
+                + encodedEvaluator[1], e);
+        }
+        evaluator.decodeState(encodedEvaluator);
+        return evaluator;
+    }
+
+    /**
+     * Creates a new evaluator, with no statistics gathered, of the class with the given simple
+     * name.
+     * <p>
+     * This is used by {@link #fromString(String, Port)}, and to start evaluators afresh when
+     * only their names have been saved.
+     *
+     * @param name simple class name of the evaluator, for example {@code ShipFlagEvaluator}
+     * @param port port for the evaluator to monitor, used by evaluators that monitor the port
+     *             directly
+     * @return new evaluator
+     * @throws BadEncodingException if the name is not one of the possible evaluator classes
+     */
+    public static StatisticsEvaluator create(String name, Port port)
+        throws BadEncodingException {
+        switch (name) {
+            case "CargoDecompositionEvaluator":
+                return new CargoDecompositionEvaluator();
+            case "QuayOccupancyEvaluator":
+                return new QuayOccupancyEvaluator(port);
+            case "ShipFlagEvaluator":
+                return new ShipFlagEvaluator();
+            case "ShipThroughputEvaluator":
+                return new ShipThroughputEvaluator();
+            default:
+                throw new BadEncodingException("The evaluator specified does "
+                    + "not exist: " + name);
+        }
+    }
+
+    /**
+     * Restores the statistics of this evaluator from the fields of its encoded representation.
+     * <p>
+     * This method is called by {@link #fromString(String, Port)} after the evaluator has been
+     * created and its time restored. The first two fields are the evaluator name and time; any
+     * further fields are the state appended by the subclass's {@link #encode()}.
+     * <p>
+     * By default, the evaluator has no state beyond its time, so the encoding must contain
+     * exactly two fields.
+     *
+     * @param encoded fields of the encoded evaluator, split on {@code ':'}
+     * @throws BadEncodingException if the fields do not match the subclass's encoding
+     */
+    protected void decodeState(String[] encoded) throws BadEncodingException {
+        if (encoded.length != 2) {
+            throw new BadEncodingException("Incorrect number of fields for encoded "
+                + encoded[0] + ": " + encoded.length);
+        }
+    }
+
+    /**
+     * Returns the given counts encoded as {@code key=count} pairs separated by commas, or the
+     * empty string if there are no counts.
+     * <p>
+     * Keys may contain any characters. Characters that would otherwise be read as separators
+     * ({@code ','}, {@code '='}, {@code ':'} and line breaks), and {@code '%'} itself, are
+     * written as {@code '%'} followed by two hexadecimal digits giving the character's code.
+     *
+     * @param counts counts to encode
+     * @return encoded counts
+     */
+    protected static String encodeCounts(Map<?, ? extends Number> counts) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (Map.Entry<?, ? extends Number> entry : counts.entrySet()) {
+            joiner.add(escapeKey(String.valueOf(entry.getKey())) + "=" + entry.getValue());
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Reads counts encoded by {@link #encodeCounts(Map)}.
+     *
+     * @param string encoded counts
+     * @return decoded keys mapped to their counts, in the encoded order
+     * @throws BadEncodingException if a pair is not of the form {@code key=count} (where the key
+     *                              may be empty), a count is not a long or a key contains an
+     *                              invalid escape
+     */
+    protected static Map<String, Long> decodeCounts(String string) throws BadEncodingException {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (string.isEmpty()) {
+            return counts;
+        }
+        for (String pair : string.split(",")) {
+            int separator = pair.lastIndexOf('=');
+            if (separator < 0) {
+                throw new BadEncodingException("Expected an encoded key=count pair: " + pair);
+            }
+            try {
+                counts.put(unescapeKey(pair.substring(0, separator)),
+                    Long.parseLong(pair.substring(separator + 1)));
+            } catch (NumberFormatException e) {
+                throw new BadEncodingException("Count should be a long: " + pair, e);
+            }
+        }
+        return counts;
+    }
+
+    /* Escapes the characters of a key that encodeCounts or fromString would treat as syntax */
+    private static String escapeKey(String key) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean reserved = c == '%' || c == ',' || c == '=' || c == ':'
+                || c == '\n' || c == '\r';
+            if (reserved && escaped == null) {
+                escaped = new StringBuilder(key.length() + 8).append(key, 0, i);
+            }
+            if (reserved) {
+                escaped.append(String.format("%%%02X", (int) c));
+            } else if (escaped != null) {
+                escaped.append(c);
+            }
+        }
+        return escaped == null ? key : escaped.toString();
+    }
+
+    /* Reverses escapeKey */
+    private static String unescapeKey(String key) throws BadEncodingException {
+        if (key.indexOf('%') < 0) {
+            return key;
+        }
+        StringBuilder unescaped = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '%') {
+                unescaped.append(c);
+                continue;
+            }
+            if (i + 2 >= key.length()) {
+                throw new BadEncodingException("Incomplete escape in encoded key: " + key);
+            }
+            int high = Character.digit(key.charAt(i + 1), 16);
+            int low = Character.digit(key.charAt(i + 2), 16);
+            if (high < 0 || low < 0) {
+                throw new BadEncodingException("Invalid escape in encoded key: " + key);
+            }
+            unescaped.append((char) (high * 16 + low));
+            i += 2;
+        }
+        return unescaped.toString();
+    }
 }
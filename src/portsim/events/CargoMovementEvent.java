@@ -0,0 +1,79 @@
+package portsim.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering cargo movements being applied to the port's warehouses.
+ * <p>
+ * Consecutive cargo movements in the same direction that are due in the same minute are applied
+ * together, and reported as a single event.
+ */
+@Name("portsim.CargoMovement")
+@Label("Cargo Movement Processed")
+@Category("Port Simulation")
+@Description("Cargo was moved into or out of the port's warehouses")
+public class CargoMovementEvent extends jdk.jfr.Event {
+
+    /**
+     * Simulation time the movement was processed at, in minutes
+     */
+    @Label("Simulation Time")
+    private long time;
+
+    /**
+     * Direction of the movement
+     */
+    @Label("Direction")
+    private String direction;
+
+    /**
+     * Number of pieces of cargo moved
+     */
+    @Label("Cargo Count")
+    private int cargoCount;
+
+    /**
+     * Number of cargo movements applied together
+     */
+    @Label("Movement Count")
+    private int movementCount;
+
+    /**
+     * Sets the simulation time the movement was processed at.
+     *
+     * @param time time in minutes
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Sets the direction of the movement.
+     *
+     * @param direction movement direction
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Sets the number of pieces of cargo moved.
+     *
+     * @param cargoCount number of pieces of cargo
+     */
+    public void setCargoCount(int cargoCount) {
+        this.cargoCount = cargoCount;
+    }
+
+    /**
+     * Sets the number of cargo movements applied together.
+     *
+     * @param movementCount number of movements
+     */
+    public void setMovementCount(int movementCount) {
+        this.movementCount = movementCount;
+    }
+}
@@ -0,0 +1,77 @@
+package portsim.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering a port being read from a save file by
+ * {@link portsim.port.Port#initialisePort(java.io.Reader)}.
+ */
+@Name("portsim.Load")
+@Label("Port Loaded")
+@Category("Port Simulation")
+@Description("A port was read and decoded from a save file")
+public class LoadEvent extends jdk.jfr.Event {
+
+    /**
+     * Name of the port that was loaded
+     */
+    @Label("Port Name")
+    private String portName;
+
+    /**
+     * Simulation time of the loaded port, in minutes
+     */
+    @Label("Simulation Time")
+    private long time;
+
+    /**
+     * Number of pieces of cargo stored at the loaded port
+     */
+    @Label("Stored Cargo")
+    private int storedCargo;
+
+    /**
+     * Number of movements scheduled at the loaded port
+     */
+    @Label("Movements")
+    private int movements;
+
+    /**
+     * Sets the name of the port that was loaded.
+     *
+     * @param portName port name
+     */
+    public void setPortName(String portName) {
+        this.portName = portName;
+    }
+
+    /**
+     * Sets the simulation time of the loaded port.
+     *
+     * @param time time in minutes
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Sets the number of pieces of cargo stored at the loaded port.
+     *
+     * @param storedCargo number of pieces of cargo
+     */
+    public void setStoredCargo(int storedCargo) {
+        this.storedCargo = storedCargo;
+    }
+
+    /**
+     * Sets the number of movements scheduled at the loaded port.
+     *
+     * @param movements number of movements
+     */
+    public void setMovements(int movements) {
+        this.movements = movements;
+    }
+}
@@ -0,0 +1,61 @@
+package portsim.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the port being encoded and written to a save file.
+ */
+@Name("portsim.Save")
+@Label("Port Saved")
+@Category("Port Simulation")
+@Description("The port was encoded and written out")
+public class SaveEvent extends jdk.jfr.Event {
+
+    /**
+     * Name of the port that was saved
+     */
+    @Label("Port Name")
+    private String portName;
+
+    /**
+     * Simulation time of the saved port, in minutes
+     */
+    @Label("Simulation Time")
+    private long time;
+
+    /**
+     * Number of characters written, which the writer may encode as more bytes
+     */
+    @Label("Characters Written")
+    private long characters;
+
+    /**
+     * Sets the name of the port that was saved.
+     *
+     * @param portName port name
+     */
+    public void setPortName(String portName) {
+        this.portName = portName;
+    }
+
+    /**
+     * Sets the simulation time of the saved port.
+     *
+     * @param time time in minutes
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Sets the number of characters written.
+     *
+     * @param characters number of characters
+     */
+    public void setCharacters(long characters) {
+        this.characters = characters;
+    }
+}
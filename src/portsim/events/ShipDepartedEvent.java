@@ -0,0 +1,76 @@
+package portsim.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering an outbound ship being loaded and leaving its quay.
+ */
+@Name("portsim.ShipDeparted")
+@Label("Ship Departed")
+@Category("Port Simulation")
+@Description("A docked ship was loaded with stored cargo and left its quay")
+public class ShipDepartedEvent extends jdk.jfr.Event {
+
+    /**
+     * Simulation time the ship departed at, in minutes
+     */
+    @Label("Simulation Time")
+    private long time;
+
+    /**
+     * IMO number of the ship
+     */
+    @Label("IMO Number")
+    private long imoNumber;
+
+    /**
+     * ID of the quay the ship departed from
+     */
+    @Label("Quay ID")
+    private int quayId;
+
+    /**
+     * Number of pieces of stored cargo loaded onto the ship before departure
+     */
+    @Label("Cargo Loaded")
+    private int cargoLoaded;
+
+    /**
+     * Sets the simulation time the ship departed at.
+     *
+     * @param time time in minutes
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Sets the IMO number of the ship.
+     *
+     * @param imoNumber IMO number
+     */
+    public void setImoNumber(long imoNumber) {
+        this.imoNumber = imoNumber;
+    }
+
+    /**
+     * Sets the ID of the quay the ship departed from.
+     *
+     * @param quayId quay ID
+     */
+    public void setQuayId(int quayId) {
+        this.quayId = quayId;
+    }
+
+    /**
+     * Sets the number of pieces of stored cargo loaded onto the ship before departure.
+     *
+     * @param cargoLoaded number of pieces of cargo
+     */
+    public void setCargoLoaded(int cargoLoaded) {
+        this.cargoLoaded = cargoLoaded;
+    }
+}
@@ -0,0 +1,76 @@
+package portsim.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when a ship from the ship queue docks at a quay.
+ */
+@Name("portsim.ShipDocked")
+@Label("Ship Docked")
+@Category("Port Simulation")
+@Description("A ship left the ship queue and docked at a quay")
+public class ShipDockedEvent extends jdk.jfr.Event {
+
+    /**
+     * Simulation time the ship docked at, in minutes
+     */
+    @Label("Simulation Time")
+    private long time;
+
+    /**
+     * IMO number of the ship
+     */
+    @Label("IMO Number")
+    private long imoNumber;
+
+    /**
+     * ID of the quay the ship docked at
+     */
+    @Label("Quay ID")
+    private int quayId;
+
+    /**
+     * Number of pieces of cargo on board when docking
+     */
+    @Label("Cargo Count")
+    private int cargoCount;
+
+    /**
+     * Sets the simulation time the ship docked at.
+     *
+     * @param time time in minutes
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Sets the IMO number of the ship.
+     *
+     * @param imoNumber IMO number
+     */
+    public void setImoNumber(long imoNumber) {
+        this.imoNumber = imoNumber;
+    }
+
+    /**
+     * Sets the ID of the quay the ship docked at.
+     *
+     * @param quayId quay ID
+     */
+    public void setQuayId(int quayId) {
+        this.quayId = quayId;
+    }
+
+    /**
+     * Sets the number of pieces of cargo on board when docking.
+     *
+     * @param cargoCount number of pieces of cargo
+     */
+    public void setCargoCount(int cargoCount) {
+        this.cargoCount = cargoCount;
+    }
+}
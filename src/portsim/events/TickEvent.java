@@ -0,0 +1,61 @@
+package portsim.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering one call to {@link portsim.port.Port#elapseOneMinute()}.
+ */
+@Name("portsim.Tick")
+@Label("Port Tick")
+@Category("Port Simulation")
+@Description("One minute of simulated time elapsing at a port")
+public class TickEvent extends jdk.jfr.Event {
+
+    /**
+     * Simulation time after the tick, in minutes
+     */
+    @Label("Simulation Time")
+    private long time;
+
+    /**
+     * Number of movements processed during the tick
+     */
+    @Label("Movements Processed")
+    private int movementsProcessed;
+
+    /**
+     * Number of pieces of cargo stored at the port after the tick
+     */
+    @Label("Stored Cargo")
+    private int storedCargo;
+
+    /**
+     * Sets the simulation time after the tick.
+     *
+     * @param time time in minutes
+     */
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Sets the number of movements processed during the tick.
+     *
+     * @param movementsProcessed number of movements
+     */
+    public void setMovementsProcessed(int movementsProcessed) {
+        this.movementsProcessed = movementsProcessed;
+    }
+
+    /**
+     * Sets the number of pieces of cargo stored at the port after the tick.
+     *
+     * @param storedCargo number of pieces of cargo
+     */
+    public void setStoredCargo(int storedCargo) {
+        this.storedCargo = storedCargo;
+    }
+}
@@ -0,0 +1,167 @@
+package portsim.metrics;
+
+import portsim.evaluators.StatisticsEvaluator;
+import portsim.port.Port;
+import portsim.port.QueuePriority;
+import portsim.port.Quay;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An immutable sample of a port's state, taken on the simulation thread and read by
+ * {@link MetricsServer} when it is scraped.
+ */
+public class MetricsSample {
+
+    /**
+     * Name of the sampled port
+     */
+    private final String portName;
+
+    /**
+     * Simulation time when the sample was taken, in minutes
+     */
+    private final long time;
+
+    /**
+     * Simulated minutes per wall-clock second since the previous sample
+     */
+    private final double ticksPerSecond;
+
+    /**
+     * Number of ships waiting in the queue, indexed by {@link QueuePriority#ordinal()}
+     */
+    private final int[] queueByPriority;
+
+    /**
+     * Number of quays with a ship docked
+     */
+    private final int quaysOccupied;
+
+    /**
+     * Total number of quays at the port
+     */
+    private final int quays;
+
+    /**
+     * Number of pieces of cargo stored in the port's warehouses
+     */
+    private final int storedCargo;
+
+    /**
+     * Number of movements waiting to be processed
+     */
+    private final int movementBacklog;
+
+    /**
+     * Counters of each evaluator, keyed by evaluator simple class name
+     */
+    private final Map<String, Map<String, Long>> evaluatorCounters;
+
+    /**
+     * Creates a sample of the given port's current state.
+     * <p>
+     * This must be called from the thread that ticks the port.
+     *
+     * @param port           port to sample
+     * @param ticksPerSecond simulated minutes per second since the previous sample
+     */
+    public MetricsSample(Port port, double ticksPerSecond) {
+        this.portName = port.getName();
+        this.time = port.getTime();
+        this.ticksPerSecond = ticksPerSecond;
+        this.queueByPriority = port.getShipQueue().countByPriority();
+        int occupied = 0;
+        int numQuays = 0;
+        for (Quay quay : port.getQuaysView()) {
+            numQuays++;
+            if (!quay.isEmpty()) {
+                occupied++;
+            }
+        }
+        this.quaysOccupied = occupied;
+        this.quays = numQuays;
+        this.storedCargo = port.getCargoView().size();
+        this.movementBacklog = port.getMovements().size();
+        Map<String, Map<String, Long>> counters = new LinkedHashMap<>();
+        for (StatisticsEvaluator evaluator : port.getEvaluators()) {
+            counters.put(evaluator.getClass().getSimpleName(),
+                Collections.unmodifiableMap(evaluator.getCounters()));
+        }
+        this.evaluatorCounters = Collections.unmodifiableMap(counters);
+    }
+
+    /**
+     * Returns the simulation time when the sample was taken.
+     *
+     * @return time in minutes
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the sample in the Prometheus text exposition format.
+     * <p>
+     * Every metric is labelled with the name of the port it was sampled from.
+     *
+     * @return Prometheus scrape body
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        String port = "port=\"" + escape(portName) + "\"";
+
+        gauge(out, "portsim_time_minutes", "Current simulation time in minutes.");
+        out.append("portsim_time_minutes{").append(port).append("} ").append(time).append('\n');
+
+        gauge(out, "portsim_ticks_per_second", "Simulated minutes per wall-clock second.");
+        out.append("portsim_ticks_per_second{").append(port).append("} ")
+            .append(ticksPerSecond).append('\n');
+
+        gauge(out, "portsim_ship_queue_length", "Ships waiting in the queue by priority class.");
+        for (QueuePriority priority : QueuePriority.values()) {
+            out.append("portsim_ship_queue_length{").append(port)
+                .append(",priority=\"").append(priority).append("\"} ")
+                .append(queueByPriority[priority.ordinal()]).append('\n');
+        }
+
+        gauge(out, "portsim_quays_occupied", "Quays with a ship docked.");
+        out.append("portsim_quays_occupied{").append(port).append("} ")
+            .append(quaysOccupied).append('\n');
+
+        gauge(out, "portsim_quays", "Quays at the port.");
+        out.append("portsim_quays{").append(port).append("} ").append(quays).append('\n');
+
+        gauge(out, "portsim_warehouse_cargo", "Pieces of cargo stored in warehouses.");
+        out.append("portsim_warehouse_cargo{").append(port).append("} ")
+            .append(storedCargo).append('\n');
+
+        gauge(out, "portsim_movement_backlog", "Movements waiting to be processed.");
+        out.append("portsim_movement_backlog{").append(port).append("} ")
+            .append(movementBacklog).append('\n');
+
+        gauge(out, "portsim_evaluator_value", "Current value of each evaluator statistic.");
+        for (Map.Entry<String, Map<String, Long>> evaluator : evaluatorCounters.entrySet()) {
+            for (Map.Entry<String, Long> counter : evaluator.getValue().entrySet()) {
+                out.append("portsim_evaluator_value{").append(port)
+                    .append(",evaluator=\"").append(escape(evaluator.getKey()))
+                    .append("\",counter=\"").append(escape(counter.getKey())).append("\"} ")
+                    .append(counter.getValue()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+
+    /* Appends the HELP and TYPE lines for a gauge metric */
+    private static void gauge(StringBuilder out, String name, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+    }
+
+    /* Escapes a label value according to the Prometheus text format */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
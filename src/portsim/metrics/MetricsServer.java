@@ -0,0 +1,136 @@
+package portsim.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import portsim.port.Port;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP server exposing a running port's state for Prometheus to scrape.
+ * <p>
+ * The server listens on the loopback interface and serves the most recently published
+ * {@link MetricsSample} at {@code /metrics}. Samples are taken on the simulation thread by
+ * {@link #publish(Port)} and handed over through a volatile field, so scrapes never block or
+ * read the port while it is being ticked.
+ */
+public class MetricsServer implements Closeable {
+
+    /**
+     * Minimum time between two samples, in nanoseconds
+     */
+    private static final long SAMPLE_INTERVAL_NANOS = 1000000000L;
+
+    /**
+     * Number of threads used to answer scrapes
+     */
+    private static final int NUM_THREADS = 2;
+
+    /**
+     * Content type of the Prometheus text exposition format
+     */
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Underlying HTTP server
+     */
+    private final HttpServer server;
+
+    /**
+     * Threads answering scrapes
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Most recently published sample, or null if nothing has been published yet
+     */
+    private volatile MetricsSample latest;
+
+    /**
+     * Wall-clock time the latest sample was taken, in nanoseconds. Only used by the
+     * simulation thread.
+     */
+    private long lastSampleNanos;
+
+    /**
+     * Creates a metrics server listening on the given local port and starts serving scrapes.
+     *
+     * @param port TCP port to listen on
+     * @throws IOException if the server cannot be bound to the port
+     */
+    public MetricsServer(int port) throws IOException {
+        this.server = HttpServer.create(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(NUM_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "portsim-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.createContext("/metrics", this::handleScrape);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    /**
+     * Samples the given port if at least a second has passed since the last sample.
+     * <p>
+     * This should be called from the thread that ticks the port, after each tick. The first
+     * call always takes a sample.
+     *
+     * @param port port to sample
+     */
+    public void publish(Port port) {
+        long now = System.nanoTime();
+        MetricsSample previous = latest;
+        if (previous != null && now - lastSampleNanos < SAMPLE_INTERVAL_NANOS) {
+            return;
+        }
+        double ticksPerSecond = previous == null ? 0
+            : (port.getTime() - previous.getTime()) * 1e9 / (now - lastSampleNanos);
+        lastSampleNanos = now;
+        latest = new MetricsSample(port, ticksPerSecond);
+    }
+
+    /**
+     * Returns the TCP port the server is listening on.
+     *
+     * @return listening port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops serving scrapes and releases the listening port.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    /* Answers a single scrape with the latest published sample */
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            MetricsSample sample = latest;
+            byte[] body = (sample == null ? "# No sample has been published yet\n"
+                : sample.toPrometheus()).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(sample == null ? 503 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import portsim.util.BadEncodingException;
 import portsim.util.NoSuchCargoException;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -20,6 +22,11 @@ public class CargoMovement extends Movement {
      */
     private List<Cargo> cargo;
 
+    /**
+     * Read-only view of the cargo, created once and shared by all callers
+     */
+    private List<Cargo> cargoView;
+
     /**
      * Creates a new cargo movement with the given action time and direction
      * to be undertaken with the given cargo.
@@ -34,6 +41,7 @@ public class CargoMovement extends Movement {
                          List<Cargo> cargo) throws IllegalArgumentException {
         super(time, direction);
         this.cargo = cargo;
+        this.cargoView = Collections.unmodifiableList(cargo);
     }
 
     /**
@@ -48,6 +56,42 @@ public class CargoMovement extends Movement {
         return new ArrayList<>(cargo);
     }
 
+    /**
+     * Returns a read-only view of the cargo that will be moved.
+     * <p>
+     * Unlike {@link #getCargo()}, no copy is made, and attempting to modify the view throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @return read-only view of all cargo in the movement
+     */
+    public List<Cargo> getCargoView() {
+        return cargoView;
+    }
+
+    /**
+     * Adds all cargo that will be moved to the given collection.
+     * <p>
+     * Unlike {@link #getCargo()}, the cargo is added one piece at a time, so no copy of the
+     * cargo list is made, not even the array that {@link Collection#addAll(Collection)} copies
+     * the list into.
+     *
+     * @param target collection to add the cargo to
+     */
+    public void addCargoTo(Collection<? super Cargo> target) {
+        for (Cargo piece : cargo) {
+            target.add(piece);
+        }
+    }
+
+    /**
+     * Returns the number of pieces of cargo that will be moved.
+     *
+     * @return number of pieces of cargo in the movement
+     */
+    public int getCargoCount() {
+        return cargo.size();
+    }
+
     /**
      * Returns the human-readable string representation of this CargoMovement.
      * <p>
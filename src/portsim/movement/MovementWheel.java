@@ -0,0 +1,429 @@
+package portsim.movement;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A queue of movements ordered by the time of the movement (see {@link Movement#getTime()}),
+ * stored in a hierarchical timing wheel keyed by minute.
+ * <p>
+ * The wheel has a cursor, the current minute. Movements due within the same 64 minute block as
+ * the cursor are kept in a slot for their exact minute. Movements further in the future are kept
+ * in coarser slots on higher levels, each level covering 64 times the span of the level below,
+ * and are cascaded down a level each time the cursor enters their block. Movements more than
+ * 2<sup>24</sup> minutes (about 32 years) away are kept in an ordered overflow map.
+ * <p>
+ * Adding a movement and draining the movements due in the current minute with
+ * {@link #pollDue(long)} take constant time, independent of the number of movements queued.
+ * Movements due in the same minute are returned in the order they were added.
+ * <p>
+ * {@link #peek()}, {@link #poll()} and iteration also return movements in time order, but may
+ * have to search the wheel to do so.
+ */
+public class MovementWheel extends AbstractQueue<Movement> {
+
+    /**
+     * Number of bits of the time used to index the slots of a single level
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * Number of slots in each level of the wheel
+     */
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * Mask selecting a slot index from a shifted time
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * Number of levels in the wheel, not including the overflow map
+     */
+    private static final int LEVELS = 4;
+
+    /**
+     * Orders movements by their action time
+     */
+    private static final Comparator<Movement> BY_TIME =
+        Comparator.comparingLong(Movement::getTime);
+
+    /**
+     * Slots of each level; {@code wheel[level][slot]}
+     */
+    private final ArrayDeque<Movement>[][] wheel;
+
+    /**
+     * Movements due before the cursor that have not yet been drained
+     */
+    private final ArrayDeque<Movement> overdue;
+
+    /**
+     * Movements too far in the future to fit in the wheel, keyed by time
+     */
+    private final TreeMap<Long, ArrayDeque<Movement>> overflow;
+
+    /**
+     * The current minute of the wheel
+     */
+    private long cursor;
+
+    /**
+     * Number of movements in the queue
+     */
+    private int size;
+
+    /**
+     * Creates an empty movement wheel whose current minute is the given time.
+     *
+     * @param startTime current minute of the wheel
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public MovementWheel(long startTime) {
+        this.wheel = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.overdue = new ArrayDeque<>();
+        this.overflow = new TreeMap<>();
+        this.cursor = startTime;
+        this.size = 0;
+    }
+
+    /**
+     * Returns the current minute of the wheel.
+     * <p>
+     * The current minute only moves forward, when {@link #pollDue(long)} is called.
+     *
+     * @return current minute
+     */
+    public long getCurrentTime() {
+        return cursor;
+    }
+
+    /**
+     * Adds the given movement to the wheel.
+     * <p>
+     * A movement whose time is before the current minute of the wheel is due immediately.
+     *
+     * @param movement movement to add
+     * @return true
+     * @throws NullPointerException if the movement is null
+     */
+    @Override
+    public boolean offer(Movement movement) {
+        if (movement == null) {
+            throw new NullPointerException("Cannot add a null movement");
+        }
+        place(movement);
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances the current minute of the wheel to the given time and removes and returns the next
+     * movement due at or before that time.
+     * <p>
+     * Movements due at the same minute are returned in the order they were added. Calling this
+     * method repeatedly until it returns null drains every movement that is due.
+     * <p>
+     * If the given time is before the current minute, the current minute is unchanged and only
+     * movements that are already overdue are returned.
+     *
+     * @param now time up to which to drain movements
+     * @return next movement due, or null if no more movements are due
+     */
+    public Movement pollDue(long now) {
+        advanceTo(now);
+        Movement movement = overdue.poll();
+        if (movement == null && cursor <= now) {
+            movement = wheel[0][(int) cursor & SLOT_MASK].poll();
+        }
+        if (movement != null) {
+            size--;
+        }
+        return movement;
+    }
+
+    /**
+     * Removes and returns the movement with the earliest time, or returns null if the wheel is
+     * empty.
+     * <p>
+     * This does not move the current minute of the wheel.
+     *
+     * @return earliest movement, or null if empty
+     */
+    @Override
+    public Movement poll() {
+        ArrayDeque<Movement> bucket = earliestBucket();
+        if (bucket == null) {
+            return null;
+        }
+        Movement earliest = earliestIn(bucket);
+        removeFrom(bucket, earliest);
+        return earliest;
+    }
+
+    /**
+     * Returns the movement with the earliest time without removing it, or returns null if the
+     * wheel is empty.
+     *
+     * @return earliest movement, or null if empty
+     */
+    @Override
+    public Movement peek() {
+        ArrayDeque<Movement> bucket = earliestBucket();
+        return bucket == null ? null : earliestIn(bucket);
+    }
+
+    /**
+     * Returns the number of movements in the wheel.
+     *
+     * @return number of movements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the wheel contains the given movement.
+     * <p>
+     * Only the slot the movement would be stored in is searched.
+     *
+     * @param o object to find
+     * @return true if the movement is in the wheel
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Movement)) {
+            return false;
+        }
+        Movement movement = (Movement) o;
+        return bucketFor(movement.getTime(), false).contains(movement)
+            || overdue.contains(movement);
+    }
+
+    /**
+     * Removes a single instance of the given movement from the wheel, if present.
+     * <p>
+     * Only the slot the movement would be stored in is searched.
+     *
+     * @param o movement to remove
+     * @return true if a movement was removed
+     */
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof Movement)) {
+            return false;
+        }
+        Movement movement = (Movement) o;
+        ArrayDeque<Movement> bucket = bucketFor(movement.getTime(), false);
+        if (bucket.contains(movement)) {
+            return removeFrom(bucket, movement);
+        }
+        return removeFrom(overdue, movement);
+    }
+
+    /**
+     * Removes all movements from the wheel. The current minute is unchanged.
+     */
+    @Override
+    public void clear() {
+        for (ArrayDeque<Movement>[] level : wheel) {
+            for (ArrayDeque<Movement> slot : level) {
+                slot.clear();
+            }
+        }
+        overdue.clear();
+        overflow.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns an iterator over the movements in the wheel in time order. Movements due at the
+     * same minute are returned in the order they were added.
+     * <p>
+     * The iterator works on a snapshot of the wheel taken when this method is called.
+     * {@link Iterator#remove()} removes the last returned movement from the wheel.
+     *
+     * @return iterator over the movements in time order
+     */
+    @Override
+    public Iterator<Movement> iterator() {
+        List<Movement> snapshot = new ArrayList<>(size);
+        // overdue movements are kept in the order they became overdue, not time order
+        snapshot.addAll(overdue);
+        snapshot.sort(BY_TIME);
+        int current = (int) cursor & SLOT_MASK;
+        for (int slot = current; slot < SLOTS; slot++) {
+            snapshot.addAll(wheel[0][slot]);
+        }
+        for (int level = 1; level < LEVELS; level++) {
+            current = (int) (cursor >>> (SLOT_BITS * level)) & SLOT_MASK;
+            for (int slot = current + 1; slot < SLOTS; slot++) {
+                if (!wheel[level][slot].isEmpty()) {
+                    List<Movement> sorted = new ArrayList<>(wheel[level][slot]);
+                    sorted.sort(BY_TIME);
+                    snapshot.addAll(sorted);
+                }
+            }
+        }
+        for (ArrayDeque<Movement> bucket : overflow.values()) {
+            snapshot.addAll(bucket);
+        }
+        Iterator<Movement> snapshotIterator = snapshot.iterator();
+        return new Iterator<>() {
+            private Movement last;
+
+            @Override
+            public boolean hasNext() {
+                return snapshotIterator.hasNext();
+            }
+
+            @Override
+            public Movement next() {
+                last = snapshotIterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                MovementWheel.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    /*
+     * Moves the cursor forward one minute at a time until it reaches the given time. Movements
+     * left in a minute's slot as the cursor leaves it become overdue. Whenever the cursor enters
+     * a new block of a level, that level's slot for the block is cascaded down into finer slots,
+     * starting from the highest level whose block changed.
+     */
+    private void advanceTo(long now) {
+        while (cursor < now) {
+            ArrayDeque<Movement> leaving = wheel[0][(int) cursor & SLOT_MASK];
+            while (!leaving.isEmpty()) {
+                overdue.add(leaving.poll());
+            }
+            cursor++;
+            if ((cursor & SLOT_MASK) != 0) {
+                continue;
+            }
+            int top = 1;
+            while (top < LEVELS && (cursor & ((1L << (SLOT_BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            if (top == LEVELS) {
+                cascadeOverflow();
+                top = LEVELS - 1;
+            }
+            for (int level = top; level >= 1; level--) {
+                ArrayDeque<Movement> slot =
+                    wheel[level][(int) (cursor >>> (SLOT_BITS * level)) & SLOT_MASK];
+                int count = slot.size();
+                for (int i = 0; i < count; i++) {
+                    place(slot.poll());
+                }
+            }
+        }
+    }
+
+    /* Moves the overflow movements that now fit in the wheel into it */
+    private void cascadeOverflow() {
+        long blockEnd = ((cursor >>> (SLOT_BITS * LEVELS)) + 1) << (SLOT_BITS * LEVELS);
+        Map<Long, ArrayDeque<Movement>> due = overflow.headMap(blockEnd);
+        for (ArrayDeque<Movement> bucket : due.values()) {
+            for (Movement movement : bucket) {
+                place(movement);
+            }
+        }
+        due.clear();
+    }
+
+    /* Stores the given movement in the bucket for its time, without changing the size */
+    private void place(Movement movement) {
+        long movementTime = movement.getTime();
+        if (movementTime < cursor) {
+            overdue.add(movement);
+        } else {
+            bucketFor(movementTime, true).add(movement);
+        }
+    }
+
+    /*
+     * Returns the bucket that holds movements at the given time (which must not be before the
+     * cursor), creating an overflow bucket if requested. The level is the lowest one whose
+     * block contains both the time and the cursor.
+     */
+    private ArrayDeque<Movement> bucketFor(long movementTime, boolean create) {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((movementTime >>> shift) == (cursor >>> shift)) {
+                return wheel[level][(int) (movementTime >>> (SLOT_BITS * level)) & SLOT_MASK];
+            }
+        }
+        ArrayDeque<Movement> bucket = overflow.get(movementTime);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            if (create) {
+                overflow.put(movementTime, bucket);
+            }
+        }
+        return bucket;
+    }
+
+    /* Returns the bucket containing the earliest movement, or null if the wheel is empty */
+    private ArrayDeque<Movement> earliestBucket() {
+        if (size == 0) {
+            return null;
+        }
+        if (!overdue.isEmpty()) {
+            return overdue;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            int current = (int) (cursor >>> (SLOT_BITS * level)) & SLOT_MASK;
+            for (int slot = level == 0 ? current : current + 1; slot < SLOTS; slot++) {
+                if (!wheel[level][slot].isEmpty()) {
+                    return wheel[level][slot];
+                }
+            }
+        }
+        return overflow.isEmpty() ? null : overflow.firstEntry().getValue();
+    }
+
+    /* Returns the first-added movement with the earliest time in a non-empty bucket */
+    private static Movement earliestIn(ArrayDeque<Movement> bucket) {
+        Movement earliest = bucket.peek();
+        for (Movement movement : bucket) {
+            if (movement.getTime() < earliest.getTime()) {
+                earliest = movement;
+            }
+        }
+        return earliest;
+    }
+
+    /* Removes the given movement from the given bucket, dropping emptied overflow buckets */
+    private boolean removeFrom(ArrayDeque<Movement> bucket, Movement movement) {
+        if (!bucket.remove(movement)) {
+            return false;
+        }
+        size--;
+        if (bucket.isEmpty() && overflow.get(movement.getTime()) == bucket) {
+            overflow.remove(movement.getTime());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,258 @@
+package portsim.movement;
+
+import portsim.cargo.Cargo;
+import portsim.util.BadEncodingException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A ship or cargo movement that repeats at a fixed period, such as a liner service calling
+ * every week or a truck gate delivering the same cargo each day.
+ * <p>
+ * A recurring movement stands for a single occurrence at a time: its time is the time of the
+ * next occurrence. When it is processed, the occurrence is carried out as a normal
+ * {@link ShipMovement} or {@link CargoMovement} and {@link #next()} gives the recurring
+ * movement for the following occurrence, so only one object per series is ever scheduled.
+ * <p>
+ * Each occurrence of a recurring ship movement involves the same ship. Each occurrence of a
+ * recurring cargo movement delivers new cargo: the cargo of the first occurrence is a template,
+ * and every later occurrence carries fresh copies of it with unused IDs (see
+ * {@link Cargo#copyWithId(int)}), so that no piece of cargo arrives at the port twice. Since
+ * cargo can only leave the port once, only {@code INBOUND} cargo movements may recur.
+ */
+public class RecurringMovement extends Movement {
+
+    /**
+     * End time used for a series that never ends
+     */
+    public static final long NO_END = Long.MAX_VALUE;
+
+    /**
+     * The concrete movement carried out by this occurrence
+     */
+    private Movement occurrence;
+
+    /**
+     * Number of minutes between occurrences
+     */
+    private long period;
+
+    /**
+     * Latest time at which an occurrence may happen, or {@link #NO_END}
+     */
+    private long end;
+
+    /**
+     * Creates a new recurring movement whose first occurrence is the given movement, repeating
+     * every {@code period} minutes until the given end time (inclusive).
+     *
+     * @param occurrence first occurrence of the series, a ShipMovement or CargoMovement
+     * @param period     number of minutes between occurrences
+     * @param end        latest time at which an occurrence may happen, or {@link #NO_END} if the
+     *                   series never ends
+     * @throws IllegalArgumentException if the occurrence is not a ShipMovement or an
+     *                                  {@code INBOUND} CargoMovement, period &lt;= 0, or end is
+     *                                  before the first occurrence
+     */
+    public RecurringMovement(Movement occurrence, long period, long end)
+        throws IllegalArgumentException {
+        super(occurrence.getTime(), occurrence.getDirection());
+        if (!(occurrence instanceof ShipMovement) && !(occurrence instanceof CargoMovement)) {
+            throw new IllegalArgumentException("A recurring movement must repeat a ShipMovement"
+                + " or a CargoMovement: " + occurrence.getClass().getSimpleName());
+        }
+        if (occurrence instanceof CargoMovement
+            && occurrence.getDirection() != MovementDirection.INBOUND) {
+            throw new IllegalArgumentException("Only INBOUND cargo movements can recur, as "
+                + "cargo can only leave the port once");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be greater than 0: " + period);
+        }
+        if (end < occurrence.getTime()) {
+            throw new IllegalArgumentException("End time must not be before the first "
+                + "occurrence: " + end);
+        }
+        this.occurrence = occurrence;
+        this.period = period;
+        this.end = end;
+    }
+
+    /**
+     * Returns the concrete movement carried out by this occurrence.
+     *
+     * @return ship or cargo movement at this movement's time
+     */
+    public Movement getOccurrence() {
+        return occurrence;
+    }
+
+    /**
+     * Returns the number of minutes between occurrences.
+     *
+     * @return period in minutes
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Returns the latest time at which an occurrence may happen.
+     *
+     * @return end time, or {@link #NO_END} if the series never ends
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the recurring movement for the occurrence following this one.
+     * <p>
+     * The following occurrence is the same movement, {@link #getPeriod()} minutes later. For a
+     * cargo movement, the following occurrence carries new copies of this occurrence's cargo,
+     * with unused IDs, which are added to the cargo registry when this method is called.
+     *
+     * @return recurring movement for the next occurrence, or null if it would be after the end
+     * time
+     */
+    public RecurringMovement next() {
+        long nextTime = getTime() + period;
+        if (nextTime > end || nextTime < getTime()) {
+            return null;
+        }
+        Movement nextOccurrence;
+        if (occurrence instanceof ShipMovement) {
+            nextOccurrence = new ShipMovement(nextTime, getDirection(),
+                ((ShipMovement) occurrence).getShip());
+        } else {
+            List<Cargo> template = ((CargoMovement) occurrence).getCargoView();
+            List<Cargo> cargo = new ArrayList<>(template.size());
+            for (Cargo piece : template) {
+                cargo.add(piece.copyWithId(Cargo.nextUnusedId()));
+            }
+            nextOccurrence = new CargoMovement(nextTime, getDirection(), cargo);
+        }
+        return new RecurringMovement(nextOccurrence, period, end);
+    }
+
+    /**
+     * Returns the human-readable string representation of this RecurringMovement.
+     * <p>
+     * The format of the string to return is
+     * <pre>occurrence, repeating every period minutes</pre>
+     * Where:
+     * <ul>
+     *   <li>{@code occurrence} is the {@code toString()} of the concrete movement</li>
+     *   <li>{@code period} is the number of minutes between occurrences</li>
+     * </ul>
+     * For example:
+     * <pre>INBOUND ShipMovement to occur at 120 involving the ship Voyager, repeating every
+     * 10080 minutes</pre>
+     *
+     * @return string representation of this RecurringMovement
+     */
+    @Override
+    public String toString() {
+        return String.format("%s, repeating every %d minutes", occurrence, period);
+    }
+
+    /**
+     * Returns the machine-readable string representation of this recurring movement.
+     * <p>
+     * The format of the string to return is
+     * <pre>RecurringMovement:time:direction:period:end:EncodedOccurrence</pre>
+     * Where:
+     * <ul>
+     *   <li>{@code time} is the time of the next occurrence</li>
+     *   <li>{@code direction} is the direction of the movement</li>
+     *   <li>{@code period} is the number of minutes between occurrences</li>
+     *   <li>{@code end} is the latest time at which an occurrence may happen, or {@code None}
+     *   if the series never ends</li>
+     *   <li>{@code EncodedOccurrence} is the encoded representation of the next occurrence (see
+     *   {@link ShipMovement#encode()} and {@link CargoMovement#encode()})</li>
+     * </ul>
+     * For example:
+     * <pre>RecurringMovement:120:INBOUND:10080:None:ShipMovement:120:INBOUND:1258691</pre>
+     *
+     * @return encoded string representation of this movement
+     */
+    @Override
+    public String encode() {
+        return String.format("%s:%d:%s:%s",
+            super.encode(),
+            period,
+            end == NO_END ? "None" : String.valueOf(end),
+            occurrence.encode());
+    }
+
+    /**
+     * Creates a recurring movement from a string encoding.
+     * <p>
+     * The format of the string should match the encoded representation of a
+     * recurring movement, as described in {@link RecurringMovement#encode()}.
+     * <p>
+     * The encoded string is invalid if any of the following conditions are true:
+     * <ul>
+     * <li>The number of colons ({@code :}) detected was fewer than expected.</li>
+     * <li>The time, period or end (if not {@code None}) is not a long (i.e. cannot be parsed
+     * by {@link Long#parseLong(String)}).</li>
+     * <li>The direction is not one of the valid directions (See {@link MovementDirection}).</li>
+     * <li>The encoded occurrence is not a valid ShipMovement or CargoMovement encoding, or its
+     * time or direction differs from the recurring movement's.</li>
+     * <li>The period is less than or equal to zero, or the end is before the time.</li>
+     * <li>The occurrence is an {@code OUTBOUND} CargoMovement.</li>
+     * </ul>
+     *
+     * @param string string containing the encoded RecurringMovement
+     * @return decoded RecurringMovement instance
+     * @throws BadEncodingException if the format of the given string is invalid according to
+     *                              the rules above
+     */
+    public static RecurringMovement fromString(String string) throws BadEncodingException {
+        String[] parts = string.split(":", 6);
+        if (parts.length != 6) {
+            throw new BadEncodingException("Invalid movement, was expecting at least 6"
+                + " parts: " + string);
+        }
+        if (!parts[0].equals("RecurringMovement")) {
+            throw new BadEncodingException("Expected a RecurringMovement encoding: " + string);
+        }
+        long time;
+        long period;
+        long end;
+        try {
+            time = Long.parseLong(parts[1]);
+            period = Long.parseLong(parts[3]);
+            end = parts[4].equals("None") ? NO_END : Long.parseLong(parts[4]);
+        } catch (NumberFormatException e) {
+            throw new BadEncodingException("Time, period and end must be valid longs: "
+                + string, e);
+        }
+        MovementDirection direction;
+        try {
+            direction = MovementDirection.valueOf(parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new BadEncodingException("Invalid direction in encoding: " + parts[2], e);
+        }
+
+        Movement occurrence;
+        if (parts[5].startsWith("ShipMovement:")) {
+            occurrence = ShipMovement.fromString(parts[5]);
+        } else if (parts[5].startsWith("CargoMovement:")) {
+            occurrence = CargoMovement.fromString(parts[5]);
+        } else {
+            throw new BadEncodingException("A recurring movement must repeat a ShipMovement or"
+                + " a CargoMovement: " + parts[5]);
+        }
+        if (occurrence.getTime() != time || occurrence.getDirection() != direction) {
+            throw new BadEncodingException("The occurrence of a recurring movement must have"
+                + " the same time and direction: " + string);
+        }
+        try {
+            return new RecurringMovement(occurrence, period, end);
+        } catch (IllegalArgumentException e) {
+            throw new BadEncodingException("Invalid recurring movement: " + string, e);
+        }
+    }
+}
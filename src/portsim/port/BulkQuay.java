@@ -1,6 +1,11 @@
 package portsim.port;
 
+import portsim.cargo.BulkCargo;
+import portsim.cargo.Cargo;
+import portsim.ship.BulkCarrier;
+
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A Bulk Quay is a type of quay specifically designed for the unloading of
@@ -14,8 +19,15 @@ public class BulkQuay extends Quay {
      */
     private int maxTonnage;
 
+    /**
+     * The maximum number of tonnes handled per cycle, or {@link #UNLIMITED_RATE}
+     */
+    private int handlingRate;
+
     /**
      * Creates a new Bulk Quay with the given ID and max tonnage.
+     * <p>
+     * The quay unloads a docked ship completely in a single cycle.
      *
      * @param id         quay ID
      * @param maxTonnage maximum tonnage the quay can handle
@@ -23,12 +35,30 @@ public class BulkQuay extends Quay {
      * @ass1
      */
     public BulkQuay(int id, int maxTonnage) throws IllegalArgumentException {
+        this(id, maxTonnage, UNLIMITED_RATE);
+    }
+
+    /**
+     * Creates a new Bulk Quay with the given ID, max tonnage and handling rate.
+     *
+     * @param id           quay ID
+     * @param maxTonnage   maximum tonnage the quay can handle
+     * @param handlingRate maximum number of tonnes handled per cycle, or
+     *                     {@link #UNLIMITED_RATE} to unload a docked ship in a single cycle
+     * @throws IllegalArgumentException if ID, maxTonnage or handlingRate &lt; 0
+     */
+    public BulkQuay(int id, int maxTonnage, int handlingRate) throws IllegalArgumentException {
         super(id);
         if (maxTonnage < 0) {
             throw new IllegalArgumentException("maxTonnage must be greater than"
                 + " or equal to 0: " + maxTonnage);
         }
+        if (handlingRate < 0) {
+            throw new IllegalArgumentException("handlingRate must be greater than"
+                + " or equal to 0: " + handlingRate);
+        }
         this.maxTonnage = maxTonnage;
+        this.handlingRate = handlingRate;
     }
 
     /**
@@ -41,13 +71,65 @@ public class BulkQuay extends Quay {
         return maxTonnage;
     }
 
+    /**
+     * Returns the maximum number of tonnes of cargo this quay handles per cycle.
+     *
+     * @return handling rate, or {@link #UNLIMITED_RATE} if a docked ship is unloaded in a
+     * single cycle
+     */
+    public int getHandlingRate() {
+        return handlingRate;
+    }
+
+    /**
+     * Handles up to {@link #getHandlingRate()} tonnes of the docked bulk carrier's cargo.
+     * <p>
+     * Bulk cargo is stored as a single piece, so it is only moved into the sink in the cycle in
+     * which the total tonnage handled for the ship reaches the tonnage of the cargo.
+     *
+     * @param sink consumer to pass the unloaded cargo to
+     * @return 1 if the cargo was moved into the sink, otherwise 0
+     * @throws ClassCastException if the docked ship is not a BulkCarrier
+     */
+    @Override
+    public int unload(Consumer<? super Cargo> sink) {
+        if (isEmpty()) {
+            return 0;
+        }
+        BulkCarrier ship = (BulkCarrier) getShip();
+        BulkCargo cargo = ship.getCargo();
+        if (cargo == null) {
+            return 0;
+        }
+        if (handlingRate != UNLIMITED_RATE) {
+            long remaining = cargo.getTonnage() - getProgress();
+            if (remaining > handlingRate) {
+                addProgress(handlingRate);
+                return 0;
+            }
+            addProgress(remaining);
+        }
+        markUnloaded();
+        return ship.unloadInto(sink);
+    }
+
+    /**
+     * Returns true if a bulk carrier is docked at this quay and still has its cargo onboard.
+     *
+     * @return true if there is cargo left to unload at this quay
+     */
+    @Override
+    public boolean hasCargoToUnload() {
+        return !isEmpty() && ((BulkCarrier) getShip()).getCargo() != null;
+    }
+
     /**
      * Returns true if and only if this BulkQuay is equal to the other given
      * BulkQuay.
      * <p>
      * For two BulkQuays to be equal, they must have the same ID,
-     * ship docked status (must either both be empty or both be occupied) and
-     * same tonnage capacity.
+     * ship docked status (must either both be empty or both be occupied),
+     * same tonnage capacity and same handling rate.
      *
      * @param o other object to check equality
      * @return true if equal, false otherwise
@@ -67,7 +149,8 @@ public class BulkQuay extends Quay {
 
         BulkQuay other = (BulkQuay) o;
 
-        if (other.maxTonnage != this.maxTonnage) {
+        if (other.maxTonnage != this.maxTonnage
+            || other.handlingRate != this.handlingRate) {
             return false;
         }
 
@@ -85,7 +168,7 @@ public class BulkQuay extends Quay {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), this.maxTonnage);
+        return Objects.hash(super.hashCode(), this.maxTonnage, this.handlingRate);
     }
 
     /**
@@ -115,26 +198,33 @@ public class BulkQuay extends Quay {
      * Returns the machine-readable string representation of this BulkQuay.
      * <p>
      * The format of the string to return is
-     * <pre>BulkQuay:id:imoNumber:maxTonnage</pre>
+     * <pre>BulkQuay:id:imoNumber:maxTonnage[:handlingRate[:progress]]</pre>
      * Where:
      * <ul>
      *   <li>{@code id} is the ID of this quay </li>
      *   <li>{@code imoNumber} is the IMO number of the ship docked at this
      *   quay, or {@code None} if the quay is unoccupied.</li>
      *   <li>{@code maxTonnage} is the maximum tonnage this quay can handle</li>
+     *   <li>{@code handlingRate} is the maximum number of tonnes handled per cycle, or 0 if
+     *   the quay unloads a docked ship in a single cycle; omitted if it is 0</li>
+     *   <li>{@code progress} is the number of tonnes handled for the docked ship since it
+     *   arrived (see {@link #getProgress()}), omitted if none have been; never written if the
+     *   handling rate is 0</li>
      * </ul>
      * For example:
      *
      * <pre>BulkQuay:3:1258691:120</pre> or
-     * <pre>BulkQuay:3:None:120</pre>
+     * <pre>BulkQuay:3:None:120:40</pre> or
+     * <pre>BulkQuay:3:1258691:120:40:80</pre>
      *
      * @return encoded string representation of this quay
      * @ass2
      */
     @Override
     public String encode() {
-        return String.format("%s:%d",
+        String encoded = String.format("%s:%d",
             super.encode(),
             maxTonnage);
+        return encoded + encodeHandling(handlingRate);
     }
 }
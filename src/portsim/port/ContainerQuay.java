@@ -1,6 +1,10 @@
 package portsim.port;
 
+import portsim.cargo.Cargo;
+import portsim.ship.ContainerShip;
+
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * A Container Quay is a type of quay specifically designed for the unloading of
@@ -14,8 +18,15 @@ public class ContainerQuay extends Quay {
      */
     private int maxContainers;
 
+    /**
+     * The maximum number of containers unloaded per cycle, or {@link #UNLIMITED_RATE}
+     */
+    private int handlingRate;
+
     /**
      * Creates a new Container Quay with the given ID and maximum number of containers.
+     * <p>
+     * The quay unloads a docked ship completely in a single cycle.
      *
      * @param id            quay ID
      * @param maxContainers maximum number of containers the quay can handle
@@ -23,12 +34,32 @@ public class ContainerQuay extends Quay {
      * @ass1
      */
     public ContainerQuay(int id, int maxContainers) throws IllegalArgumentException {
+        this(id, maxContainers, UNLIMITED_RATE);
+    }
+
+    /**
+     * Creates a new Container Quay with the given ID, maximum number of containers and
+     * handling rate.
+     *
+     * @param id            quay ID
+     * @param maxContainers maximum number of containers the quay can handle
+     * @param handlingRate  maximum number of containers unloaded per cycle, or
+     *                      {@link #UNLIMITED_RATE} to unload a docked ship in a single cycle
+     * @throws IllegalArgumentException if ID, maxContainers or handlingRate &lt; 0
+     */
+    public ContainerQuay(int id, int maxContainers, int handlingRate)
+        throws IllegalArgumentException {
         super(id);
         if (maxContainers < 0) {
             throw new IllegalArgumentException("maxContainers must be greater than"
                 + " or equal to 0: " + maxContainers);
         }
+        if (handlingRate < 0) {
+            throw new IllegalArgumentException("handlingRate must be greater than"
+                + " or equal to 0: " + handlingRate);
+        }
         this.maxContainers = maxContainers;
+        this.handlingRate = handlingRate;
     }
 
     /**
@@ -41,13 +72,60 @@ public class ContainerQuay extends Quay {
         return maxContainers;
     }
 
+    /**
+     * Returns the maximum number of containers this quay unloads per cycle.
+     *
+     * @return handling rate, or {@link #UNLIMITED_RATE} if a docked ship is unloaded in a
+     * single cycle
+     */
+    public int getHandlingRate() {
+        return handlingRate;
+    }
+
+    /**
+     * Moves up to {@link #getHandlingRate()} containers from the docked container ship into the
+     * given sink, in the order they were loaded.
+     *
+     * @param sink consumer to pass each unloaded container to
+     * @return number of containers moved into the sink
+     * @throws ClassCastException if the docked ship is not a ContainerShip
+     */
+    @Override
+    public int unload(Consumer<? super Cargo> sink) {
+        if (isEmpty()) {
+            return 0;
+        }
+        ContainerShip ship = (ContainerShip) getShip();
+        int unloaded;
+        if (handlingRate == UNLIMITED_RATE) {
+            unloaded = ship.unloadInto(sink);
+        } else {
+            unloaded = ship.unloadInto(sink, handlingRate);
+            addProgress(unloaded);
+        }
+        if (unloaded > 0) {
+            markUnloaded();
+        }
+        return unloaded;
+    }
+
+    /**
+     * Returns true if a container ship is docked at this quay and still has containers onboard.
+     *
+     * @return true if there are containers left to unload at this quay
+     */
+    @Override
+    public boolean hasCargoToUnload() {
+        return !isEmpty() && !((ContainerShip) getShip()).getCargoView().isEmpty();
+    }
+
     /**
      * Returns true if and only if this ContainerQuay is equal to the other
      * given ContainerQuay.
      * <p>
      * For two ContainerQuays to be equal, they must have the same ID,
-     * ship docked status (must either both be empty or both be occupied)
-     * and same container capacity.
+     * ship docked status (must either both be empty or both be occupied),
+     * same container capacity and same handling rate.
      *
      * @param o other object to check equality
      * @return true if equal, false otherwise
@@ -67,7 +145,8 @@ public class ContainerQuay extends Quay {
 
         ContainerQuay other = (ContainerQuay) o;
 
-        if (other.maxContainers != this.maxContainers) {
+        if (other.maxContainers != this.maxContainers
+            || other.handlingRate != this.handlingRate) {
             return false;
         }
 
@@ -85,7 +164,7 @@ public class ContainerQuay extends Quay {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), this.maxContainers);
+        return Objects.hash(super.hashCode(), this.maxContainers, this.handlingRate);
     }
 
     /**
@@ -116,7 +195,7 @@ public class ContainerQuay extends Quay {
      * Returns the machine-readable string representation of this ContainerQuay.
      * <p>
      * The format of the string to return is
-     * <pre>ContainerQuay:id:imoNumber:maxContainers</pre>
+     * <pre>ContainerQuay:id:imoNumber:maxContainers[:handlingRate[:progress]]</pre>
      * Where:
      * <ul>
      *   <li>{@code id} is the ID of this quay </li>
@@ -124,18 +203,25 @@ public class ContainerQuay extends Quay {
      *   quay, or {@code None} if the quay is unoccupied.</li>
      *   <li>{@code maxContainers} is the maximum number of containers this quay can
      *   handle</li>
+     *   <li>{@code handlingRate} is the maximum number of containers unloaded per cycle,
+     *   or 0 if the quay unloads a docked ship in a single cycle; omitted if it is 0</li>
+     *   <li>{@code progress} is the number of containers unloaded for the docked ship since it
+     *   arrived (see {@link #getProgress()}), omitted if none have been; never written if the
+     *   handling rate is 0</li>
      * </ul>
      * For example:
      *
      * <pre>ContainerQuay:3:1258691:100</pre> or
-     * <pre>ContainerQuay:3:None:100</pre>
+     * <pre>ContainerQuay:3:None:100:20</pre> or
+     * <pre>ContainerQuay:3:1258691:100:20:60</pre>
      * @return encoded string representation of this quay
      * @ass2
      */
     @Override
     public String encode() {
-        return String.format("%s:%d",
+        String encoded = String.format("%s:%d",
             super.encode(),
             maxContainers);
+        return encoded + encodeHandling(handlingRate);
     }
 }
@@ -0,0 +1,45 @@
+package portsim.port;
+
+import portsim.movement.Movement;
+
+import java.util.function.Consumer;
+
+/**
+ * A supplier of movements that a port pulls from incrementally as simulation time advances,
+ * rather than holding every scheduled movement in memory from the start.
+ * <p>
+ * A source is attached to a port with {@link Port#addMovementSource(MovementSource)}. The port
+ * calls {@link #supply(long, Consumer)} when the source is attached and at the start of every
+ * minute.
+ */
+public interface MovementSource {
+
+    /**
+     * Passes to the given sink every movement this source has not yet supplied that is due
+     * within its lookahead horizon of the given time.
+     * <p>
+     * Movements should be supplied in time order. A source must supply every movement due at or
+     * before the given time.
+     *
+     * @param time current simulation time
+     * @param sink consumer to pass supplied movements to
+     */
+    void supply(long time, Consumer<Movement> sink);
+
+    /**
+     * Returns the time of the earliest movement this source has not yet supplied.
+     * <p>
+     * The time is used to find when the next movement could be processed, so it must not be
+     * later than the time of any movement the source will go on to supply.
+     *
+     * @return time of the next movement to supply, or {@link Long#MAX_VALUE} if there are none
+     */
+    long getNextTime();
+
+    /**
+     * Returns true if this source has supplied all of its movements.
+     *
+     * @return true if there are no more movements to supply
+     */
+    boolean isExhausted();
+}
@@ -1,10 +1,21 @@
 package portsim.port;
 
+import portsim.cargo.BulkCargo;
 import portsim.cargo.Cargo;
+import portsim.cargo.CargoStore;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
 import portsim.evaluators.*;
+import portsim.events.CargoMovementEvent;
+import portsim.events.LoadEvent;
+import portsim.events.ShipDepartedEvent;
+import portsim.events.ShipDockedEvent;
+import portsim.events.TickEvent;
 import portsim.movement.CargoMovement;
 import portsim.movement.Movement;
 import portsim.movement.MovementDirection;
+import portsim.movement.MovementWheel;
+import portsim.movement.RecurringMovement;
 import portsim.movement.ShipMovement;
 import portsim.ship.BulkCarrier;
 import portsim.ship.ContainerShip;
@@ -15,17 +26,44 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 /**
  * A place where ships can come and dock with Quays to load / unload their
  * cargo.
  * <p>
  * Ships can enter a port through its queue. Cargo is stored within the port at warehouses.
+ * <p>
+ * Ticks, dockings, departures, cargo movements and loads are reported to JDK Flight Recorder
+ * using the events in {@link portsim.events}.
  *
  * @ass1_partial
  */
 public class Port implements Tickable, Encodable {
 
+    /**
+     * A movement submitted from another thread, waiting to be added during the next minute.
+     */
+    private static final class SubmittedMovement {
+        /**
+         * Movement to add
+         */
+        private final Movement movement;
+
+        /**
+         * Completed once the movement has been added, or exceptionally if it was rejected
+         */
+        private final CompletableFuture<Void> result;
+
+        /* Pairs the given movement with a new, incomplete result */
+        private SubmittedMovement(Movement movement) {
+            this.movement = movement;
+            this.result = new CompletableFuture<>();
+        }
+    }
+
     /**
      * The name of this port used for identification
      */
@@ -43,17 +81,66 @@ public class Port implements Tickable, Encodable {
      */
     private ShipQueue shipQueue;
     /**
-     * The cargo currently stored at the port at warehouses. Cargo unloaded from trucks / ships
+     * The cargo currently stored at the port at warehouses. Cargo unloaded from trucks / ships.
+     * Empty while a cargo store is attached
      */
     private List<Cargo> storedCargo;
+    /**
+     * Read-only view of the quays, created once and shared by all callers
+     */
+    private List<Quay> quaysView;
+    /**
+     * Read-only view of the stored cargo, created once and shared by all callers
+     */
+    private List<Cargo> cargoView;
+    /**
+     * Number of containers of each type stored at the port, indexed by
+     * {@link ContainerType#ordinal()} and kept up to date as cargo is stored and removed
+     */
+    private int[] storedContainerCounts;
+    /**
+     * Number of pieces of bulk cargo stored at the port, kept up to date as cargo is stored and
+     * removed
+     */
+    private int storedBulkCargoCount;
+    /**
+     * Indices of the quays whose docked ship may still have cargo to unload
+     */
+    private BitSet pendingUnload;
+    /**
+     * Number of times a ship has docked at or departed from one of the port's quays
+     */
+    private long quayChanges;
     /**
      * The movements that cargo and ships will undergo at this port
      */
-    private PriorityQueue<Movement> movements;
+    private MovementWheel movements;
+    /**
+     * Sources from which further movements are pulled as time advances
+     */
+    private List<MovementSource> movementSources;
+    /**
+     * Movements submitted from other threads that have not yet been added to the movements
+     */
+    private final Queue<SubmittedMovement> submittedMovements = new ConcurrentLinkedQueue<>();
+    /**
+     * Run of same-direction cargo movements due this minute that has not yet been applied,
+     * reused from tick to tick so that ticks do not allocate a new list
+     */
+    private final List<CargoMovement> cargoBatch = new ArrayList<>();
     /**
      * The statistics evaluators associated with the port
      */
     private List<StatisticsEvaluator> evaluators;
+    /**
+     * Profiler recording the time spent in each phase of a tick, or null if not profiling
+     */
+    private TickProfiler profiler;
+    /**
+     * Columnar store holding the cargo stored at the port in place of the stored cargo list,
+     * or null if not attached
+     */
+    private CargoStore cargoStore;
 
     /**
      * Creates a new port with the given name.
@@ -63,8 +150,9 @@ public class Port implements Tickable, Encodable {
      * The list of quays in the port, stored cargo (warehouses) and statistics evaluators should be
      * initialised as empty lists.
      * <p>
-     * An empty ShipQueue should be initialised, and a PriorityQueue should be initialised
-     * to store movements ordered by the time of the movement (see {@link Movement#getTime()}).
+     * An empty ShipQueue should be initialised, and a {@link MovementWheel} starting at the
+     * current time should be initialised to store movements ordered by the time of the movement
+     * (see {@link Movement#getTime()}).
      *
      * @param name name of the port
      * @ass1_partial
@@ -75,8 +163,13 @@ public class Port implements Tickable, Encodable {
         this.quays = new ArrayList<Quay>();
         this.shipQueue = new ShipQueue();
         this.storedCargo = new ArrayList<Cargo>();
-        this.movements =
-            new PriorityQueue<Movement>(Comparator.comparingLong(Movement::getTime));
+        this.quaysView = Collections.unmodifiableList(this.quays);
+        this.cargoView = Collections.unmodifiableList(this.storedCargo);
+        this.storedContainerCounts = new int[ContainerType.values().length];
+        this.storedBulkCargoCount = 0;
+        this.pendingUnload = new BitSet();
+        this.movements = new MovementWheel(0);
+        this.movementSources = new ArrayList<MovementSource>();
         this.evaluators = new ArrayList<StatisticsEvaluator>();
     }
 
@@ -85,8 +178,9 @@ public class Port implements Tickable, Encodable {
      * <p>
      * The list of statistics evaluators should be initialised as an empty list.
      * <p>
-     * An empty ShipQueue should be initialised, and a PriorityQueue should be initialised
-     * to store movements ordered by the time of the movement (see {@link Movement#getTime()}).
+     * An empty ShipQueue should be initialised, and a {@link MovementWheel} starting at the
+     * current time should be initialised to store movements ordered by the time of the movement
+     * (see {@link Movement#getTime()}).
      *
      * @param name        name of the port
      * @param time        number of minutes since simulation started
@@ -107,13 +201,24 @@ public class Port implements Tickable, Encodable {
         this.quays = quays;
         this.shipQueue = shipQueue;
         this.storedCargo = storedCargo;
-        this.movements =
-            new PriorityQueue<Movement>(Comparator.comparingLong(Movement::getTime));
+        this.quaysView = Collections.unmodifiableList(this.quays);
+        this.cargoView = Collections.unmodifiableList(this.storedCargo);
+        this.storedContainerCounts = new int[ContainerType.values().length];
+        this.storedBulkCargoCount = 0;
+        for (Cargo cargo : storedCargo) {
+            countStored(cargo, 1);
+        }
+        this.pendingUnload = new BitSet();
+        for (int i = 0; i < quays.size(); i++) {
+            watchQuay(i);
+        }
+        this.movements = new MovementWheel(time);
+        this.movementSources = new ArrayList<MovementSource>();
         this.evaluators = new ArrayList<StatisticsEvaluator>();
     }
 
     /**
-     * Adds a movement to the PriorityQueue of movements.
+     * Adds a movement to the queue of movements.
      * <p>
      * If the given movement's action time is less than the current number of
      * minutes elapsed than an {@code IllegalArgumentException} should be
@@ -130,6 +235,90 @@ public class Port implements Tickable, Encodable {
         this.movements.add(movement);
     }
 
+    /**
+     * Submits a movement to be added to the queue of movements during the next minute.
+     * <p>
+     * Unlike {@link #addMovement(Movement)}, this method may be called from any thread while
+     * another thread is advancing the port, and never blocks. Submitted movements are added in
+     * the order they were submitted when the thread advancing the port next calls
+     * {@link #elapseOneMinute()}, after the time is advanced and before that minute's movements
+     * are processed. They are checked against the new time in the same way as
+     * {@link #addMovement(Movement)}, so a movement for the next minute is processed in that
+     * minute, while a movement for the current minute or earlier is rejected.
+     * <p>
+     * The returned future is completed on the thread advancing the port, so any actions
+     * attached to it without an executor also run on that thread and should be brief.
+     *
+     * @param movement movement to add
+     * @return future completed once the movement has been added, or exceptionally with an
+     * {@code IllegalArgumentException} if its time had already passed
+     */
+    public CompletableFuture<Void> submitMovement(Movement movement) {
+        SubmittedMovement submitted = new SubmittedMovement(movement);
+        submittedMovements.add(submitted);
+        return submitted.result;
+    }
+
+    /**
+     * Returns the number of submitted movements waiting to be added during the next
+     * minute.
+     * <p>
+     * The count may be out of date by the time it is returned if other threads are submitting
+     * movements.
+     *
+     * @return number of pending submitted movements
+     * @see #submitMovement(Movement)
+     */
+    public int getSubmittedMovementCount() {
+        return submittedMovements.size();
+    }
+
+    /**
+     * Attaches a source from which movements are pulled incrementally as time advances.
+     * <p>
+     * The source immediately supplies the movements within its lookahead of the current time,
+     * and is asked for more at the start of each minute (see {@link #elapseOneMinute()}).
+     * Movements are added with {@link #addMovement(Movement)}, so a source's movements are only
+     * part of {@link #getMovements()} (and of {@link #encode()}) once supplied.
+     *
+     * @param source source of movements to attach
+     */
+    public void addMovementSource(MovementSource source) {
+        source.supply(time, this::addMovement);
+        if (!source.isExhausted()) {
+            movementSources.add(source);
+        }
+    }
+
+    /**
+     * Returns the movement sources attached to this port that have not yet been exhausted.
+     * <p>
+     * Adding or removing elements from the returned list should not affect the original list.
+     *
+     * @return attached movement sources
+     */
+    public List<MovementSource> getMovementSources() {
+        return new ArrayList<>(movementSources);
+    }
+
+    /**
+     * Returns the time of the earliest movement waiting to be processed, whether it is already
+     * in {@link #getMovements()} or still to be supplied by an attached movement source.
+     * <p>
+     * Movements submitted with {@link #submitMovement(Movement)} that have not yet been taken in
+     * are not considered.
+     *
+     * @return time of the next movement, or {@link Long#MAX_VALUE} if there are none
+     */
+    public long getNextMovementTime() {
+        Movement next = movements.peek();
+        long nextTime = next == null ? Long.MAX_VALUE : next.getTime();
+        for (MovementSource source : movementSources) {
+            nextTime = Math.min(nextTime, source.getNextTime());
+        }
+        return nextTime;
+    }
+
     /**
      * Processes a movement.
      * <p>
@@ -151,6 +340,10 @@ public class Port implements Tickable, Encodable {
      * <li>If the movement direction is {@code OUTBOUND} then all cargo with the given
      * IDs should be removed from the port's stored cargo.</li>
      * </ul>
+     * If the movement is a RecurringMovement, its current occurrence is processed as above and
+     * the recurring movement for the following occurrence (see {@link RecurringMovement#next()}),
+     * if any, is added to the port's movements. Only the occurrence is forwarded to the
+     * statistics evaluators.
      * <p>
      * Finally, the movement should be forwarded onto each statistics evaluator stored by the port
      * by calling {@link StatisticsEvaluator#onProcessMovement(Movement)}.
@@ -159,6 +352,15 @@ public class Port implements Tickable, Encodable {
      * @ass2
      */
     public void processMovement(Movement movement) {
+        if (movement instanceof RecurringMovement) {
+            RecurringMovement recurring = (RecurringMovement) movement;
+            processMovement(recurring.getOccurrence());
+            RecurringMovement next = recurring.next();
+            if (next != null) {
+                addMovement(next);
+            }
+            return;
+        }
         if (movement instanceof ShipMovement) {
             // If the movement is a ShipMovement
             ShipMovement shipMovement = (ShipMovement) movement;
@@ -168,17 +370,31 @@ public class Port implements Tickable, Encodable {
             } else { // Direction == OUTBOUND
                 for (Quay q : quays) {
                     if (q.getShip() == ship) {
+                        ShipDepartedEvent departed = new ShipDepartedEvent();
+                        departed.begin();
                         // Load cargo onto ship before departure
                         List<Cargo> loaded = new ArrayList<>();
-                        for (Cargo cargo : storedCargo) {
-                            if (ship.canLoad(cargo)) {
-                                ship.loadCargo(cargo);
-                                loaded.add(cargo);
+                        if (cargoStore != null) {
+                            loadFromCargoStore(ship, loaded);
+                        } else {
+                            for (Cargo cargo : storedCargo) {
+                                if (ship.canLoad(cargo)) {
+                                    ship.loadCargo(cargo);
+                                    loaded.add(cargo);
+                                }
                             }
+                            removeStoredCargo(loaded);
                         }
-                        storedCargo.removeAll(loaded);
                         // depart ship
                         q.shipDeparts();
+                        departed.end();
+                        if (departed.shouldCommit()) {
+                            departed.setTime(time);
+                            departed.setImoNumber(ship.getImoNumber());
+                            departed.setQuayId(q.getId());
+                            departed.setCargoLoaded(loaded.size());
+                            departed.commit();
+                        }
                         break; // no need to continue as a ship should {can}
                         // only be in one quay at once.
                     }
@@ -186,17 +402,157 @@ public class Port implements Tickable, Encodable {
             }
         } else if (movement instanceof CargoMovement) {
             // If the movement is a CargoMovement
-            CargoMovement cargoMovement = (CargoMovement) movement;
-            List<Cargo> cargo = cargoMovement.getCargo();
-            if (cargoMovement.getDirection() == MovementDirection.INBOUND) {
-                storedCargo.addAll(cargo);
-            } else { // Direction == OUTBOUND
-                // Remove all cargo with the set ID
-                storedCargo.removeAll(cargo);
+            applyCargoMovements(List.of((CargoMovement) movement));
+        }
+        TickProfiler profiler = this.profiler;
+        for (StatisticsEvaluator eval : evaluators) {
+            if (profiler == null) {
+                eval.onProcessMovement(movement);
+            } else {
+                long start = System.nanoTime();
+                eval.onProcessMovement(movement);
+                profiler.recordEvaluator(eval, System.nanoTime() - start);
             }
         }
+    }
+
+    /*
+     * Processes consecutive cargo movements that all have the same direction, giving the same
+     * result as passing each one to processMovement() in order. The warehouse is updated once
+     * for the whole batch and each evaluator receives the batch in a single call.
+     */
+    private void processCargoMovements(List<CargoMovement> batch) {
+        applyCargoMovements(batch);
+        TickProfiler profiler = this.profiler;
         for (StatisticsEvaluator eval : evaluators) {
-            eval.onProcessMovement(movement);
+            if (profiler == null) {
+                eval.onProcessMovements(batch);
+            } else {
+                long start = System.nanoTime();
+                eval.onProcessMovements(batch);
+                profiler.recordEvaluator(eval, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /*
+     * Moves the cargo of the given same-direction cargo movements into or out of the warehouses
+     * in a single operation.
+     */
+    private void applyCargoMovements(List<CargoMovement> batch) {
+        CargoMovementEvent moved = new CargoMovementEvent();
+        moved.begin();
+        MovementDirection direction = batch.get(0).getDirection();
+        int cargoCount = 0;
+        if (direction == MovementDirection.INBOUND) {
+            for (CargoMovement cargoMovement : batch) {
+                for (Cargo cargo : cargoMovement.getCargoView()) {
+                    storeCargo(cargo);
+                }
+                cargoCount += cargoMovement.getCargoCount();
+            }
+        } else { // Direction == OUTBOUND
+            // Remove all cargo with the set IDs
+            Set<Cargo> leaving = new HashSet<>();
+            for (CargoMovement cargoMovement : batch) {
+                cargoMovement.addCargoTo(leaving);
+                cargoCount += cargoMovement.getCargoCount();
+            }
+            removeStoredCargo(leaving);
+        }
+        moved.end();
+        if (moved.shouldCommit()) {
+            moved.setTime(time);
+            moved.setDirection(direction.name());
+            moved.setCargoCount(cargoCount);
+            moved.setMovementCount(batch.size());
+            moved.commit();
+        }
+    }
+
+    /*
+     * Loads the stored cargo that the given departing ship can take, in the order it was
+     * stored, finding candidates by scanning the cargo store's columns rather than the cargo.
+     * Loaded cargo is added to the given list, and every row holding it is removed from the
+     * cargo store, as removeAll does for the stored cargo list.
+     */
+    private void loadFromCargoStore(Ship ship, List<Cargo> loaded) {
+        boolean containers = ship instanceof ContainerShip;
+        if (!containers && !(ship instanceof BulkCarrier)) {
+            return;
+        }
+        int origin = ship.getOriginFlagCode();
+        int row = cargoStore.findLoadable(origin, containers, Integer.MAX_VALUE, 0);
+        while (row >= 0) {
+            Cargo cargo;
+            try {
+                cargo = cargoStore.get(row);
+            } catch (NoSuchCargoException e) {
+                // unreachable as removed rows are never found
+                break;
+            }
+            if (ship.canLoad(cargo)) {
+                ship.loadCargo(cargo);
+                loaded.add(cargo);
+                if (!containers) {
+                    // a bulk carrier holds a single piece of cargo
+                    break;
+                }
+            } else if (containers) {
+                // every container found could be loaded, so the ship is full
+                break;
+            }
+            row = cargoStore.findLoadable(origin, containers, Integer.MAX_VALUE, row + 1);
+        }
+        if (!loaded.isEmpty()) {
+            removeStoredCargo(loaded);
+        }
+    }
+
+    /* Adds a piece of cargo to the warehouses, counting it by type */
+    private void storeCargo(Cargo cargo) {
+        if (cargoStore != null) {
+            cargoStore.add(cargo);
+        } else {
+            storedCargo.add(cargo);
+        }
+        countStored(cargo, 1);
+    }
+
+    /*
+     * Removes every stored piece of any of the given cargo from the warehouses, uncounting it by
+     * type. The cargo store is searched by ID rather than scanned
+     */
+    private void removeStoredCargo(Collection<Cargo> leaving) {
+        if (cargoStore != null) {
+            for (Cargo cargo : leaving) {
+                countStored(cargo, -cargoStore.removeById(cargo.getId()));
+            }
+            compactCargoStore();
+            return;
+        }
+        storedCargo.removeIf(cargo -> {
+            if (!leaving.contains(cargo)) {
+                return false;
+            }
+            countStored(cargo, -1);
+            return true;
+        });
+    }
+
+    /* Adds the given number of pieces of the given cargo to the counts of stored cargo by type */
+    private void countStored(Cargo cargo, int pieces) {
+        if (cargo instanceof Container) {
+            storedContainerCounts[((Container) cargo).getType().ordinal()] += pieces;
+        } else if (cargo instanceof BulkCargo) {
+            storedBulkCargoCount += pieces;
+        }
+    }
+
+    /* Discards the cargo store's removed rows once they make up most of the store */
+    private void compactCargoStore() {
+        if (cargoStore.getRowCount() > 2 * cargoStore.size() + 1024) {
+            cargoStore.compact();
         }
     }
 
@@ -228,6 +584,19 @@ public class Port implements Tickable, Encodable {
         return name;
     }
 
+    /**
+     * Returns the number of times the occupancy of the port's quays has changed.
+     * <p>
+     * The count is advanced whenever a ship docks at or departs from one of the port's quays,
+     * and when a quay with a ship already docked is added, so the number of occupied quays
+     * cannot have changed while the count stays the same.
+     *
+     * @return number of quay occupancy changes
+     */
+    public long getQuayChangeCount() {
+        return quayChanges;
+    }
+
     /**
      * Returns the time since simulation started.
      *
@@ -253,6 +622,19 @@ public class Port implements Tickable, Encodable {
         return new ArrayList<>(this.quays);
     }
 
+    /**
+     * Returns a read-only view of the quays in this port.
+     * <p>
+     * Unlike {@link #getQuays()}, no copy is made: the view always reflects the port's current
+     * quays, in the order they were added, and attempting to modify it throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @return read-only view of all quays
+     */
+    public List<Quay> getQuaysView() {
+        return quaysView;
+    }
+
     /**
      * Returns the cargo stored in warehouses at this port.
      * <p>
@@ -262,7 +644,45 @@ public class Port implements Tickable, Encodable {
      * @ass1
      */
     public List<Cargo> getCargo() {
-        return new ArrayList<>(this.storedCargo);
+        return new ArrayList<>(this.cargoView);
+    }
+
+    /**
+     * Returns a read-only view of the cargo stored in warehouses at this port.
+     * <p>
+     * Unlike {@link #getCargo()}, no copy is made: the view always reflects the cargo currently
+     * stored, and attempting to modify it throws an {@code UnsupportedOperationException}.
+     *
+     * @return read-only view of port cargo
+     */
+    public List<Cargo> getCargoView() {
+        return cargoView;
+    }
+
+    /**
+     * Returns the number of containers of the given type stored in warehouses at this port.
+     * <p>
+     * The count is kept up to date as the port stores and removes cargo, so no stored cargo is
+     * visited. Changes made to the stored cargo list given to the constructor by other code are
+     * not counted.
+     *
+     * @param type container type to count
+     * @return number of stored containers of the type
+     */
+    public int getStoredContainerCount(ContainerType type) {
+        return storedContainerCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of pieces of bulk cargo stored in warehouses at this port.
+     * <p>
+     * The count is kept up to date in the same way as
+     * {@link #getStoredContainerCount(ContainerType)}.
+     *
+     * @return number of stored pieces of bulk cargo
+     */
+    public int getStoredBulkCargoCount() {
+        return storedBulkCargoCount;
     }
 
     /**
@@ -277,11 +697,13 @@ public class Port implements Tickable, Encodable {
 
     /**
      * Returns the queue of movements waiting to be processed.
+     * <p>
+     * The queue is ordered by the time of the movement, and is iterated in that order.
      *
      * @return movements queue
      * @ass2
      */
-    public PriorityQueue<Movement> getMovements() {
+    public Queue<Movement> getMovements() {
         return movements;
     }
 
@@ -297,6 +719,77 @@ public class Port implements Tickable, Encodable {
         return evaluators;
     }
 
+    /**
+     * Returns the profiler measuring this port's ticks.
+     *
+     * @return tick profiler, or null if this port is not being profiled
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Attaches a profiler that records the time spent in each phase of
+     * {@link #elapseOneMinute()} and in each statistics evaluator.
+     * <p>
+     * Passing null stops profiling. While no profiler is attached no timing is performed.
+     *
+     * @param profiler profiler to record into, or null to disable profiling
+     */
+    public void setProfiler(TickProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Attaches a columnar store in which to keep the cargo stored at this port, in place of a
+     * list of cargo objects, so that warehouse scans read compact columns.
+     * <p>
+     * While a store is attached, it is the only record of the stored cargo: {@link #getCargo()},
+     * {@link #getCargoView()} and {@link #encode()} read from it (see
+     * {@link CargoStore#asList()}), the cargo loaded onto a departing ship is found with
+     * {@link CargoStore#findLoadable(int, boolean, int, int)}, cargo leaves by ID with
+     * {@link CargoStore#removeById(int)}, and snapshots count the stored cargo by type from the
+     * store (see {@link PortSnapshot}). The cargo stored, loaded and counted is the same as
+     * without a store.
+     * <p>
+     * The cargo currently stored at the port is moved into the store when it is attached, and
+     * the list of stored cargo passed to the constructor is no longer used. Passing null
+     * detaches the store, moving its cargo back into a list.
+     *
+     * @param cargoStore empty store to keep the stored cargo in, or null to detach the store
+     * @throws IllegalArgumentException if the store is not empty
+     */
+    public void setCargoStore(CargoStore cargoStore) throws IllegalArgumentException {
+        if (cargoStore != null && cargoStore.getRowCount() != 0) {
+            throw new IllegalArgumentException("Cargo store must be empty when attached: "
+                + cargoStore.getRowCount() + " rows");
+        }
+        List<Cargo> stored = new ArrayList<>(cargoView);
+        if (cargoStore != null) {
+            for (Cargo cargo : stored) {
+                cargoStore.add(cargo);
+            }
+            this.storedCargo = new ArrayList<>();
+            this.cargoView = cargoStore.asList();
+        } else {
+            this.storedCargo = stored;
+            this.cargoView = Collections.unmodifiableList(this.storedCargo);
+        }
+        this.cargoStore = cargoStore;
+    }
+
+    /**
+     * Returns the columnar store holding the cargo stored at this port.
+     * <p>
+     * The store must not be modified by the caller.
+     *
+     * @return attached cargo store, or null if none is attached
+     * @see #setCargoStore(CargoStore)
+     */
+    CargoStore getCargoStore() {
+        return cargoStore;
+    }
+
     /**
      * Adds a quay to the ports control.
      *
@@ -305,6 +798,40 @@ public class Port implements Tickable, Encodable {
      */
     public void addQuay(Quay quay) {
         this.quays.add(quay);
+        watchQuay(this.quays.size() - 1);
+    }
+
+    /* Adds each submitted movement, reporting whether it was accepted to its submitter */
+    private void addSubmittedMovements() {
+        SubmittedMovement submitted;
+        while ((submitted = submittedMovements.poll()) != null) {
+            try {
+                addMovement(submitted.movement);
+            } catch (IllegalArgumentException e) {
+                submitted.result.completeExceptionally(e);
+                continue;
+            }
+            submitted.result.complete(null);
+        }
+    }
+
+    /*
+     * Marks the quay at the given index as having cargo to unload whenever a ship docks at it,
+     * and straight away if a ship is already docked. Every ship docking or departing is counted
+     * as a quay change, as is adding a quay with a ship already docked.
+     */
+    private void watchQuay(int index) {
+        Quay quay = quays.get(index);
+        quay.setDockingListener(() -> {
+            quayChanges++;
+            if (!quay.isEmpty()) {
+                pendingUnload.set(index);
+            }
+        });
+        if (!quay.isEmpty()) {
+            quayChanges++;
+            pendingUnload.set(index);
+        }
     }
 
     /**
@@ -319,61 +846,172 @@ public class Port implements Tickable, Encodable {
      * The ship should only be docked to one quay.
      * </li>
      * <li>If the time is a multiple of 5, all quays must unload the cargo from ships
-     * docked (if any) and add it to warehouses at the port (the Port's list of stored cargo)</li>
-     * <li>All movements stored in the queue whose action time is equal to the current time
-     * should be processed by {@link #processMovement(Movement)}</li>
+     * docked (if any) and add it to warehouses at the port (the Port's list of stored cargo).
+     * A quay with a handling rate only unloads up to that rate each time (see
+     * {@link Quay#unload(Consumer)}).</li>
+     * <li>Movements within the lookahead of any attached movement sources are added to the
+     * queue (see {@link #addMovementSource(MovementSource)}), followed by the movements
+     * submitted with {@link #submitMovement(Movement)} since the last call, then all movements
+     * stored in the queue whose action time is equal to the current time should be processed
+     * by {@link #processMovement(Movement)}. Consecutive cargo movements in the same direction
+     * are applied to the warehouses together, with the same result as processing each in
+     * turn.</li>
      * <li>Call {@link StatisticsEvaluator#elapseOneMinute()} on all statistics evaluators</li>
      * </ol>
+     * <p>
+     * If a profiler has been attached with {@link #setProfiler(TickProfiler)}, the time taken
+     * by steps 2 to 5 is recorded in it.
      *
      * @ass2
      */
     @Override
     public void elapseOneMinute() {
+        TickEvent tick = new TickEvent();
+        tick.begin();
+        TickProfiler profiler = this.profiler;
+        long phaseStart = profiler == null ? 0 : System.nanoTime();
+        long now;
+        int events;
+
         // advance simulation time
         time += 1;
 
         // shipQueue processing
         if (time % 10 == 0) {
+            events = 0;
             Ship queuedShip = shipQueue.peek();
             for (Quay quay : quays) {
                 if (quay.isEmpty() && queuedShip != null && queuedShip.canDock(quay)) {
                     quay.shipArrives(shipQueue.poll());
+                    events++;
+                    ShipDockedEvent docked = new ShipDockedEvent();
+                    if (docked.shouldCommit()) {
+                        docked.setTime(time);
+                        docked.setImoNumber(queuedShip.getImoNumber());
+                        docked.setQuayId(quay.getId());
+                        docked.setCargoCount(cargoOnBoard(queuedShip));
+                        docked.commit();
+                    }
                     break;
                 }
             }
+            if (profiler != null) {
+                now = System.nanoTime();
+                profiler.record(TickProfiler.Phase.SHIP_QUEUE, now - phaseStart, events);
+                phaseStart = now;
+            }
         }
 
         // Quay processing
         if (time % 5 == 0) {
-            for (Quay quay : quays) {
-                if (!quay.isEmpty()) {
-                    try {
-                        if (quay instanceof ContainerQuay) {
-                            ContainerShip ship = (ContainerShip) quay.getShip();
-                            storedCargo.addAll(ship.unloadCargo());
-                        } else if (quay instanceof BulkQuay) {
-                            BulkCarrier ship = (BulkCarrier) quay.getShip();
-                            storedCargo.add(ship.unloadCargo());
-                        }
-                    } catch (NoSuchCargoException e) {
-                        // Ignore
-                    }
+            events = 0;
+            Consumer<Cargo> warehouse = this::storeCargo;
+            // Only visit quays whose docked ship still has cargo to unload; a quay drops out
+            // once its ship is empty or has departed, until the next ship docks there
+            for (int i = pendingUnload.nextSetBit(0); i >= 0;
+                 i = pendingUnload.nextSetBit(i + 1)) {
+                Quay quay = quays.get(i);
+                if (quay.unload(warehouse) > 0) {
+                    events++;
+                }
+                if (!quay.hasCargoToUnload()) {
+                    pendingUnload.clear(i);
                 }
             }
+            if (profiler != null) {
+                now = System.nanoTime();
+                profiler.record(TickProfiler.Phase.QUAY_UNLOADING, now - phaseStart, events);
+                phaseStart = now;
+            }
         }
 
         // Movement processing
+        events = 0;
+        if (!movementSources.isEmpty()) {
+            for (MovementSource source : movementSources) {
+                source.supply(time, this::addMovement);
+            }
+            movementSources.removeIf(MovementSource::isExhausted);
+        }
+        // take in movements submitted from other threads, checked against the new minute so
+        // that one submitted for it is processed now rather than a minute late
+        if (!submittedMovements.isEmpty()) {
+            addSubmittedMovements();
+        }
         Movement movement;
-        // Check if movements has an element and if its time is the same as
-        // current. movements are ordered by their action time.
-        while ((movement = movements.peek()) != null && movement.getTime() == time) {
-            processMovement(movements.poll());
+        // Drain the wheel's slot for the current minute, grouping runs of cargo movements in
+        // the same direction so that each run is applied in one go. The batch is cleared first
+        // in case a failed tick left movements in it
+        cargoBatch.clear();
+        while ((movement = movements.pollDue(time)) != null) {
+            events++;
+            if (movement instanceof RecurringMovement
+                && ((RecurringMovement) movement).getOccurrence() instanceof CargoMovement) {
+                RecurringMovement recurring = (RecurringMovement) movement;
+                RecurringMovement next = recurring.next();
+                if (next != null) {
+                    addMovement(next);
+                }
+                movement = recurring.getOccurrence();
+            }
+            if (movement instanceof CargoMovement) {
+                if (!cargoBatch.isEmpty()
+                    && cargoBatch.get(0).getDirection() != movement.getDirection()) {
+                    processCargoMovements(cargoBatch);
+                    cargoBatch.clear();
+                }
+                cargoBatch.add((CargoMovement) movement);
+                continue;
+            }
+            if (!cargoBatch.isEmpty()) {
+                processCargoMovements(cargoBatch);
+                cargoBatch.clear();
+            }
+            processMovement(movement);
+        }
+        if (!cargoBatch.isEmpty()) {
+            processCargoMovements(cargoBatch);
+            cargoBatch.clear();
+        }
+        int movementsProcessed = events;
+        if (profiler != null) {
+            now = System.nanoTime();
+            profiler.record(TickProfiler.Phase.MOVEMENTS, now - phaseStart, events);
+            phaseStart = now;
         }
 
         // Evaluators processing
         for (StatisticsEvaluator eval : evaluators) {
-            eval.elapseOneMinute();
+            if (profiler == null) {
+                eval.elapseOneMinute();
+            } else {
+                long start = System.nanoTime();
+                eval.elapseOneMinute();
+                profiler.recordEvaluator(eval, System.nanoTime() - start);
+            }
+        }
+        if (profiler != null) {
+            profiler.record(TickProfiler.Phase.EVALUATORS, System.nanoTime() - phaseStart,
+                evaluators.size());
+        }
+
+        tick.end();
+        if (tick.shouldCommit()) {
+            tick.setTime(time);
+            tick.setMovementsProcessed(movementsProcessed);
+            tick.setStoredCargo(cargoView.size());
+            tick.commit();
+        }
+    }
+
+    /* Returns the number of pieces of cargo on board the given ship */
+    private static int cargoOnBoard(Ship ship) {
+        if (ship instanceof ContainerShip) {
+            return ((ContainerShip) ship).getCargoView().size();
+        } else if (ship instanceof BulkCarrier) {
+            return ((BulkCarrier) ship).getCargo() == null ? 0 : 1;
         }
+        return 0;
     }
 
     /**
@@ -398,6 +1036,8 @@ public class Port implements Tickable, Encodable {
      * EncodedMovement
      * EncodedMovement...
      * Evaluators:numEvaluators:EvaluatorSimpleName,EvaluatorSimpleName,...
+     * EncodedEvaluator
+     * EncodedEvaluator...
      * </pre>
      * Where:
      * <ul>
@@ -427,6 +1067,9 @@ public class Port implements Tickable, Encodable {
      *   <li>If present (numEvaluators &gt; 0): EvaluatorSimpleName is the name given by
      *   {@link Class#getSimpleName()} for each evaluator in the aforementioned list separated
      *   by a comma</li>
+     *   <li>If present (numEvaluators &gt; 0): EncodedEvaluator is the encoded representation
+     *   of each evaluator's gathered statistics (see {@link StatisticsEvaluator#encode()}), in
+     *   the same order as the evaluator names</li>
      *   <li>Each line is separated by a {@link System#lineSeparator()}</li>
      * </ul>
      * <p>
@@ -465,10 +1108,10 @@ public class Port implements Tickable, Encodable {
         }
         joiner.add(this.shipQueue.encode());
 
-        for (Cargo cargo : this.storedCargo) {
+        for (Cargo cargo : this.cargoView) {
             lists.add(String.valueOf(cargo.getId()));
         }
-        joiner.add("StoredCargo:" + this.storedCargo.size() + ":" + lists);
+        joiner.add("StoredCargo:" + this.cargoView.size() + ":" + lists);
         joiner.add("Movements:" + this.movements.size());
         for (Movement movement : this.movements) {
             joiner.add(movement.encode());
@@ -479,6 +1122,9 @@ public class Port implements Tickable, Encodable {
         }
 
         joiner.add("Evaluators:" + this.evaluators.size() + ":" + lists);
+        for (StatisticsEvaluator evaluator : this.evaluators) {
+            joiner.add(evaluator.encode());
+        }
         return joiner.toString();
     }
 
@@ -505,9 +1151,15 @@ public class Port implements Tickable, Encodable {
      * EncodedMovement
      * EncodedMovement...
      * Evaluators:numEvaluators:EvaluatorSimpleName,EvaluatorSimpleName
+     * EncodedEvaluator
+     * EncodedEvaluator...
      * </pre>
      * As specified by {@link #encode()}
      * <p>
+     * The encoded evaluator lines are optional, so that ports saved before evaluator statistics
+     * were persisted can still be loaded. If they are absent, each evaluator is created with no
+     * statistics gathered.
+     * <p>
      * The encoded string is invalid if any of the following conditions are true:
      * <ul>
      * <li>The time is not a valid long (i.e. cannot be parsed by
@@ -558,6 +1210,9 @@ public class Port implements Tickable, Encodable {
      * specified above. (ie. too many / few encoded evaluators following the
      * number)</li>
      * <li>An encoded evaluator name does not match any of the possible evaluator classes</li>
+     * <li>Encoded evaluator lines are present but there are fewer of them than the number of
+     * evaluators, or their names do not match the evaluator names in order</li>
+     * <li>An encoded evaluator line throws a {@link BadEncodingException}</li>
      * <li>If any of the following lines are missing:
      *      <ol>
      *          <li>Name</li>
@@ -584,6 +1239,8 @@ public class Port implements Tickable, Encodable {
      */
     public static Port initialisePort(Reader reader) throws IOException,
         BadEncodingException {
+        LoadEvent loaded = new LoadEvent();
+        loaded.begin();
         BufferedReader portReader = new BufferedReader(reader);
         String name = portReader.readLine();
         if (name == null) {
@@ -769,23 +1426,50 @@ public class Port implements Tickable, Encodable {
             throw new BadEncodingException("The number of evaluators to add "
                 + "to the port should be a equal to the number encoded");
         }
+        String evaluatorLine = numEvaluators > 0 ? portReader.readLine() : null;
         for (int i = 0; i < encodedEvaluators.length && numEvaluators > 0; i++) {
-            port.addStatisticsEvaluator(createEvaluator(encodedEvaluators[i],
-                port));
+            if (evaluatorLine == null) {
+                // no saved statistics, start each evaluator afresh
+                port.addStatisticsEvaluator(StatisticsEvaluator.create(encodedEvaluators[i],
+                    port));
+                continue;
+            }
+            if (!evaluatorLine.startsWith(encodedEvaluators[i] + ":")) {
+                throw new BadEncodingException("Expected encoded "
+                    + encodedEvaluators[i] + " here: " + evaluatorLine);
+            }
+            port.addStatisticsEvaluator(StatisticsEvaluator.fromString(evaluatorLine, port));
+            if (i + 1 < encodedEvaluators.length) {
+                evaluatorLine = portReader.readLine();
+                if (evaluatorLine == null) {
+                    throw new BadEncodingException("Expected encoded "
+                        + encodedEvaluators[i + 1] + " here");
+                }
+            }
         }
 
+        loaded.end();
+        if (loaded.shouldCommit()) {
+            loaded.setPortName(port.getName());
+            loaded.setTime(port.getTime());
+            loaded.setStoredCargo(port.cargoView.size());
+            loaded.setMovements(port.movements.size());
+            loaded.commit();
+        }
         return port;
     }
 
     // Creates a movement from a string by calling the appropriate fromString
     // method
-    private static Movement readMovement(String string) throws BadEncodingException {
+    static Movement readMovement(String string) throws BadEncodingException {
         Movement movement = null;
         String[] splitMovement = string.split(":");
         if (splitMovement[0].equals("CargoMovement")) {
             movement = CargoMovement.fromString(string);
         } else if (splitMovement[0].equals("ShipMovement")) {
             movement = ShipMovement.fromString(string);
+        } else if (splitMovement[0].equals("RecurringMovement")) {
+            movement = RecurringMovement.fromString(string);
         } else {
             throw new BadEncodingException(
                 "Movement of type " + splitMovement[0] + "does not exist");
@@ -793,24 +1477,4 @@ public class Port implements Tickable, Encodable {
         return movement;
     }
 
-    // Creates a new StatisticsEvaluator from a string
-    private static StatisticsEvaluator createEvaluator(String string, Port port)
-        throws BadEncodingException {
-        StatisticsEvaluator evaluator;
-        switch (string) {
-            case "CargoDecompositionEvaluator":
-                return new CargoDecompositionEvaluator();
-            case "QuayOccupancyEvaluator":
-                return new QuayOccupancyEvaluator(port);
-            case "ShipFlagEvaluator":
-                return new ShipFlagEvaluator();
-            case "ShipThroughputEvaluator":
-                return new ShipThroughputEvaluator();
-            default:
-                throw new BadEncodingException("The evaluator specified does "
-                    + "not exist: " + string);
-        }
-
-    }
-
 }
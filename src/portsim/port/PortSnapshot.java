@@ -0,0 +1,487 @@
+package portsim.port;
+
+import portsim.cargo.BulkCargo;
+import portsim.cargo.BulkCargoType;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.evaluators.StatisticsEvaluator;
+import portsim.ship.BulkCarrier;
+import portsim.ship.ContainerShip;
+import portsim.ship.Ship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable copy of the parts of a port's state needed to draw it, taken between ticks.
+ * <p>
+ * Snapshots are taken on the thread running the simulation and can then be read from any
+ * thread, so a view can render a consistent picture of the port while the simulation carries on.
+ * The ships referenced by a snapshot are the live ship objects; only their identity, name, type
+ * and flags should be relied upon when drawing. The cargo on board docked and queued ships is
+ * recorded as a {@link ShipCargo} for each ship, the cargo on docked ships and in storage is
+ * summarised as counts per type, and the statistics gathered by the port's evaluators as their
+ * {@link StatisticsEvaluator#getCounters() counters}.
+ * <p>
+ * Each snapshot is taken from the previous one, and the parts of the port that have not changed
+ * since then are shared with the previous snapshot rather than recorded again: the state of a
+ * quay at which no ship has docked, departed or been unloaded, the ship queue if no ship has
+ * joined or left it, and the counters of an evaluator whose
+ * {@link StatisticsEvaluator#getVersion() version} is the same. The cargo on board a queued ship
+ * is taken not to change while it waits. Stored cargo is counted by the port as it is stored and
+ * removed (see {@link Port#getStoredContainerCount(ContainerType)}), so taking a snapshot does
+ * not depend on the amount of cargo at the port.
+ *
+ * @see SimulationThread#getSnapshot()
+ */
+public class PortSnapshot {
+
+    /**
+     * The state of a single quay at the time a snapshot was taken.
+     */
+    public static final class QuayState {
+        /**
+         * ID of the quay
+         */
+        private final int id;
+
+        /**
+         * Simple class name of the quay
+         */
+        private final String typeName;
+
+        /**
+         * Ship docked at the quay, or null if the quay was empty
+         */
+        private final Ship ship;
+
+        /**
+         * Number of containers of each type on board the docked ship, indexed by
+         * {@link ContainerType#ordinal()}
+         */
+        private final int[] containerCounts;
+
+        /**
+         * Cargo on board the docked ship, or null if the quay was empty
+         */
+        private final ShipCargo shipCargo;
+
+        /**
+         * Quay whose state was recorded
+         */
+        private final Quay quay;
+
+        /**
+         * Change count of the quay when its state was recorded (see
+         * {@link Quay#getChangeCount()})
+         */
+        private final long changeCount;
+
+        /* Records the current state of the given quay */
+        private QuayState(Quay quay) {
+            this.id = quay.getId();
+            this.typeName = quay.getClass().getSimpleName();
+            this.ship = quay.getShip();
+            this.containerCounts = new int[ContainerType.values().length];
+            if (ship instanceof ContainerShip) {
+                for (Container container : ((ContainerShip) ship).getCargoView()) {
+                    containerCounts[container.getType().ordinal()]++;
+                }
+            }
+            this.shipCargo = ship == null ? null : new ShipCargo(ship);
+            this.quay = quay;
+            this.changeCount = quay.getChangeCount();
+        }
+
+        /* Returns true if this is the state of the given quay and the quay has not changed */
+        private boolean isCurrent(Quay quay) {
+            return this.quay == quay && changeCount == quay.getChangeCount();
+        }
+
+        /**
+         * Returns the ID of the quay.
+         *
+         * @return quay ID
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Returns the simple class name of the quay, for example {@code BulkQuay}.
+         *
+         * @return quay class name
+         */
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * Returns the ship that was docked at the quay.
+         *
+         * @return docked ship, or null if the quay was empty
+         */
+        public Ship getShip() {
+            return ship;
+        }
+
+        /**
+         * Returns true if no ship was docked at the quay.
+         *
+         * @return true if the quay was empty
+         */
+        public boolean isEmpty() {
+            return ship == null;
+        }
+
+        /**
+         * Returns the number of containers of the given type that were on board the docked ship.
+         *
+         * @param type container type to count
+         * @return number of containers of the type, or 0 if the quay was empty or the ship does
+         * not carry containers
+         */
+        public int getContainerCount(ContainerType type) {
+            return containerCounts[type.ordinal()];
+        }
+    }
+
+    /**
+     * The cargo on board a docked or queued ship at the time a snapshot was taken.
+     */
+    public static final class ShipCargo {
+        /**
+         * Number of pieces of cargo on board
+         */
+        private final int count;
+
+        /**
+         * Type of the bulk cargo on board, or null if the ship was not carrying bulk cargo
+         */
+        private final BulkCargoType bulkCargoType;
+
+        /* Records the cargo currently on board the given ship */
+        private ShipCargo(Ship ship) {
+            if (ship instanceof BulkCarrier) {
+                BulkCargo cargo = ((BulkCarrier) ship).getCargo();
+                this.count = cargo == null ? 0 : 1;
+                this.bulkCargoType = cargo == null ? null : cargo.getType();
+            } else if (ship instanceof ContainerShip) {
+                this.count = ((ContainerShip) ship).getCargoView().size();
+                this.bulkCargoType = null;
+            } else {
+                this.count = 0;
+                this.bulkCargoType = null;
+            }
+        }
+
+        /**
+         * Returns the number of pieces of cargo that were on board the ship.
+         *
+         * @return number of containers on a container ship, or 1 if a bulk carrier was
+         * carrying cargo and 0 otherwise
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the type of the bulk cargo that was on board the ship.
+         *
+         * @return bulk cargo type, or null if the ship was not carrying bulk cargo
+         */
+        public BulkCargoType getBulkCargoType() {
+            return bulkCargoType;
+        }
+    }
+
+    /**
+     * Number of snapshots taken before this one by the same simulation
+     */
+    private final long sequence;
+
+    /**
+     * Port time at which the snapshot was taken
+     */
+    private final long time;
+
+    /**
+     * State of each of the port's quays, in the port's order
+     */
+    private final List<QuayState> quays;
+
+    /**
+     * Cargo on board each docked ship, by ship identity
+     */
+    private final Map<Ship, ShipCargo> dockedCargo;
+
+    /**
+     * Ship queue whose ships were recorded
+     */
+    private final ShipQueue shipQueue;
+
+    /**
+     * Change count of the ship queue when its ships were recorded (see
+     * {@link ShipQueue#getChangeCount()})
+     */
+    private final long queueChangeCount;
+
+    /**
+     * Ships waiting in the port's ship queue, in queue order
+     */
+    private final List<Ship> queuedShips;
+
+    /**
+     * Number of queued ships in each priority class, indexed by {@link QueuePriority#ordinal()}
+     */
+    private final int[] queuePriorityCounts;
+
+    /**
+     * Cargo on board each queued ship, by ship identity
+     */
+    private final Map<Ship, ShipCargo> queuedCargo;
+
+    /**
+     * Number of pieces of cargo stored at the port
+     */
+    private final int storedCargoCount;
+
+    /**
+     * Number of containers of each type stored at the port, indexed by
+     * {@link ContainerType#ordinal()}
+     */
+    private final int[] storedContainerCounts;
+
+    /**
+     * Number of pieces of bulk cargo stored at the port
+     */
+    private final int storedBulkCargoCount;
+
+    /**
+     * Evaluators whose counters were recorded, in the port's order
+     */
+    private final StatisticsEvaluator[] evaluators;
+
+    /**
+     * Version of each evaluator's statistics when its counters were recorded
+     */
+    private final long[] evaluatorVersions;
+
+    /**
+     * Counters of each evaluator, in the port's order
+     */
+    private final List<Map<String, Long>> evaluatorCounters;
+
+    /**
+     * Records the current state of the given port.
+     *
+     * @param port     port to take a snapshot of
+     * @param sequence number of snapshots previously taken by the same simulation
+     * @param previous previous snapshot taken by the same simulation, or null if this is the
+     *                 first
+     */
+    PortSnapshot(Port port, long sequence, PortSnapshot previous) {
+        this.sequence = sequence;
+        this.time = port.getTime();
+
+        List<Quay> portQuays = port.getQuaysView();
+        List<QuayState> quayStates = new ArrayList<>(portQuays.size());
+        boolean quaysChanged = previous == null || previous.quays.size() != portQuays.size();
+        for (int i = 0; i < portQuays.size(); i++) {
+            Quay quay = portQuays.get(i);
+            QuayState state = previous != null && i < previous.quays.size()
+                ? previous.quays.get(i) : null;
+            if (state == null || !state.isCurrent(quay)) {
+                state = new QuayState(quay);
+                quaysChanged = true;
+            }
+            quayStates.add(state);
+        }
+        if (quaysChanged) {
+            this.quays = Collections.unmodifiableList(quayStates);
+            this.dockedCargo = new IdentityHashMap<>();
+            for (QuayState quay : quays) {
+                if (!quay.isEmpty()) {
+                    dockedCargo.put(quay.getShip(), quay.shipCargo);
+                }
+            }
+        } else {
+            this.quays = previous.quays;
+            this.dockedCargo = previous.dockedCargo;
+        }
+
+        this.shipQueue = port.getShipQueue();
+        this.queueChangeCount = shipQueue.getChangeCount();
+        if (previous != null && previous.shipQueue == shipQueue
+            && previous.queueChangeCount == queueChangeCount) {
+            this.queuedShips = previous.queuedShips;
+            this.queuePriorityCounts = previous.queuePriorityCounts;
+            this.queuedCargo = previous.queuedCargo;
+        } else {
+            this.queuedShips = List.copyOf(shipQueue.getShipQueueView());
+            this.queuePriorityCounts = shipQueue.countByPriority();
+            this.queuedCargo = new IdentityHashMap<>();
+            for (Ship ship : queuedShips) {
+                queuedCargo.put(ship, new ShipCargo(ship));
+            }
+        }
+
+        this.storedCargoCount = port.getCargoView().size();
+        this.storedContainerCounts = new int[ContainerType.values().length];
+        for (ContainerType type : ContainerType.values()) {
+            storedContainerCounts[type.ordinal()] = port.getStoredContainerCount(type);
+        }
+        this.storedBulkCargoCount = port.getStoredBulkCargoCount();
+
+        List<StatisticsEvaluator> portEvaluators = port.getEvaluators();
+        this.evaluators = portEvaluators.toArray(new StatisticsEvaluator[0]);
+        this.evaluatorVersions = new long[evaluators.length];
+        List<Map<String, Long>> counters = new ArrayList<>(evaluators.length);
+        for (int i = 0; i < evaluators.length; i++) {
+            evaluatorVersions[i] = evaluators[i].getVersion();
+            if (previous != null && i < previous.evaluators.length
+                && previous.evaluators[i] == evaluators[i]
+                && previous.evaluatorVersions[i] == evaluatorVersions[i]) {
+                counters.add(previous.evaluatorCounters.get(i));
+            } else {
+                counters.add(Collections.unmodifiableMap(evaluators[i].getCounters()));
+            }
+        }
+        this.evaluatorCounters = Collections.unmodifiableList(counters);
+    }
+
+    /**
+     * Returns the number of snapshots taken before this one by the same simulation.
+     * <p>
+     * A snapshot with a greater sequence number reflects a later state of the port.
+     *
+     * @return sequence number of this snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the port time at which this snapshot was taken.
+     *
+     * @return time in minutes
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the state of each of the port's quays.
+     *
+     * @return unmodifiable list of quay states, in the port's order
+     */
+    public List<QuayState> getQuays() {
+        return quays;
+    }
+
+    /**
+     * Returns the ships that were waiting in the port's ship queue.
+     *
+     * @return unmodifiable list of queued ships, in queue order
+     */
+    public List<Ship> getQueuedShips() {
+        return queuedShips;
+    }
+
+    /**
+     * Returns the number of ships in the given priority class that were waiting in the port's
+     * ship queue.
+     * <p>
+     * This allows a view to summarise the part of a long queue it does not draw without
+     * classifying every queued ship itself.
+     *
+     * @param priority priority class to count
+     * @return number of queued ships in the priority class
+     */
+    public int getQueuedShipCount(QueuePriority priority) {
+        return queuePriorityCounts[priority.ordinal()];
+    }
+
+    /**
+     * Returns the cargo that was on board the given ship, if it was docked at one of the port's
+     * quays or waiting in the port's ship queue.
+     * <p>
+     * Views should describe the cargo on board a ship from this rather than from the ship
+     * itself, which may be changing on the thread running the simulation.
+     *
+     * @param ship ship to look up
+     * @return cargo on board the ship, or null if the ship was neither docked nor queued
+     */
+    public ShipCargo getShipCargo(Ship ship) {
+        ShipCargo cargo = dockedCargo.get(ship);
+        return cargo != null ? cargo : queuedCargo.get(ship);
+    }
+
+    /**
+     * Returns the number of pieces of cargo that were stored at the port.
+     *
+     * @return stored cargo count
+     */
+    public int getStoredCargoCount() {
+        return storedCargoCount;
+    }
+
+    /**
+     * Returns the number of containers of the given type that were stored at the port.
+     *
+     * @param type container type to count
+     * @return number of stored containers of the type
+     */
+    public int getStoredContainerCount(ContainerType type) {
+        return storedContainerCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the number of pieces of bulk cargo that were stored at the port.
+     *
+     * @return number of stored pieces of bulk cargo
+     */
+    public int getStoredBulkCargoCount() {
+        return storedBulkCargoCount;
+    }
+
+    /**
+     * Returns the counters of each of the port's evaluators, keyed by the simple class name of
+     * the evaluator, for example {@code ShipFlagEvaluator}.
+     * <p>
+     * If the port has several evaluators of the same class, only the counters of the first are
+     * included.
+     *
+     * @return unmodifiable map of evaluator names to their counters, in the port's order
+     * @see StatisticsEvaluator#getCounters()
+     */
+    public Map<String, Map<String, Long>> getEvaluatorCounters() {
+        Map<String, Map<String, Long>> byName = new LinkedHashMap<>();
+        for (int i = 0; i < evaluators.length; i++) {
+            byName.putIfAbsent(evaluators[i].getClass().getSimpleName(),
+                evaluatorCounters.get(i));
+        }
+        return Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * Returns the counters of the first of the port's evaluators of the given class.
+     *
+     * @param evaluatorClass class of the evaluator
+     * @return unmodifiable map of statistic names to their values, or an empty map if the port
+     * had no evaluator of the class
+     */
+    public Map<String, Long> getEvaluatorCounters(
+        Class<? extends StatisticsEvaluator> evaluatorClass) {
+        for (int i = 0; i < evaluators.length; i++) {
+            if (evaluators[i].getClass() == evaluatorClass) {
+                return evaluatorCounters.get(i);
+            }
+        }
+        return Collections.emptyMap();
+    }
+}
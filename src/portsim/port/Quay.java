@@ -1,11 +1,13 @@
 package portsim.port;
 
+import portsim.cargo.Cargo;
 import portsim.ship.Ship;
 import portsim.util.BadEncodingException;
 import portsim.util.Encodable;
 import portsim.util.NoSuchShipException;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Quay is a platform lying alongside or projecting into the water where
@@ -14,6 +16,11 @@ import java.util.Objects;
  * @ass1_partial
  */
 public abstract class Quay implements Encodable {
+    /**
+     * Handling rate of a quay that unloads a docked ship completely in a single cycle
+     */
+    public static final int UNLIMITED_RATE = 0;
+
     /**
      * The ID of the quay
      */
@@ -24,6 +31,22 @@ public abstract class Quay implements Encodable {
      */
     private Ship ship;
 
+    /**
+     * Called whenever a ship docks at or departs from this quay, or null if nothing is listening
+     */
+    private Runnable dockingListener;
+
+    /**
+     * Amount of cargo handled for the docked ship since it arrived, in the units of the quay's
+     * handling rate
+     */
+    private long progress;
+
+    /**
+     * Number of times a ship has docked at or departed from this quay, or had cargo unloaded
+     */
+    private long changes;
+
     /**
      * Creates a new Quay with the given ID, with no ship docked at the quay.
      *
@@ -58,6 +81,22 @@ public abstract class Quay implements Encodable {
      */
     public void shipArrives(Ship ship) {
         this.ship = ship;
+        this.progress = 0;
+        this.changes++;
+        if (dockingListener != null) {
+            dockingListener.run();
+        }
+    }
+
+    /**
+     * Sets the action to run whenever a ship docks at or departs from this quay, replacing any
+     * previous one. Used by the port that owns this quay to track which quays have cargo to
+     * unload and when the occupancy of its quays changes.
+     *
+     * @param listener action to run after a ship docks or departs, or null for none
+     */
+    void setDockingListener(Runnable listener) {
+        this.dockingListener = listener;
     }
 
     /**
@@ -70,6 +109,13 @@ public abstract class Quay implements Encodable {
     public Ship shipDeparts() {
         Ship current = this.ship;
         this.ship = null;
+        this.progress = 0;
+        if (current != null) {
+            this.changes++;
+            if (dockingListener != null) {
+                dockingListener.run();
+            }
+        }
         return current;
     }
 
@@ -83,6 +129,90 @@ public abstract class Quay implements Encodable {
         return this.ship == null;
     }
 
+    /**
+     * Returns the amount of cargo handled for the docked ship since it arrived, or 0 if no ship
+     * is docked.
+     * <p>
+     * Progress is counted in the same units as the quay's handling rate: containers for a
+     * {@link ContainerQuay} and tonnes for a {@link BulkQuay}. It is only tracked by quays with
+     * a limited handling rate, and is always 0 for a quay that unloads a docked ship in a single
+     * cycle.
+     *
+     * @return cargo handled for the docked ship
+     */
+    public long getProgress() {
+        return progress;
+    }
+
+    /**
+     * Adds the given amount to the cargo handled for the docked ship.
+     *
+     * @param amount amount of cargo handled, in the units of the quay's handling rate
+     */
+    protected void addProgress(long amount) {
+        this.progress += amount;
+    }
+
+    /**
+     * Records that cargo has been moved off the docked ship.
+     * <p>
+     * Subclasses call this from {@link #unload(Consumer)} whenever cargo is moved into the sink,
+     * so that snapshots of the port can tell when the docked ship's cargo has changed.
+     */
+    protected void markUnloaded() {
+        this.changes++;
+    }
+
+    /**
+     * Returns the number of times a ship has docked at or departed from this quay, or had cargo
+     * unloaded.
+     * <p>
+     * While the count stays the same, the ship docked at this quay and the cargo on board it
+     * have not changed.
+     *
+     * @return number of changes to the docked ship
+     * @see PortSnapshot
+     */
+    long getChangeCount() {
+        return changes;
+    }
+
+    /**
+     * Returns the handling rate and progress fields that end the encoded representation of a
+     * quay with the given handling rate.
+     * <p>
+     * Both fields are omitted if the quay unloads a docked ship in a single cycle, so such a
+     * quay is encoded exactly as a quay without a handling rate. Otherwise the progress is
+     * omitted if it is zero.
+     *
+     * @param handlingRate handling rate of the quay, or {@link #UNLIMITED_RATE}
+     * @return {@code :handlingRate:progress}, {@code :handlingRate} or the empty string
+     */
+    protected String encodeHandling(int handlingRate) {
+        if (handlingRate == UNLIMITED_RATE) {
+            return "";
+        }
+        return progress != 0 ? ":" + handlingRate + ":" + progress : ":" + handlingRate;
+    }
+
+    /**
+     * Carries out one unloading cycle, moving as much cargo from the docked ship into the given
+     * sink as the quay's handling rate allows.
+     * <p>
+     * If no ship is docked, or the docked ship has no cargo left onboard, nothing is unloaded.
+     *
+     * @param sink consumer to pass each unloaded piece of cargo to
+     * @return number of pieces of cargo moved into the sink
+     */
+    public abstract int unload(Consumer<? super Cargo> sink);
+
+    /**
+     * Returns true if a ship is docked at this quay and still has cargo onboard to unload.
+     *
+     * @return true if there is cargo left to unload at this quay
+     */
+    public abstract boolean hasCargoToUnload();
+
     /**
      * Returns the ship currently docked at the quay.
      *
@@ -212,6 +342,12 @@ public abstract class Quay implements Encodable {
      * </li>
      * <li>The quay capacity is not an integer (i.e. cannot be parsed by
      * {@link Integer#parseInt(String)}).</li>
+     * <li>The handling rate, if present, is not an integer (i.e. cannot be parsed by
+     * {@link Integer#parseInt(String)}).</li>
+     * <li>The progress, if present, is not a long (i.e. cannot be parsed by
+     * {@link Long#parseLong(String)}) or is less than zero (0).</li>
+     * <li>The progress is present but the ship is {@code None} or the handling rate is
+     * zero (0).</li>
      * <li>Any of the parsed values given to a subclass constructor causes an
      * {@link IllegalArgumentException}.</li>
      * </ul>
@@ -225,7 +361,7 @@ public abstract class Quay implements Encodable {
     public static Quay fromString(String string) throws BadEncodingException {
         String[] encodedQuay = string.split(":");
         Quay quay;
-        if (encodedQuay.length != 4) {
+        if (encodedQuay.length < 4 || encodedQuay.length > 6) {
             throw new BadEncodingException("Encoded quay is not of "
                 + "correct length");
         }
@@ -261,17 +397,46 @@ public abstract class Quay implements Encodable {
             throw new BadEncodingException("The quay's capacity/tonnage "
                 + "is not an integer");
         }
+        int handlingRate = UNLIMITED_RATE;
+        if (encodedQuay.length >= 5) {
+            try {
+                handlingRate = Integer.parseInt(encodedQuay[4]);
+            } catch (NumberFormatException e) {
+                throw new BadEncodingException("The quay's handling rate "
+                    + "is not an integer");
+            }
+        }
+        long progress = 0;
+        if (encodedQuay.length == 6) {
+            try {
+                progress = Long.parseLong(encodedQuay[5]);
+            } catch (NumberFormatException e) {
+                throw new BadEncodingException("The quay's progress is not a long");
+            }
+            if (progress < 0) {
+                throw new BadEncodingException("The quay's progress must be greater than "
+                    + "or equal to 0: " + progress);
+            }
+            if (toAdd == null) {
+                throw new BadEncodingException("A quay with no ship docked cannot have "
+                    + "progress: " + string);
+            }
+            if (handlingRate == UNLIMITED_RATE) {
+                throw new BadEncodingException("A quay with no handling rate cannot have "
+                    + "progress: " + string);
+            }
+        }
 
         if (encodedQuay[0].equals("ContainerQuay")) {
             try {
-                quay = new ContainerQuay(id, capacity);
+                quay = new ContainerQuay(id, capacity, handlingRate);
             } catch (IllegalArgumentException e) {
                 throw new BadEncodingException(e);
             }
 
         } else if (encodedQuay[0].equals("BulkQuay")) {
             try {
-                quay = new BulkQuay(id, capacity);
+                quay = new BulkQuay(id, capacity, handlingRate);
             } catch (IllegalArgumentException e) {
                 throw new BadEncodingException(e);
             }
@@ -281,6 +446,7 @@ public abstract class Quay implements Encodable {
         }
         // if toAdd is null there is no change.
         quay.shipArrives(toAdd);
+        quay.progress = progress;
         return quay;
     }
 
@@ -0,0 +1,52 @@
+package portsim.port;
+
+import portsim.ship.ContainerShip;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+
+/**
+ * The priority classes used by {@link ShipQueue#peek()} to choose which ship docks next.
+ * <p>
+ * Constants are declared from highest to lowest priority.
+ */
+public enum QueuePriority {
+    /**
+     * Ships carrying dangerous cargo (flying {@link NauticalFlag#BRAVO})
+     */
+    DANGEROUS,
+    /**
+     * Ships requiring medical assistance (flying {@link NauticalFlag#WHISKEY})
+     */
+    MEDICAL,
+    /**
+     * Ships ready to be docked (flying {@link NauticalFlag#HOTEL})
+     */
+    READY,
+    /**
+     * Container ships with no higher priority
+     */
+    CONTAINER,
+    /**
+     * All other ships
+     */
+    OTHER;
+
+    /**
+     * Returns the priority class the given ship falls into while waiting in a ship queue.
+     *
+     * @param ship ship to classify
+     * @return priority class of the ship
+     */
+    public static QueuePriority of(Ship ship) {
+        switch (ship.getFlag()) {
+            case BRAVO:
+                return DANGEROUS;
+            case WHISKEY:
+                return MEDICAL;
+            case HOTEL:
+                return READY;
+            default:
+                return ship instanceof ContainerShip ? CONTAINER : OTHER;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package portsim.port;
+
+import portsim.movement.Movement;
+import portsim.util.BadEncodingException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * A movement source that reads a time-sorted schedule of movements incrementally.
+ * <p>
+ * The schedule contains one encoded movement per line, in the format given by
+ * {@link portsim.movement.CargoMovement#encode()} or
+ * {@link portsim.movement.ShipMovement#encode()}, ordered by the time of the movement. Blank
+ * lines are ignored.
+ * <p>
+ * Only the time of the next line is read ahead. A line is fully decoded, including checking
+ * that the cargo or ship it refers to exists, when it comes within the lookahead horizon, so the
+ * memory used depends on the lookahead rather than the length of the schedule.
+ * <p>
+ * Lines that cannot be decoded, or whose movement the port does not accept (for example
+ * because the schedule is out of order and the movement is now in the past), are skipped and
+ * counted as rejected.
+ */
+public class ScheduledMovementReader implements MovementSource, Closeable {
+
+    /**
+     * Reader over the schedule
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Number of minutes ahead of the current time for which to supply movements
+     */
+    private final long lookahead;
+
+    /**
+     * Next line of the schedule that has not yet been supplied, or null if exhausted
+     */
+    private String nextLine;
+
+    /**
+     * Time of the movement on the next line
+     */
+    private long nextTime;
+
+    /**
+     * Number of lines read from the schedule so far
+     */
+    private long lineNumber;
+
+    /**
+     * Number of lines that were skipped because they were invalid or not accepted
+     */
+    private long rejected;
+
+    /**
+     * Reason the most recently skipped line was rejected, or null if none were
+     */
+    private String lastRejection;
+
+    /**
+     * Creates a reader over the given schedule that supplies movements up to the given number
+     * of minutes ahead of the current time.
+     *
+     * @param reader    reader from which to read the schedule
+     * @param lookahead number of minutes ahead of the current time for which to supply
+     *                  movements
+     * @throws IllegalArgumentException if lookahead &lt; 0
+     */
+    public ScheduledMovementReader(Reader reader, long lookahead)
+        throws IllegalArgumentException {
+        if (lookahead < 0) {
+            throw new IllegalArgumentException("Lookahead must be greater than or equal to 0");
+        }
+        this.reader = new BufferedReader(reader);
+        this.lookahead = lookahead;
+        this.rejected = 0;
+        advance();
+    }
+
+    /**
+     * Supplies each movement in the schedule due at or before {@code time + lookahead}.
+     *
+     * @param time current simulation time
+     * @param sink consumer to pass supplied movements to
+     * @throws UncheckedIOException if an IOException is encountered when reading the schedule
+     */
+    @Override
+    public void supply(long time, Consumer<Movement> sink) {
+        long horizon = time + lookahead;
+        while (nextLine != null && nextTime <= horizon) {
+            try {
+                sink.accept(Port.readMovement(nextLine));
+            } catch (BadEncodingException | IllegalArgumentException e) {
+                reject(e.getMessage());
+            }
+            advance();
+        }
+    }
+
+    /**
+     * Returns the time of the next line of the schedule that has not yet been supplied.
+     * <p>
+     * The line may still be rejected when it is supplied, so no movement need be processed at
+     * the returned time.
+     *
+     * @return time of the next line, or {@link Long#MAX_VALUE} if the schedule is exhausted
+     */
+    @Override
+    public long getNextTime() {
+        return nextLine == null ? Long.MAX_VALUE : nextTime;
+    }
+
+    /**
+     * Returns true if every line of the schedule has been read.
+     *
+     * @return true if the schedule is exhausted
+     */
+    @Override
+    public boolean isExhausted() {
+        return nextLine == null;
+    }
+
+    /**
+     * Returns the number of lines of the schedule that were skipped because they could not be
+     * decoded or were not accepted by the port.
+     *
+     * @return number of rejected lines
+     */
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Returns the reason the most recently skipped line was rejected.
+     *
+     * @return reason for the last rejection, or null if no lines have been rejected
+     */
+    public String getLastRejection() {
+        return lastRejection;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException if an IOException is encountered when closing the reader
+     */
+    @Override
+    public void close() throws IOException {
+        nextLine = null;
+        reader.close();
+    }
+
+    /*
+     * Reads ahead to the next non-blank line whose time can be parsed, recording lines whose time
+     * cannot be parsed as rejected.
+     */
+    private void advance() {
+        try {
+            while ((nextLine = reader.readLine()) != null) {
+                lineNumber++;
+                if (nextLine.isBlank()) {
+                    continue;
+                }
+                String[] parts = nextLine.split(":", 3);
+                if (parts.length < 3) {
+                    reject("Not a valid movement line: " + nextLine);
+                    continue;
+                }
+                try {
+                    nextTime = Long.parseLong(parts[1]);
+                    return;
+                } catch (NumberFormatException e) {
+                    reject("Movement time must be a long: " + parts[1]);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /* Records that the current line was rejected for the given reason */
+    private void reject(String reason) {
+        rejected++;
+        lastRejection = "Line " + lineNumber + ": " + reason;
+    }
+}
@@ -8,6 +8,7 @@ import portsim.util.Encodable;
 import portsim.util.NoSuchShipException;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
@@ -26,6 +27,16 @@ public class ShipQueue implements Encodable {
      */
     private List<Ship> ships;
 
+    /**
+     * Read-only view of the ships, created once and shared by all callers
+     */
+    private List<Ship> shipsView;
+
+    /**
+     * Number of times a ship has been added to or removed from the queue
+     */
+    private long changes;
+
     /**
      * Constructs a new ShipQueue with an initially empty queue of ships.
      *
@@ -33,6 +44,7 @@ public class ShipQueue implements Encodable {
      */
     public ShipQueue() {
         this.ships = new LinkedList<>();
+        this.shipsView = Collections.unmodifiableList(this.ships);
     }
 
     /**
@@ -46,7 +58,10 @@ public class ShipQueue implements Encodable {
      */
     public Ship poll() {
         Ship peeked = peek();
-        this.ships.remove(peeked);
+        if (peeked != null) {
+            this.ships.remove(peeked);
+            this.changes++;
+        }
         return peeked;
     }
 
@@ -110,6 +125,7 @@ public class ShipQueue implements Encodable {
      */
     public void add(Ship ship) {
         this.ships.add(ship);
+        this.changes++;
     }
 
     /**
@@ -127,6 +143,56 @@ public class ShipQueue implements Encodable {
         return new ArrayList<>(this.ships);
     }
 
+    /**
+     * Returns a read-only view of the ships currently stored in this ShipQueue, in the order in
+     * which they were added.
+     * <p>
+     * Unlike {@link #getShipQueue()}, no copy is made: the view always reflects the ships
+     * currently queued, and attempting to modify it throws an
+     * {@code UnsupportedOperationException}. The view should be iterated rather than indexed.
+     *
+     * @return read-only view of ships in queue
+     */
+    public List<Ship> getShipQueueView() {
+        return shipsView;
+    }
+
+    /**
+     * Returns the number of ships currently waiting in this ShipQueue.
+     *
+     * @return number of ships in queue
+     */
+    public int size() {
+        return this.ships.size();
+    }
+
+    /**
+     * Returns the number of times a ship has been added to or removed from this ShipQueue.
+     * <p>
+     * While the count stays the same, the ships in the queue and their order have not changed.
+     *
+     * @return number of changes to the queue
+     * @see PortSnapshot
+     */
+    long getChangeCount() {
+        return changes;
+    }
+
+    /**
+     * Returns how many ships in this ShipQueue fall into each priority class.
+     * <p>
+     * The returned array is indexed by {@link QueuePriority#ordinal()}.
+     *
+     * @return number of ships waiting in each priority class
+     */
+    public int[] countByPriority() {
+        int[] counts = new int[QueuePriority.values().length];
+        for (Ship ship : ships) {
+            counts[QueuePriority.of(ship).ordinal()]++;
+        }
+        return counts;
+    }
+
     /**
      * Returns true if and only if this ship queue is equal to the other given ship queue.
      * <p>
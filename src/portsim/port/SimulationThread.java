@@ -0,0 +1,505 @@
+package portsim.port;
+
+import portsim.movement.Movement;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * A thread that owns a port and advances it at a target speed, independently of any user
+ * interface.
+ * <p>
+ * Once the thread has started, the port must only be read or modified on this thread. Other
+ * threads change the port by passing commands to {@link #submit(Callable)} or
+ * {@link #execute(Runnable)}, which are run between ticks, and observe the port through the
+ * {@link PortSnapshot} returned by {@link #getSnapshot()}. The exception is
+ * {@link Port#submitMovement(Movement)}, which any thread may call directly; the movements it
+ * submits are added during the next tick, so not while the simulation is paused.
+ * <p>
+ * The simulation is paced from wall-clock time: the number of minutes owed is worked out from
+ * the time elapsed since the simulation was unpaused (or its speed changed), and the owed
+ * minutes are run in a batch of at most {@link #FRAME_BUDGET_NANOS} nanoseconds. One snapshot
+ * is published per batch, so a view sampling the snapshot each frame sees every change without
+ * the simulation paying for a snapshot per tick. If the port cannot keep up with the target
+ * speed for more than a second, the backlog is dropped rather than run in one long burst.
+ * <p>
+ * {@link #fastForwardToNextMovement()} runs the simulation as fast as possible through a quiet
+ * period, until the next scheduled movement is about to be processed. The time of that movement
+ * is looked up when fast-forwarding starts and again after any command is run, not on every
+ * tick.
+ * <p>
+ * The thread starts paused. If a tick throws an exception, the simulation is paused and the
+ * exception is available from {@link #getLastError()}. If a tick throws an error, the thread
+ * stops. Whenever the thread stops, every command already submitted is still run, and commands
+ * submitted afterwards are run on the calling thread, so no future is left incomplete.
+ */
+public class SimulationThread extends Thread {
+
+    /**
+     * Speed at which the simulation ticks as often as it can
+     */
+    public static final double AS_FAST_AS_POSSIBLE = Double.POSITIVE_INFINITY;
+
+    /**
+     * Longest time spent running ticks before commands are run and a snapshot is published, in
+     * nanoseconds
+     */
+    public static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+
+    /**
+     * Longest time to wait for a command while paused, in nanoseconds
+     */
+    private static final long IDLE_WAIT_NANOS = 100_000_000L;
+
+    /**
+     * Number of nanoseconds in a second
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Port advanced by this thread
+     */
+    private final Port port;
+
+    /**
+     * Commands waiting to be run on this thread
+     */
+    private final BlockingQueue<Runnable> commands;
+
+    /**
+     * Lock held while deciding whether to queue a command and while marking the thread as
+     * finished, so that no command is queued after the last commands have been run
+     */
+    private final Object commandLock = new Object();
+
+    /**
+     * Whether the thread has stopped accepting commands, guarded by {@link #commandLock}
+     */
+    private boolean finished;
+
+    /**
+     * Most recently published snapshot of the port
+     */
+    private final AtomicReference<PortSnapshot> snapshot;
+
+    /**
+     * Called on this thread with each new snapshot and the port it was taken from, or null
+     */
+    private final BiConsumer<PortSnapshot, Port> publishListener;
+
+    /**
+     * Target speed in simulated minutes per second
+     */
+    private volatile double speed;
+
+    /**
+     * Whether the simulation is paused
+     */
+    private volatile boolean paused;
+
+    /**
+     * Whether the simulation is running flat out until the next movement is due
+     */
+    private volatile boolean fastForwarding;
+
+    /**
+     * Time of the movement being fast-forwarded to, only used on this thread
+     */
+    private long fastForwardTarget;
+
+    /**
+     * Whether the thread should keep running
+     */
+    private volatile boolean running;
+
+    /**
+     * Exception thrown by the most recent failed tick, or null
+     */
+    private volatile RuntimeException lastError;
+
+    /**
+     * Whether the port has changed since the last snapshot was published, set by any thread
+     * that runs a command
+     */
+    private volatile boolean changed;
+
+    /**
+     * Number of snapshots published so far
+     */
+    private long published;
+
+    /**
+     * Number of ticks run so far
+     */
+    private long ticks;
+
+    /**
+     * Time from which owed minutes are counted, from {@link System#nanoTime()}
+     */
+    private long anchorNanos;
+
+    /**
+     * Number of ticks that had been run at {@link #anchorNanos}
+     */
+    private long anchorTicks;
+
+    /**
+     * Speed at which owed minutes are being counted, or NaN if they need to be counted afresh
+     */
+    private double anchorSpeed;
+
+    /**
+     * Creates a new paused simulation thread for the given port, running at one simulated
+     * minute per second once unpaused.
+     *
+     * @param port            port to advance
+     * @param publishListener action to run on this thread with each new snapshot and the port it
+     *                        was taken from, or null for none
+     */
+    public SimulationThread(Port port, BiConsumer<PortSnapshot, Port> publishListener) {
+        this.port = port;
+        this.publishListener = publishListener;
+        this.commands = new LinkedBlockingQueue<>();
+        this.snapshot = new AtomicReference<>(new PortSnapshot(port, 0, null));
+        this.published = 1;
+        this.speed = 1;
+        this.paused = true;
+        this.running = true;
+        this.anchorSpeed = Double.NaN;
+    }
+
+    /**
+     * Names the thread {@code portsim-simulation} and starts it as a daemon thread, so that it
+     * does not prevent the application from exiting.
+     *
+     * @throws IllegalThreadStateException if the thread has already been started
+     */
+    @Override
+    public synchronized void start() {
+        setName("portsim-simulation");
+        setDaemon(true);
+        super.start();
+    }
+
+    /**
+     * Returns the port advanced by this thread.
+     * <p>
+     * Once the thread has started, the port should only be accessed from commands passed to
+     * {@link #submit(Callable)} or {@link #execute(Runnable)}.
+     *
+     * @return port
+     */
+    public Port getPort() {
+        return port;
+    }
+
+    /**
+     * Returns the most recently published snapshot of the port.
+     *
+     * @return latest snapshot
+     */
+    public PortSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the target speed of the simulation.
+     *
+     * @return simulated minutes per second, or {@link #AS_FAST_AS_POSSIBLE}
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the target speed of the simulation.
+     *
+     * @param minutesPerSecond simulated minutes per second, or {@link #AS_FAST_AS_POSSIBLE}
+     * @throws IllegalArgumentException if minutesPerSecond &lt;= 0 or is NaN
+     */
+    public void setSpeed(double minutesPerSecond) throws IllegalArgumentException {
+        if (!(minutesPerSecond > 0)) {
+            throw new IllegalArgumentException("Speed must be greater than 0: "
+                + minutesPerSecond);
+        }
+        this.speed = minutesPerSecond;
+        wakeUp();
+    }
+
+    /**
+     * Returns whether the simulation is paused.
+     *
+     * @return true if paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Pauses or unpauses the simulation.
+     *
+     * @param paused true to pause the simulation, false to let it run
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        wakeUp();
+    }
+
+    /**
+     * Runs the simulation as fast as possible, whether or not it is paused, until the next
+     * scheduled movement is due to be processed on the following tick. The simulation then
+     * returns to its target speed, or stays paused if it was paused.
+     * <p>
+     * Movements still to be supplied by the port's movement sources are taken into account.
+     * Nothing happens if there are no scheduled movements or the next one is already due.
+     *
+     * @return future completed with true if fast-forwarding started, otherwise false
+     * @see Port#getNextMovementTime()
+     */
+    public CompletableFuture<Boolean> fastForwardToNextMovement() {
+        return submit(() -> {
+            fastForwardTarget = port.getNextMovementTime();
+            fastForwarding = fastForwardTarget != Long.MAX_VALUE && !isTargetDue();
+            return fastForwarding;
+        });
+    }
+
+    /**
+     * Returns whether the simulation is fast-forwarding to the next scheduled movement.
+     *
+     * @return true if fast-forwarding
+     */
+    public boolean isFastForwarding() {
+        return fastForwarding;
+    }
+
+    /**
+     * Returns the exception thrown by the most recent tick that failed.
+     *
+     * @return last tick exception, or null if no tick has failed
+     */
+    public RuntimeException getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Runs the given command on this thread between ticks.
+     * <p>
+     * If this thread is not running, the command is run immediately on the calling thread.
+     *
+     * @param command command to run with access to the port
+     * @param <T>     type of the command's result
+     * @return future completed with the command's result, or exceptionally with the exception
+     * or error it threw
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(command.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        boolean queued = false;
+        if (Thread.currentThread() != this) {
+            synchronized (commandLock) {
+                if (isAlive() && !finished) {
+                    commands.add(task);
+                    queued = true;
+                }
+            }
+        }
+        if (!queued) {
+            task.run();
+            changed = true;
+        }
+        return result;
+    }
+
+    /**
+     * Runs the given command on this thread between ticks.
+     *
+     * @param command command to run with access to the port
+     * @return future completed when the command has run
+     * @see #submit(Callable)
+     */
+    public CompletableFuture<Void> execute(Runnable command) {
+        return submit(() -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Stops the thread after the current tick or command.
+     */
+    public void shutdown() {
+        running = false;
+        interrupt();
+    }
+
+    /**
+     * Advances the port at the target speed while unpaused, running submitted commands and
+     * publishing a snapshot between batches of ticks, until {@link #shutdown()} is called or a
+     * tick throws an error.
+     */
+    @Override
+    public void run() {
+        try {
+            loop();
+        } finally {
+            synchronized (commandLock) {
+                finished = true;
+            }
+            // no more commands can be queued, so run those left rather than stranding them
+            runCommands();
+        }
+        publishIfChanged();
+    }
+
+    /* Runs batches of ticks and commands until the thread is shut down */
+    private void loop() {
+        try {
+            while (running) {
+                runCommands();
+                long now = System.nanoTime();
+                if (paused && !fastForwarding) {
+                    publishIfChanged();
+                    anchorSpeed = Double.NaN;
+                    waitForCommand(IDLE_WAIT_NANOS);
+                    continue;
+                }
+                double currentSpeed = speed;
+                if (currentSpeed != anchorSpeed) {
+                    anchor(now, currentSpeed);
+                }
+                boolean flatOut = fastForwarding || currentSpeed == AS_FAST_AS_POSSIBLE;
+                long owed = flatOut ? Long.MAX_VALUE : owedMinutes(now);
+                if (owed <= 0) {
+                    publishIfChanged();
+                    waitForCommand(nanosUntilOwed(now));
+                    continue;
+                }
+                runBatch(owed, now + FRAME_BUDGET_NANOS);
+                now = System.nanoTime();
+                if (!flatOut && owedMinutes(now) > currentSpeed) {
+                    // more than a second behind; drop the backlog rather than running it all
+                    // in one long burst
+                    anchor(now, currentSpeed);
+                }
+                publishIfChanged();
+            }
+        } catch (InterruptedException e) {
+            // shutting down
+        }
+    }
+
+    /* Runs up to the given number of ticks, stopping early once the deadline has passed */
+    private void runBatch(long owed, long deadline) {
+        for (long i = 0; i < owed && running; i++) {
+            if (fastForwarding && isTargetDue()) {
+                fastForwarding = false;
+                anchorSpeed = Double.NaN;
+                return;
+            }
+            tick();
+            if ((paused && !fastForwarding) || System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+    }
+
+    /*
+     * Advances the port one minute, pausing the simulation if the tick throws an exception.
+     * Errors are not caught, and stop the thread.
+     */
+    private void tick() {
+        try {
+            port.elapseOneMinute();
+        } catch (RuntimeException e) {
+            lastError = e;
+            paused = true;
+            fastForwarding = false;
+        }
+        ticks++;
+        changed = true;
+    }
+
+    /* Starts counting owed minutes afresh from the given time at the given speed */
+    private void anchor(long now, double currentSpeed) {
+        anchorNanos = now;
+        anchorTicks = ticks;
+        anchorSpeed = currentSpeed;
+    }
+
+    /* Returns the number of minutes owed at the given time that have not yet been run */
+    private long owedMinutes(long now) {
+        long due = (long) ((now - anchorNanos) / NANOS_PER_SECOND * anchorSpeed);
+        return due - (ticks - anchorTicks);
+    }
+
+    /* Returns the time from the given time until another minute is owed, in nanoseconds */
+    private long nanosUntilOwed(long now) {
+        double dueAt = anchorNanos + (ticks - anchorTicks + 1) * NANOS_PER_SECOND / anchorSpeed;
+        return Math.max((long) Math.ceil(dueAt - now), 1);
+    }
+
+    /* Returns true if the movement being fast-forwarded to is due on the next tick */
+    private boolean isTargetDue() {
+        return fastForwardTarget <= port.getTime() + 1;
+    }
+
+    /*
+     * Runs every command that is waiting. A command may have scheduled an earlier movement, so
+     * the movement being fast-forwarded to is looked up again afterwards
+     */
+    private void runCommands() {
+        Runnable command;
+        boolean ran = false;
+        while ((command = commands.poll()) != null) {
+            command.run();
+            ran = true;
+        }
+        if (ran) {
+            changed = true;
+            if (fastForwarding) {
+                fastForwardTarget = port.getNextMovementTime();
+            }
+        }
+    }
+
+    /* Waits up to the given time for a command to arrive, running it if one does */
+    private void waitForCommand(long nanos) throws InterruptedException {
+        Runnable command = commands.poll(nanos, TimeUnit.NANOSECONDS);
+        if (command != null) {
+            command.run();
+            changed = true;
+        }
+    }
+
+    /* Publishes a snapshot if the port has changed since the last one */
+    private void publishIfChanged() {
+        if (!changed) {
+            return;
+        }
+        PortSnapshot latest = new PortSnapshot(port, published++, snapshot.get());
+        if (publishListener != null) {
+            publishListener.accept(latest, port);
+        }
+        snapshot.set(latest);
+        changed = false;
+    }
+
+    /* Wakes the thread if it is waiting, so that a change of state takes effect immediately */
+    private void wakeUp() {
+        if (isAlive() && Thread.currentThread() != this) {
+            commands.add(() -> { });
+        }
+    }
+}
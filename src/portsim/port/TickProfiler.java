@@ -0,0 +1,252 @@
+package portsim.port;
+
+import portsim.evaluators.StatisticsEvaluator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Accumulates timings for each phase of {@link Port#elapseOneMinute()} and for each
+ * statistics evaluator class.
+ * <p>
+ * A port only measures its phases while a profiler is attached via
+ * {@link Port#setProfiler(TickProfiler)}. When no profiler is attached the port performs no
+ * timing at all.
+ * <p>
+ * Timings are stored in fixed-size counters (run count, total, maximum and a power-of-two
+ * histogram) so recording a sample never allocates.
+ */
+public class TickProfiler {
+
+    /**
+     * The phases of a port tick that are measured
+     */
+    public enum Phase {
+        /**
+         * Bringing a ship from the ship queue into a quay (every 10 minutes)
+         */
+        SHIP_QUEUE,
+        /**
+         * Unloading cargo from docked ships into the warehouses (every 5 minutes)
+         */
+        QUAY_UNLOADING,
+        /**
+         * Processing the movements due in the current minute
+         */
+        MOVEMENTS,
+        /**
+         * Ticking the statistics evaluators
+         */
+        EVALUATORS
+    }
+
+    /**
+     * Number of histogram buckets, one per power of two of nanoseconds
+     */
+    private static final int NUM_BUCKETS = 64;
+
+    /**
+     * Number of nanoseconds in a microsecond, used when formatting the summary
+     */
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    /**
+     * Counters for each phase, indexed by {@link Phase#ordinal()}
+     */
+    private final Counters[] phases;
+
+    /**
+     * Counters for each evaluator class, in the order the classes were first seen
+     */
+    private final Map<Class<? extends StatisticsEvaluator>, Counters> evaluators;
+
+    /**
+     * Counters for a single phase or evaluator
+     */
+    private static class Counters {
+        /**
+         * Number of samples recorded
+         */
+        private long runs;
+        /**
+         * Number of events (ships docked, movements processed, ...) handled across all samples
+         */
+        private long events;
+        /**
+         * Sum of all sample durations, in nanoseconds
+         */
+        private long totalNanos;
+        /**
+         * Longest sample duration, in nanoseconds
+         */
+        private long maxNanos;
+        /**
+         * Histogram of sample durations, bucket i counts durations in [2^i, 2^(i+1))
+         */
+        private final long[] buckets = new long[NUM_BUCKETS];
+
+        /* Records a single sample */
+        private void record(long nanos, int eventCount) {
+            runs++;
+            events += eventCount;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+            buckets[nanos <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(nanos)]++;
+        }
+
+        /* Returns the mean sample duration in nanoseconds, or 0 if there are no samples */
+        private long mean() {
+            return runs == 0 ? 0 : totalNanos / runs;
+        }
+
+        /*
+         * Returns an upper bound for the given percentile of sample durations. The bound is the
+         * top of the histogram bucket containing the percentile, capped at the maximum seen.
+         */
+        private long percentile(double fraction) {
+            long target = (long) Math.ceil(fraction * runs);
+            long seen = 0;
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= target && seen > 0) {
+                    long upper = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                    return Math.min(upper, maxNanos);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Creates a new profiler with no samples recorded.
+     */
+    public TickProfiler() {
+        this.phases = new Counters[Phase.values().length];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Counters();
+        }
+        this.evaluators = new LinkedHashMap<>();
+    }
+
+    /**
+     * Records one run of the given phase.
+     *
+     * @param phase  phase that was run
+     * @param nanos  time taken by the phase, in nanoseconds
+     * @param events number of events handled during the phase
+     */
+    public void record(Phase phase, long nanos, int events) {
+        phases[phase.ordinal()].record(nanos, events);
+    }
+
+    /**
+     * Records the time spent inside a callback of the given evaluator.
+     *
+     * @param evaluator evaluator that was called
+     * @param nanos     time taken by the callback, in nanoseconds
+     */
+    public void recordEvaluator(StatisticsEvaluator evaluator, long nanos) {
+        evaluators.computeIfAbsent(evaluator.getClass(), type -> new Counters())
+            .record(nanos, 1);
+    }
+
+    /**
+     * Returns the number of times the given phase has been recorded.
+     *
+     * @param phase phase to query
+     * @return number of runs
+     */
+    public long getRuns(Phase phase) {
+        return phases[phase.ordinal()].runs;
+    }
+
+    /**
+     * Returns the total number of events handled by the given phase.
+     *
+     * @param phase phase to query
+     * @return number of events
+     */
+    public long getEvents(Phase phase) {
+        return phases[phase.ordinal()].events;
+    }
+
+    /**
+     * Returns the mean duration of the given phase.
+     *
+     * @param phase phase to query
+     * @return mean duration in nanoseconds, or 0 if the phase has not been recorded
+     */
+    public long getMeanNanos(Phase phase) {
+        return phases[phase.ordinal()].mean();
+    }
+
+    /**
+     * Returns the longest duration of the given phase.
+     *
+     * @param phase phase to query
+     * @return maximum duration in nanoseconds
+     */
+    public long getMaxNanos(Phase phase) {
+        return phases[phase.ordinal()].maxNanos;
+    }
+
+    /**
+     * Returns the 99th percentile duration of the given phase.
+     * <p>
+     * The value is an upper bound accurate to within a factor of two, as durations are kept in
+     * a power-of-two histogram.
+     *
+     * @param phase phase to query
+     * @return 99th percentile duration in nanoseconds
+     */
+    public long getP99Nanos(Phase phase) {
+        return phases[phase.ordinal()].percentile(0.99);
+    }
+
+    /**
+     * Discards all recorded samples.
+     */
+    public void reset() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Counters();
+        }
+        evaluators.clear();
+    }
+
+    /**
+     * Returns a human-readable table of the recorded timings.
+     * <p>
+     * There is one row for each phase followed by one row for each evaluator class. Each row
+     * shows the number of runs, the number of events handled, and the mean, maximum and 99th
+     * percentile durations in microseconds.
+     *
+     * @return profile summary
+     */
+    public String summary() {
+        StringJoiner lines = new StringJoiner(System.lineSeparator());
+        lines.add(String.format("%-28s %10s %10s %10s %10s %10s",
+            "Phase", "runs", "events", "mean(us)", "max(us)", "p99(us)"));
+        for (Phase phase : Phase.values()) {
+            lines.add(formatRow(phase.name(), phases[phase.ordinal()]));
+        }
+        for (Map.Entry<Class<? extends StatisticsEvaluator>, Counters> entry
+            : evaluators.entrySet()) {
+            lines.add(formatRow("  " + entry.getKey().getSimpleName(), entry.getValue()));
+        }
+        return lines.toString();
+    }
+
+    /* Formats a single row of the summary table */
+    private static String formatRow(String name, Counters counters) {
+        return String.format("%-28s %10d %10d %10.1f %10.1f %10.1f",
+            name,
+            counters.runs,
+            counters.events,
+            counters.mean() / NANOS_PER_MICRO,
+            counters.maxNanos / NANOS_PER_MICRO,
+            counters.percentile(0.99) / NANOS_PER_MICRO);
+    }
+}
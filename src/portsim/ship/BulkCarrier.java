@@ -7,6 +7,7 @@ import portsim.port.Quay;
 import portsim.util.NoSuchCargoException;
 
 import java.util.Objects;
+import java.util.function.Consumer;
 
 
 /**
@@ -100,7 +101,7 @@ public class BulkCarrier extends Ship {
         if (((BulkCargo) cargo).getTonnage() > tonnageCapacity) {
             return false;
         }
-        return cargo.getDestination().equals(this.getOriginFlag());
+        return cargo.getDestinationCode() == this.getOriginFlagCode();
     }
 
     /**
@@ -133,6 +134,25 @@ public class BulkCarrier extends Ship {
         return unload;
     }
 
+    /**
+     * Unloads the cargo from the ship, passing it to the given sink.
+     * <p>
+     * Unlike {@link #unloadCargo()}, unloading a ship with no cargo onboard is not an error. The
+     * ship's current cargo is {@code null} afterwards.
+     *
+     * @param sink consumer to pass the unloaded cargo to
+     * @return number of pieces of cargo unloaded (0 or 1)
+     */
+    public int unloadInto(Consumer<? super BulkCargo> sink) {
+        if (cargo == null) {
+            return 0;
+        }
+        BulkCargo unload = cargo;
+        cargo = null;
+        sink.accept(unload);
+        return 1;
+    }
+
     /**
      * Returns the current cargo onboard this vessel.
      *
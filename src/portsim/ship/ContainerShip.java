@@ -7,9 +7,11 @@ import portsim.port.ContainerQuay;
 import portsim.port.Quay;
 import portsim.util.NoSuchCargoException;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -24,10 +26,22 @@ public class ContainerShip extends Ship {
     private int containerCapacity;
 
     /**
-     * The containers currently on the ship
+     * The containers currently on the ship, in the order they were loaded, preceded by
+     * {@link #unloaded} containers that have already been unloaded
      */
     private List<Container> containers;
 
+    /**
+     * Number of containers at the start of {@link #containers} that have been unloaded but not
+     * yet removed from the list
+     */
+    private int unloaded;
+
+    /**
+     * Read-only view of the containers, created once and shared by all callers
+     */
+    private List<Container> containersView;
+
     /**
      * Creates a new container ship with the given IMO number, name and origin
      * port, nautical flag and cargo capacity.
@@ -51,6 +65,21 @@ public class ContainerShip extends Ship {
         }
         this.containerCapacity = capacity;
         this.containers = new ArrayList<>();
+        this.unloaded = 0;
+        this.containersView = new AbstractList<>() {
+            @Override
+            public Container get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index);
+                }
+                return containers.get(unloaded + index);
+            }
+
+            @Override
+            public int size() {
+                return containers.size() - unloaded;
+            }
+        };
     }
 
     /**
@@ -72,7 +101,7 @@ public class ContainerShip extends Ship {
         if (quay instanceof ContainerQuay) {
             ContainerQuay containerQuay = (ContainerQuay) quay;
             // check if quay can handle ship cargo
-            return containerQuay.getMaxContainers() >= this.containers.size();
+            return containerQuay.getMaxContainers() >= containersView.size();
         }
         return false;
     }
@@ -97,10 +126,10 @@ public class ContainerShip extends Ship {
         if (!(cargo instanceof Container)) {
             return false;
         }
-        if (this.containers.size() == containerCapacity) {
+        if (containersView.size() == containerCapacity) {
             return false;
         }
-        return cargo.getDestination().equals(this.getOriginFlag());
+        return cargo.getDestinationCode() == this.getOriginFlagCode();
     }
 
     /**
@@ -126,14 +155,72 @@ public class ContainerShip extends Ship {
      * @ass1
      */
     public List<Container> unloadCargo() throws NoSuchCargoException {
-        if (containers.size() == 0) {
+        if (containersView.isEmpty()) {
             throw new NoSuchCargoException("Cargo has already been unloaded");
         }
-        List<Container> unload = new ArrayList<>(containers);
-        containers = new ArrayList<>();
+        List<Container> unload = new ArrayList<>(containersView);
+        containers.clear();
+        unloaded = 0;
         return unload;
     }
 
+    /**
+     * Unloads the cargo from the ship, passing each container to the given sink in the order it
+     * was loaded.
+     * <p>
+     * Unlike {@link #unloadCargo()}, no intermediate list is created and unloading a ship with
+     * no cargo onboard is not an error. The ship's cargo is empty afterwards.
+     *
+     * @param sink consumer to pass each unloaded container to
+     * @return number of containers unloaded
+     */
+    public int unloadInto(Consumer<? super Container> sink) {
+        int count = containersView.size();
+        for (Container container : containersView) {
+            sink.accept(container);
+        }
+        containers.clear();
+        unloaded = 0;
+        return count;
+    }
+
+    /**
+     * Unloads up to the given number of containers from the ship, passing each container to the
+     * given sink in the order it was loaded.
+     * <p>
+     * The containers unloaded are those loaded first; any remaining containers stay onboard.
+     * Unloading takes time proportional to the number of containers unloaded, not the number
+     * remaining, so a large ship can be unloaded a few containers at a time in linear time
+     * overall.
+     *
+     * @param sink  consumer to pass each unloaded container to
+     * @param limit maximum number of containers to unload
+     * @return number of containers unloaded
+     * @throws IllegalArgumentException if limit &lt; 0
+     */
+    public int unloadInto(Consumer<? super Container> sink, int limit)
+        throws IllegalArgumentException {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must be greater than or equal to 0: "
+                + limit);
+        }
+        int count = Math.min(limit, containersView.size());
+        for (int i = 0; i < count; i++) {
+            sink.accept(containers.get(unloaded));
+            containers.set(unloaded++, null);
+        }
+        if (unloaded == containers.size()) {
+            containers.clear();
+            unloaded = 0;
+        } else if (unloaded > containers.size() / 2) {
+            // drop the unloaded prefix once it outweighs the containers left, so each container
+            // is shifted at most once on average
+            containers.subList(0, unloaded).clear();
+            unloaded = 0;
+        }
+        return count;
+    }
+
     /**
      * Returns the current cargo onboard this vessel.
      * <p>
@@ -143,7 +230,20 @@ public class ContainerShip extends Ship {
      * @ass1
      */
     public List<Container> getCargo() {
-        return new ArrayList<>(containers);
+        return new ArrayList<>(containersView);
+    }
+
+    /**
+     * Returns a read-only view of the cargo onboard this vessel.
+     * <p>
+     * Unlike {@link #getCargo()}, no copy is made: the view always reflects the containers
+     * currently onboard, and attempting to modify it throws an
+     * {@code UnsupportedOperationException}.
+     *
+     * @return read-only view of containers on the vessel
+     */
+    public List<Container> getCargoView() {
+        return containersView;
     }
 
     /**
@@ -215,7 +315,7 @@ public class ContainerShip extends Ship {
     public String toString() {
         return String.format("%s carrying %d containers",
             super.toString(),
-            this.containers.size());
+            containersView.size());
     }
 
     /**
@@ -251,10 +351,10 @@ public class ContainerShip extends Ship {
         String encoded = String.format("%s:%d:%d:",
             super.encode(),
             this.containerCapacity,
-            this.containers.size());
+            containersView.size());
 
-        return this.containers.size() != 0
-            ? encoded + this.containers.stream().map(Cargo::getId)
+        return !containersView.isEmpty()
+            ? encoded + containersView.stream().map(Cargo::getId)
                 .map(Object::toString).collect(Collectors.joining(",")) : encoded;
 
     }
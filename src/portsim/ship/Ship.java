@@ -6,6 +6,7 @@ import portsim.util.BadEncodingException;
 import portsim.util.Encodable;
 import portsim.util.NoSuchCargoException;
 import portsim.util.NoSuchShipException;
+import portsim.util.PlaceCode;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -34,6 +35,11 @@ public abstract class Ship implements Encodable {
      */
     private String originFlag;
 
+    /**
+     * Code of this ship's port of origin in the {@link PlaceCode} table
+     */
+    private int originFlagCode;
+
     /**
      * Maritime flag designated for use on this ship
      */
@@ -77,7 +83,8 @@ public abstract class Ship implements Encodable {
         }
         this.imoNumber = imoNumber;
         this.name = name;
-        this.originFlag = originFlag;
+        this.originFlagCode = PlaceCode.intern(originFlag);
+        this.originFlag = PlaceCode.nameOf(originFlagCode);
         this.flag = flag;
         shipRegistry.put(imoNumber, this);
     }
@@ -169,6 +176,18 @@ public abstract class Ship implements Encodable {
         return this.originFlag;
     }
 
+    /**
+     * Returns the code of this ship's port of origin.
+     * <p>
+     * The code can be compared directly with {@link Cargo#getDestinationCode()} to check whether
+     * cargo is bound for this ship's port of origin (see {@link PlaceCode}).
+     *
+     * @return originFlag code
+     */
+    public int getOriginFlagCode() {
+        return this.originFlagCode;
+    }
+
     /**
      * Returns the nautical flag the ship is flying.
      *
@@ -218,7 +237,7 @@ public abstract class Ship implements Encodable {
         Ship other = (Ship) o;
 
         if (!other.name.equals(this.name) || !other.flag.equals(this.flag)
-            || !other.originFlag.equals(this.originFlag)) {
+            || other.originFlagCode != this.originFlagCode) {
             return false;
         }
 
@@ -237,7 +256,7 @@ public abstract class Ship implements Encodable {
     @Override
     public int hashCode() {
         return Objects.hash(this.name, this.imoNumber, this.flag,
-            this.originFlag);
+            this.originFlagCode);
     }
 
     /**
@@ -0,0 +1,87 @@
+package portsim.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table of the place names used in the simulation (cargo destinations and ship origin
+ * flags), each assigned a small integer code.
+ * <p>
+ * Every distinct name is given a code the first time it is interned, and the same name always
+ * maps to the same code, so two place names are equal if and only if their codes are equal.
+ * This allows places to be compared with a single integer comparison rather than by comparing
+ * strings.
+ * <p>
+ * Codes are never reused or removed for the lifetime of the simulation.
+ */
+public final class PlaceCode {
+
+    /**
+     * Code given to a {@code null} place name
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Codes of the place names interned so far
+     */
+    private static final Map<String, Integer> codes = new HashMap<>();
+
+    /**
+     * Place names interned so far, indexed by code
+     */
+    private static final List<String> names = new ArrayList<>();
+
+    /* Not instantiable */
+    private PlaceCode() {
+    }
+
+    /**
+     * Returns the code of the given place name, assigning it the next unused code if it has not
+     * been interned before.
+     *
+     * @param name place name to intern
+     * @return code of the place name, or {@link #NONE} if the name is null
+     */
+    public static synchronized int intern(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer code = codes.get(name);
+        if (code == null) {
+            code = names.size();
+            codes.put(name, code);
+            names.add(name);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the place name with the given code.
+     * <p>
+     * The same String instance is returned for every call with the same code.
+     *
+     * @param code code of the place name
+     * @return place name, or null if the code is {@link #NONE}
+     * @throws IllegalArgumentException if no place name has been given the code
+     */
+    public static synchronized String nameOf(int code) throws IllegalArgumentException {
+        if (code == NONE) {
+            return null;
+        }
+        if (code < 0 || code >= names.size()) {
+            throw new IllegalArgumentException("No place name has the code: " + code);
+        }
+        return names.get(code);
+    }
+
+    /**
+     * Returns the number of distinct place names interned so far.
+     *
+     * @return number of place names in the table
+     */
+    public static synchronized int size() {
+        return names.size();
+    }
+}
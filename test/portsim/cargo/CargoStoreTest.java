@@ -0,0 +1,212 @@
+package portsim.cargo;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.util.NoSuchCargoException;
+import portsim.util.PlaceCode;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CargoStoreTest {
+
+    private CargoStore store;
+
+    @Before
+    public void setUp() {
+        Cargo.resetCargoRegistry();
+        store = new CargoStore(2);
+    }
+
+    @Test
+    public void rowsHoldEachColumn() {
+        assertEquals(0, store.add(new Container(7, "Sydney", ContainerType.REEFER)));
+        assertEquals(1, store.add(new BulkCargo(8, "Perth", 250, BulkCargoType.OIL)));
+
+        assertEquals(7, store.getId(0));
+        assertEquals("Sydney", store.getDestination(0));
+        assertEquals(PlaceCode.intern("Sydney"), store.getDestinationCode(0));
+        assertTrue(store.isContainer(0));
+        assertEquals(0, store.getTonnage(0));
+        assertEquals(ContainerType.REEFER, store.getContainerType(0));
+        assertNull(store.getBulkCargoType(0));
+
+        assertEquals(8, store.getId(1));
+        assertEquals("Perth", store.getDestination(1));
+        assertFalse(store.isContainer(1));
+        assertEquals(250, store.getTonnage(1));
+        assertEquals(BulkCargoType.OIL, store.getBulkCargoType(1));
+        assertNull(store.getContainerType(1));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.addContainer(i, "Port " + (i % 10), ContainerType.STANDARD));
+        }
+        assertEquals(1000, store.getRowCount());
+        assertEquals(1000, store.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, store.getId(i));
+            assertEquals("Port " + (i % 10), store.getDestination(i));
+        }
+        assertEquals(100, store.countByDestination(PlaceCode.intern("Port 3")));
+    }
+
+    @Test
+    public void emptyStoreCanGrow() {
+        CargoStore empty = new CargoStore(0);
+        assertEquals(0, empty.addBulkCargo(1, "Perth", 10, BulkCargoType.GRAIN));
+        assertEquals(1, empty.size());
+    }
+
+    @Test
+    public void invalidArgumentsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CargoStore(-1));
+        assertThrows(IllegalArgumentException.class,
+            () -> store.addContainer(-1, "Sydney", ContainerType.STANDARD));
+        assertThrows(IllegalArgumentException.class,
+            () -> store.addBulkCargo(1, "Sydney", -1, BulkCargoType.OIL));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.getId(0));
+    }
+
+    @Test
+    public void removedRowsKeepIndicesUntilCompacted() {
+        for (int i = 0; i < 5; i++) {
+            store.addContainer(i, "Sydney", ContainerType.STANDARD);
+        }
+        store.remove(1);
+        store.remove(3);
+        store.remove(3);
+
+        assertTrue(store.isRemoved(1));
+        assertFalse(store.isRemoved(2));
+        assertFalse(store.isContainer(1));
+        assertEquals(5, store.getRowCount());
+        assertEquals(3, store.size());
+        assertEquals(2, store.getId(2));
+        assertEquals(2, store.findLoadable(PlaceCode.intern("Sydney"), true, 0, 1));
+        assertEquals(3, store.countByDestination(PlaceCode.intern("Sydney")));
+        assertThrows(NoSuchCargoException.class, () -> store.get(1));
+
+        store.compact();
+        assertEquals(3, store.getRowCount());
+        assertEquals(3, store.size());
+        assertEquals(0, store.getId(0));
+        assertEquals(2, store.getId(1));
+        assertEquals(4, store.getId(2));
+    }
+
+    @Test
+    public void findLoadableMatchesDestinationKindAndTonnage() {
+        int sydney = PlaceCode.intern("Sydney");
+        store.addBulkCargo(0, "Sydney", 500, BulkCargoType.COAL);
+        store.addContainer(1, "Perth", ContainerType.STANDARD);
+        store.addBulkCargo(2, "Sydney", 100, BulkCargoType.COAL);
+        store.addContainer(3, "Sydney", ContainerType.OTHER);
+
+        assertEquals(3, store.findLoadable(sydney, true, 0, 0));
+        assertEquals(0, store.findLoadable(sydney, false, 500, 0));
+        assertEquals(2, store.findLoadable(sydney, false, 499, 0));
+        assertEquals(2, store.findLoadable(sydney, false, 500, 1));
+        assertEquals(-1, store.findLoadable(sydney, false, 99, 0));
+        assertEquals(-1, store.findLoadable(sydney, true, 0, 4));
+        assertEquals(-1, store.findLoadable(PlaceCode.intern("Darwin"), true, 0, 0));
+    }
+
+    @Test
+    public void countsByType() {
+        store.addContainer(0, "Sydney", ContainerType.STANDARD);
+        store.addContainer(1, "Sydney", ContainerType.STANDARD);
+        store.addContainer(2, "Sydney", ContainerType.REEFER);
+        store.addBulkCargo(3, "Perth", 100, BulkCargoType.OIL);
+        store.addBulkCargo(4, "Perth", 50, BulkCargoType.OIL);
+        store.addBulkCargo(5, "Perth", 25, BulkCargoType.GRAIN);
+        store.remove(0);
+        store.remove(5);
+
+        Map<ContainerType, Integer> containers = store.countContainerTypes();
+        assertEquals(2, containers.size());
+        assertEquals(Integer.valueOf(1), containers.get(ContainerType.STANDARD));
+        assertEquals(Integer.valueOf(1), containers.get(ContainerType.REEFER));
+        Map<BulkCargoType, Integer> bulk = store.countBulkCargoTypes();
+        assertEquals(1, bulk.size());
+        assertEquals(Integer.valueOf(2), bulk.get(BulkCargoType.OIL));
+        assertEquals(150, store.getTotalTonnage());
+    }
+
+    @Test
+    public void getUsesRegistryOrCreatesUnregisteredCargo() throws NoSuchCargoException {
+        Container registered = new Container(1, "Sydney", ContainerType.STANDARD);
+        store.add(registered);
+        store.addBulkCargo(2, "Perth", 40, BulkCargoType.MINERALS);
+
+        assertSame(registered, store.get(0));
+        Cargo created = store.get(1);
+        assertTrue(created instanceof BulkCargo);
+        assertEquals(2, created.getId());
+        assertEquals("Perth", created.getDestination());
+        assertEquals(40, ((BulkCargo) created).getTonnage());
+        assertEquals(BulkCargoType.MINERALS, ((BulkCargo) created).getType());
+        assertFalse(Cargo.cargoExists(2));
+        assertEquals(2, Cargo.nextUnusedId());
+        assertEquals(created, store.get(1));
+        assertNotSame(created, store.get(1));
+    }
+
+    @Test
+    public void rowsFoundAndRemovedById() {
+        for (int i = 0; i < 1000; i++) {
+            store.addContainer(i, "Sydney", ContainerType.STANDARD);
+        }
+        store.addContainer(500, "Sydney", ContainerType.REEFER);
+
+        assertEquals(500, store.findRow(500));
+        assertEquals(-1, store.findRow(1000));
+        assertEquals(2, store.removeById(500));
+        assertEquals(-1, store.findRow(500));
+        assertEquals(0, store.removeById(500));
+        store.remove(10);
+        assertEquals(-1, store.findRow(10));
+        assertEquals(998, store.size());
+
+        store.compact();
+        assertEquals(998, store.getRowCount());
+        assertEquals(9, store.findRow(9));
+        assertEquals(10, store.findRow(11));
+        assertEquals(997, store.findRow(999));
+        assertEquals(1, store.removeById(999));
+        assertEquals(997, store.size());
+    }
+
+    @Test
+    public void listViewSkipsRemovedRows() {
+        Container first = new Container(1, "Sydney", ContainerType.STANDARD);
+        Container second = new Container(2, "Sydney", ContainerType.REEFER);
+        BulkCargo third = new BulkCargo(3, "Perth", 10, BulkCargoType.OIL);
+        List<Cargo> view = store.asList();
+        for (Cargo cargo : List.of(first, second, third)) {
+            store.add(cargo);
+        }
+        assertEquals(List.of(first, second, third), view);
+
+        store.removeById(2);
+        assertEquals(2, view.size());
+        assertSame(third, view.get(1));
+        Iterator<Cargo> iterator = view.iterator();
+        assertSame(first, iterator.next());
+        assertSame(third, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> view.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(first));
+    }
+}
@@ -0,0 +1,64 @@
+package portsim.evaluators;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.Cargo;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.movement.CargoMovement;
+import portsim.movement.MovementDirection;
+import portsim.movement.ShipMovement;
+import portsim.ship.BulkCarrier;
+import portsim.ship.ContainerShip;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CargoDecompositionEvaluatorTest {
+
+    private CargoDecompositionEvaluator evaluator;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+        evaluator = new CargoDecompositionEvaluator();
+    }
+
+    @Test
+    public void versionUnchangedWithoutCargo() {
+        long version = evaluator.getVersion();
+        evaluator.onProcessMovement(new CargoMovement(1, MovementDirection.INBOUND,
+            new ArrayList<>()));
+        evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.INBOUND,
+            new ContainerShip(1234567, "Empty", "Australia", NauticalFlag.BRAVO, 10)));
+        evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.INBOUND,
+            new BulkCarrier(2345678, "Empty", "Australia", NauticalFlag.BRAVO, 10)));
+        assertEquals(version, evaluator.getVersion());
+        assertTrue(evaluator.getCargoDistribution().isEmpty());
+    }
+
+    @Test
+    public void versionUnchangedByOutboundCargo() {
+        long version = evaluator.getVersion();
+        evaluator.onProcessMovement(new CargoMovement(1, MovementDirection.OUTBOUND,
+            List.of(new Container(1, "Sydney", ContainerType.REEFER))));
+        assertEquals(version, evaluator.getVersion());
+    }
+
+    @Test
+    public void versionChangesWithInboundCargo() {
+        long version = evaluator.getVersion();
+        evaluator.onProcessMovement(new CargoMovement(1, MovementDirection.INBOUND,
+            List.of(new Container(1, "Sydney", ContainerType.REEFER))));
+        assertNotEquals(version, evaluator.getVersion());
+        assertEquals(Integer.valueOf(1),
+            evaluator.getContainerDistribution().get(ContainerType.REEFER));
+    }
+}
@@ -0,0 +1,136 @@
+package portsim.evaluators;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.port.BulkQuay;
+import portsim.port.Port;
+import portsim.port.Quay;
+import portsim.ship.BulkCarrier;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+import portsim.util.BadEncodingException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+public class QuayOccupancyEvaluatorTest {
+
+    private Port port1;
+    private Port port2;
+    private Port port3;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        port1 = portWithDockedShips(1, 2, 1000000);
+        port2 = portWithDockedShips(2, 1, 2000000);
+        port3 = portWithDockedShips(3, 3, 3000000);
+    }
+
+    /* Creates a port with the given number of quays, each with a ship docked */
+    private static Port portWithDockedShips(int id, int quays, long firstImo) {
+        Port port = new Port("Port " + id);
+        for (int i = 0; i < quays; i++) {
+            Quay quay = new BulkQuay(id * 10 + i, 100);
+            quay.shipArrives(new BulkCarrier(firstImo + i, "Ship", "Australia",
+                NauticalFlag.NOVEMBER, 100));
+            port.addQuay(quay);
+        }
+        return port;
+    }
+
+    @Test
+    public void countsMonitoredPortLive() {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        assertEquals(2, evaluator.getQuaysOccupied());
+        port1.getQuaysView().get(0).shipDeparts();
+        assertEquals(1, evaluator.getQuaysOccupied());
+    }
+
+    @Test
+    public void mergeAddsOtherPorts() {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        evaluator.merge(new QuayOccupancyEvaluator(port2));
+        assertEquals(3, evaluator.getQuaysOccupied());
+    }
+
+    @Test
+    public void mergeWithSelfHasNoEffect() {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        evaluator.merge(evaluator);
+        evaluator.merge(new QuayOccupancyEvaluator(port1));
+        assertEquals(2, evaluator.getQuaysOccupied());
+    }
+
+    @Test
+    public void mergeCountsEachCapture() {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        evaluator.merge(new QuayOccupancyEvaluator(port2));
+        evaluator.merge(new QuayOccupancyEvaluator(port2));
+        assertEquals(4, evaluator.getQuaysOccupied());
+    }
+
+    @Test
+    public void mergedOccupancyRoundTrip() throws BadEncodingException {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        assertEquals("QuayOccupancyEvaluator:0", evaluator.encode());
+        evaluator.merge(new QuayOccupancyEvaluator(port2)).merge(new QuayOccupancyEvaluator(port3));
+        assertEquals("QuayOccupancyEvaluator:0:4", evaluator.encode());
+
+        QuayOccupancyEvaluator decoded = (QuayOccupancyEvaluator)
+            StatisticsEvaluator.fromString(evaluator.encode(), port1);
+        assertEquals(6, decoded.getQuaysOccupied());
+        assertEquals(evaluator.encode(), decoded.encode());
+    }
+
+    @Test
+    public void invalidMergedOccupancyRejected() {
+        for (String encoded : new String[] {"QuayOccupancyEvaluator:0:",
+            "QuayOccupancyEvaluator:0:x", "QuayOccupancyEvaluator:0:-1",
+            "QuayOccupancyEvaluator:0:1:1"}) {
+            assertThrows(BadEncodingException.class,
+                () -> StatisticsEvaluator.fromString(encoded, port1));
+        }
+    }
+
+    @Test
+    public void mergeCapturesOccupancy() {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        evaluator.merge(new QuayOccupancyEvaluator(port2));
+        port2.getQuaysView().get(0).shipDeparts();
+        assertEquals(3, evaluator.getQuaysOccupied());
+    }
+
+    @Test
+    public void mergeIsAssociative() {
+        QuayOccupancyEvaluator left = new QuayOccupancyEvaluator(port1);
+        left.merge(new QuayOccupancyEvaluator(port2)).merge(new QuayOccupancyEvaluator(port3));
+
+        QuayOccupancyEvaluator right = new QuayOccupancyEvaluator(port2);
+        right.merge(new QuayOccupancyEvaluator(port3));
+        QuayOccupancyEvaluator grouped = new QuayOccupancyEvaluator(port1);
+        grouped.merge(right);
+
+        assertEquals(6, left.getQuaysOccupied());
+        assertEquals(left.getQuaysOccupied(), grouped.getQuaysOccupied());
+    }
+
+    @Test
+    public void versionChangesOnlyWithOccupancy() {
+        QuayOccupancyEvaluator evaluator = new QuayOccupancyEvaluator(port1);
+        long version = evaluator.getVersion();
+        assertEquals(version, evaluator.getVersion());
+
+        Quay quay = port1.getQuaysView().get(0);
+        Ship ship = quay.shipDeparts();
+        long departed = evaluator.getVersion();
+        assertNotEquals(version, departed);
+        assertEquals(departed, evaluator.getVersion());
+
+        quay.shipDeparts();
+        assertEquals(departed, evaluator.getVersion());
+        quay.shipArrives(ship);
+        assertNotEquals(departed, evaluator.getVersion());
+    }
+}
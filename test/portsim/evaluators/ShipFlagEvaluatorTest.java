@@ -0,0 +1,71 @@
+package portsim.evaluators;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.movement.MovementDirection;
+import portsim.movement.ShipMovement;
+import portsim.ship.BulkCarrier;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class ShipFlagEvaluatorTest {
+
+    private long nextImo;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        nextImo = 1000000;
+    }
+
+    /* Creates an evaluator that has seen one inbound ship from each of the given origins */
+    private ShipFlagEvaluator evaluatorSeeing(String... origins) {
+        ShipFlagEvaluator evaluator = new ShipFlagEvaluator();
+        for (String origin : origins) {
+            Ship ship = new BulkCarrier(nextImo++, "Ship", origin, NauticalFlag.BRAVO, 100);
+            evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.INBOUND, ship));
+        }
+        return evaluator;
+    }
+
+    @Test
+    public void mergeAddsCounts() {
+        ShipFlagEvaluator evaluator = evaluatorSeeing("Australia", "Japan");
+        evaluator.merge(evaluatorSeeing("Australia"));
+        assertEquals(Map.of("Australia", 2, "Japan", 1), evaluator.getFlagDistribution());
+    }
+
+    @Test
+    public void mergeIsAssociative() {
+        ShipFlagEvaluator left = evaluatorSeeing("Australia");
+        left.merge(evaluatorSeeing("Japan", "Australia")).merge(evaluatorSeeing("Chile"));
+
+        ShipFlagEvaluator right = evaluatorSeeing("Japan", "Australia");
+        right.merge(evaluatorSeeing("Chile"));
+        ShipFlagEvaluator grouped = evaluatorSeeing("Australia");
+        grouped.merge(right);
+
+        assertEquals(left.getFlagDistribution(), grouped.getFlagDistribution());
+    }
+
+    @Test
+    public void newEvaluatorIsMergeIdentity() {
+        ShipFlagEvaluator evaluator = evaluatorSeeing("Australia", "Japan");
+        Map<String, Integer> before = Map.copyOf(evaluator.getFlagDistribution());
+        evaluator.merge(new ShipFlagEvaluator());
+        assertEquals(before, evaluator.getFlagDistribution());
+        assertEquals(before, ((ShipFlagEvaluator) new ShipFlagEvaluator().merge(evaluator))
+            .getFlagDistribution());
+    }
+
+    @Test
+    public void mergeRejectsOtherClasses() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ShipFlagEvaluator().merge(new CargoDecompositionEvaluator()));
+    }
+}
@@ -0,0 +1,145 @@
+package portsim.evaluators;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.BulkCargo;
+import portsim.cargo.BulkCargoType;
+import portsim.cargo.Cargo;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.movement.CargoMovement;
+import portsim.movement.MovementDirection;
+import portsim.movement.ShipMovement;
+import portsim.port.Port;
+import portsim.ship.BulkCarrier;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+import portsim.util.BadEncodingException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class StatisticsEvaluatorTest {
+
+    private Port port;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+        port = new Port("Brisbane");
+    }
+
+    /* Encodes the evaluator and reads it back */
+    private StatisticsEvaluator roundTrip(StatisticsEvaluator evaluator)
+        throws BadEncodingException {
+        return StatisticsEvaluator.fromString(evaluator.encode(), port);
+    }
+
+    @Test
+    public void flagEvaluatorRoundTrip() throws BadEncodingException {
+        ShipFlagEvaluator evaluator = new ShipFlagEvaluator();
+        long imo = 1000000;
+        for (String origin : List.of("Australia", "Australia", "New Zealand")) {
+            Ship ship = new BulkCarrier(imo++, "Ship", origin, NauticalFlag.BRAVO, 100);
+            evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.INBOUND, ship));
+        }
+        evaluator.elapseOneMinute();
+
+        ShipFlagEvaluator decoded = (ShipFlagEvaluator) roundTrip(evaluator);
+        assertEquals(1, decoded.getTime());
+        assertEquals(evaluator.getFlagDistribution(), decoded.getFlagDistribution());
+        assertEquals(evaluator.encode(), decoded.encode());
+    }
+
+    @Test
+    public void keysWithSeparatorsRoundTrip() throws BadEncodingException {
+        ShipFlagEvaluator evaluator = new ShipFlagEvaluator();
+        long imo = 1000000;
+        for (String origin : List.of("St. John's, NL", "a=b", "Port:Moresby", "100%", "%2C",
+            "line\nbreak")) {
+            Ship ship = new BulkCarrier(imo++, "Ship", origin, NauticalFlag.BRAVO, 100);
+            evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.INBOUND, ship));
+        }
+
+        ShipFlagEvaluator decoded = (ShipFlagEvaluator) roundTrip(evaluator);
+        assertEquals(evaluator.getFlagDistribution(), decoded.getFlagDistribution());
+        assertEquals(1, evaluator.encode().split("\n").length);
+    }
+
+    @Test
+    public void cargoEvaluatorRoundTrip() throws BadEncodingException {
+        CargoDecompositionEvaluator evaluator = new CargoDecompositionEvaluator();
+        evaluator.onProcessMovement(new CargoMovement(1, MovementDirection.INBOUND, List.of(
+            new Container(1, "Sydney", ContainerType.REEFER),
+            new Container(2, "Sydney", ContainerType.REEFER),
+            new BulkCargo(3, "Sydney", 50, BulkCargoType.OIL))));
+
+        CargoDecompositionEvaluator decoded = (CargoDecompositionEvaluator) roundTrip(evaluator);
+        assertEquals(evaluator.getCargoDistribution(), decoded.getCargoDistribution());
+        assertEquals(Map.of(ContainerType.REEFER, 2), decoded.getContainerDistribution());
+        assertEquals(Map.of(BulkCargoType.OIL, 1), decoded.getBulkCargoDistribution());
+    }
+
+    @Test
+    public void throughputEvaluatorRoundTrip() throws BadEncodingException {
+        ShipThroughputEvaluator evaluator = new ShipThroughputEvaluator();
+        Ship ship = new BulkCarrier(1000000, "Ship", "Australia", NauticalFlag.BRAVO, 100);
+        evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.OUTBOUND, ship));
+
+        ShipThroughputEvaluator decoded = (ShipThroughputEvaluator) roundTrip(evaluator);
+        assertEquals(1, decoded.getThroughputPerHour());
+        assertEquals(evaluator.encode(), decoded.encode());
+    }
+
+    @Test
+    public void emptyEvaluatorsRoundTrip() throws BadEncodingException {
+        for (StatisticsEvaluator evaluator : List.of(new ShipFlagEvaluator(),
+            new CargoDecompositionEvaluator(), new ShipThroughputEvaluator(),
+            new QuayOccupancyEvaluator(port))) {
+            assertEquals(evaluator.encode(), roundTrip(evaluator).encode());
+        }
+    }
+
+    @Test
+    public void invalidEscapeRejected() {
+        assertThrows(BadEncodingException.class,
+            () -> StatisticsEvaluator.fromString("ShipFlagEvaluator:0:Aus%2=1", port));
+        assertThrows(BadEncodingException.class,
+            () -> StatisticsEvaluator.fromString("ShipFlagEvaluator:0:Aus%ZZ=1", port));
+    }
+
+    @Test
+    public void emptyKeyRoundTrip() throws BadEncodingException {
+        ShipFlagEvaluator evaluator = new ShipFlagEvaluator();
+        long imo = 1000000;
+        for (String origin : List.of("", "Australia", "")) {
+            Ship ship = new BulkCarrier(imo++, "Ship", origin, NauticalFlag.BRAVO, 100);
+            evaluator.onProcessMovement(new ShipMovement(1, MovementDirection.INBOUND, ship));
+        }
+
+        ShipFlagEvaluator decoded = (ShipFlagEvaluator) roundTrip(evaluator);
+        assertEquals(evaluator.getFlagDistribution(), decoded.getFlagDistribution());
+        assertEquals(Integer.valueOf(2), decoded.getFlagDistribution().get(""));
+    }
+
+    @Test
+    public void createStartsAfresh() throws BadEncodingException {
+        StatisticsEvaluator evaluator = StatisticsEvaluator.create("ShipFlagEvaluator", port);
+        assertEquals(ShipFlagEvaluator.class, evaluator.getClass());
+        assertEquals(0, evaluator.getTime());
+        assertEquals(QuayOccupancyEvaluator.class,
+            StatisticsEvaluator.create("QuayOccupancyEvaluator", port).getClass());
+    }
+
+    @Test
+    public void unknownEvaluatorRejected() {
+        assertThrows(BadEncodingException.class,
+            () -> StatisticsEvaluator.fromString("MadeUpEvaluator:0", port));
+        assertThrows(BadEncodingException.class,
+            () -> StatisticsEvaluator.create("MadeUpEvaluator", port));
+    }
+}
@@ -0,0 +1,206 @@
+package portsim.movement;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MovementWheelTest {
+
+    /**
+     * Times either side of each level boundary of the wheel, and beyond the last level
+     */
+    private static final long[] BOUNDARY_TIMES = {
+        1, 63, 64, 65, 127, 128, 4095, 4096, 4097, 262143, 262144, 262145,
+        16777215, 16777216, 16777217, 100000000
+    };
+
+    private MovementWheel wheel;
+
+    @Before
+    public void setUp() {
+        wheel = new MovementWheel(0);
+    }
+
+    /* Creates a movement at the given time */
+    private static Movement at(long time) {
+        return new Movement(time, MovementDirection.INBOUND) { };
+    }
+
+    /* Drains the wheel minute by minute up to the given time, checking each movement is on time */
+    private List<Movement> drainUntil(long end) {
+        List<Movement> drained = new ArrayList<>();
+        for (long now = wheel.getCurrentTime(); now <= end; now++) {
+            Movement movement;
+            while ((movement = wheel.pollDue(now)) != null) {
+                assertEquals(now, movement.getTime());
+                drained.add(movement);
+            }
+        }
+        return drained;
+    }
+
+    @Test
+    public void pollDueReturnsMovementsInTimeOrder() {
+        Random random = new Random(2002);
+        List<Movement> added = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Movement movement = at(1 + random.nextInt(10000));
+            added.add(movement);
+            wheel.add(movement);
+        }
+        assertEquals(2000, wheel.size());
+
+        List<Movement> drained = drainUntil(10000);
+        // a stable sort keeps movements at the same minute in the order they were added
+        added.sort(Comparator.comparingLong(Movement::getTime));
+        assertEquals(added, drained);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void cascadesAcrossLevelBoundaries() {
+        for (long time : BOUNDARY_TIMES) {
+            wheel.add(at(time));
+        }
+        for (long time : BOUNDARY_TIMES) {
+            assertNull(wheel.pollDue(time - 1));
+            Movement movement = wheel.pollDue(time);
+            assertEquals(time, movement.getTime());
+            assertNull(wheel.pollDue(time));
+        }
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    public void cascadesWhenStartingPartWayThroughLevel() {
+        wheel = new MovementWheel(4000);
+        for (long time : new long[] {4063, 4064, 4095, 4096, 8191, 8192}) {
+            wheel.add(at(time));
+        }
+        List<Movement> drained = drainUntil(8192);
+        assertEquals(6, drained.size());
+    }
+
+    @Test
+    public void sameMinuteKeepsInsertionOrder() {
+        Movement first = at(4096);
+        Movement second = at(4096);
+        Movement third = at(4096);
+        wheel.add(first);
+        wheel.add(second);
+        wheel.add(third);
+        assertEquals(List.of(first, second, third), drainUntil(4096));
+    }
+
+    @Test
+    public void overdueMovementIsDueImmediately() {
+        wheel.pollDue(100);
+        Movement late = at(50);
+        wheel.add(late);
+        assertSame(late, wheel.pollDue(100));
+        assertNull(wheel.pollDue(100));
+    }
+
+    @Test
+    public void pollDueBeforeCurrentMinuteDoesNotRewind() {
+        wheel.add(at(200));
+        wheel.pollDue(100);
+        assertNull(wheel.pollDue(10));
+        assertEquals(100, wheel.getCurrentTime());
+    }
+
+    @Test
+    public void peekAndPollReturnEarliest() {
+        for (long time : new long[] {5000, 3, 70, 20000000}) {
+            wheel.add(at(time));
+        }
+        assertEquals(3, wheel.peek().getTime());
+        assertEquals(3, wheel.poll().getTime());
+        assertEquals(70, wheel.poll().getTime());
+        assertEquals(5000, wheel.poll().getTime());
+        assertEquals(20000000, wheel.poll().getTime());
+        assertNull(wheel.poll());
+        assertEquals(0, wheel.getCurrentTime());
+    }
+
+    @Test
+    public void iteratesInTimeOrder() {
+        for (long time : BOUNDARY_TIMES) {
+            wheel.add(at(BOUNDARY_TIMES[BOUNDARY_TIMES.length - 1] - time + 1));
+        }
+        long previous = Long.MIN_VALUE;
+        int count = 0;
+        for (Movement movement : wheel) {
+            assertTrue(movement.getTime() >= previous);
+            previous = movement.getTime();
+            count++;
+        }
+        assertEquals(BOUNDARY_TIMES.length, count);
+    }
+
+    @Test
+    public void iteratesOverdueMovementsInTimeOrder() {
+        wheel.pollDue(100);
+        Movement late = at(90);
+        Movement later = at(95);
+        Movement latest = at(99);
+        Movement alsoLate = at(90);
+        wheel.add(latest);
+        wheel.add(late);
+        wheel.add(later);
+        wheel.add(alsoLate);
+        wheel.add(at(100));
+
+        List<Movement> iterated = new ArrayList<>();
+        wheel.forEach(iterated::add);
+        assertEquals(List.of(late, alsoLate, later, latest), iterated.subList(0, 4));
+        assertEquals(100, iterated.get(4).getTime());
+    }
+
+    @Test
+    public void containsAndRemove() {
+        Movement near = at(10);
+        Movement far = at(300000);
+        wheel.add(near);
+        wheel.add(far);
+        assertTrue(wheel.contains(far));
+        assertTrue(wheel.remove(far));
+        assertFalse(wheel.contains(far));
+        assertFalse(wheel.remove(far));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(near), drainUntil(300000));
+    }
+
+    @Test
+    public void iteratorRemove() {
+        wheel.add(at(1));
+        wheel.add(at(2));
+        Iterator<Movement> iterator = wheel.iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(1, wheel.size());
+        assertEquals(2, wheel.peek().getTime());
+    }
+
+    @Test
+    public void clearEmptiesWheel() {
+        for (long time : BOUNDARY_TIMES) {
+            wheel.add(at(time));
+        }
+        wheel.clear();
+        assertEquals(0, wheel.size());
+        assertNull(wheel.peek());
+        assertTrue(drainUntil(70000).isEmpty());
+    }
+}
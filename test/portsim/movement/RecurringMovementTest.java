@@ -0,0 +1,161 @@
+package portsim.movement;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.BulkCargo;
+import portsim.cargo.BulkCargoType;
+import portsim.cargo.Cargo;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.port.Port;
+import portsim.ship.BulkCarrier;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+import portsim.util.BadEncodingException;
+import portsim.util.NoSuchCargoException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class RecurringMovementTest {
+
+    private Ship ship;
+    private Container container;
+    private BulkCargo bulkCargo;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+        ship = new BulkCarrier(1234567, "Voyager", "Australia", NauticalFlag.HOTEL, 100);
+        container = new Container(1, "Sydney", ContainerType.REEFER);
+        bulkCargo = new BulkCargo(2, "Perth", 40, BulkCargoType.GRAIN);
+    }
+
+    /* Creates a recurring inbound delivery of the container and bulk cargo */
+    private RecurringMovement delivery(long time, long period, long end) {
+        return new RecurringMovement(new CargoMovement(time, MovementDirection.INBOUND,
+            List.of(container, bulkCargo)), period, end);
+    }
+
+    @Test
+    public void nextIsOnePeriodLater() {
+        RecurringMovement recurring = new RecurringMovement(
+            new ShipMovement(120, MovementDirection.INBOUND, ship), 10080,
+            RecurringMovement.NO_END);
+        RecurringMovement next = recurring.next();
+        assertEquals(10200, next.getTime());
+        assertEquals(10200, next.getOccurrence().getTime());
+        assertEquals(MovementDirection.INBOUND, next.getDirection());
+        assertEquals(10080, next.getPeriod());
+        assertSame(ship, ((ShipMovement) next.getOccurrence()).getShip());
+    }
+
+    @Test
+    public void endIsInclusive() {
+        RecurringMovement recurring = delivery(10, 5, 20);
+        RecurringMovement second = recurring.next();
+        RecurringMovement third = second.next();
+        assertEquals(15, second.getTime());
+        assertEquals(20, third.getTime());
+        assertNull(third.next());
+    }
+
+    @Test
+    public void seriesEndingAtFirstOccurrenceHasNoNext() {
+        assertNull(delivery(10, 5, 14).next());
+        assertNull(delivery(10, 5, 10).next());
+    }
+
+    @Test
+    public void timeOverflowEndsSeries() {
+        RecurringMovement recurring = delivery(Long.MAX_VALUE - 1, 5, RecurringMovement.NO_END);
+        assertNull(recurring.next());
+    }
+
+    @Test
+    public void cargoOccurrencesCarryFreshCargo() throws NoSuchCargoException {
+        CargoMovement next = (CargoMovement) delivery(10, 5, 100).next().getOccurrence();
+        List<Cargo> cargo = next.getCargoView();
+        assertEquals(2, cargo.size());
+
+        Container nextContainer = (Container) cargo.get(0);
+        assertNotEquals(container.getId(), nextContainer.getId());
+        assertEquals("Sydney", nextContainer.getDestination());
+        assertEquals(ContainerType.REEFER, nextContainer.getType());
+        assertSame(nextContainer, Cargo.getCargoById(nextContainer.getId()));
+
+        BulkCargo nextBulk = (BulkCargo) cargo.get(1);
+        assertEquals(40, nextBulk.getTonnage());
+        assertEquals(BulkCargoType.GRAIN, nextBulk.getType());
+        assertNotEquals(nextContainer.getId(), nextBulk.getId());
+    }
+
+    @Test
+    public void outboundCargoCannotRecur() {
+        CargoMovement outbound = new CargoMovement(10, MovementDirection.OUTBOUND,
+            List.of(container));
+        assertThrows(IllegalArgumentException.class,
+            () -> new RecurringMovement(outbound, 5, 100));
+        assertThrows(BadEncodingException.class,
+            () -> RecurringMovement.fromString("RecurringMovement:10:OUTBOUND:5:None:"
+                + outbound.encode()));
+    }
+
+    @Test
+    public void invalidArgumentsRejected() {
+        ShipMovement movement = new ShipMovement(10, MovementDirection.INBOUND, ship);
+        assertThrows(IllegalArgumentException.class,
+            () -> new RecurringMovement(movement, 0, 100));
+        assertThrows(IllegalArgumentException.class,
+            () -> new RecurringMovement(movement, 5, 9));
+        assertThrows(IllegalArgumentException.class,
+            () -> new RecurringMovement(new RecurringMovement(movement, 5, 100), 5, 100));
+    }
+
+    @Test
+    public void encodingRoundTrip() throws BadEncodingException {
+        RecurringMovement recurring = delivery(10, 1440, 5000);
+        RecurringMovement decoded = RecurringMovement.fromString(recurring.encode());
+        assertEquals(recurring.encode(), decoded.encode());
+        assertEquals(5000, decoded.getEnd());
+
+        RecurringMovement endless = new RecurringMovement(
+            new ShipMovement(120, MovementDirection.INBOUND, ship), 10080,
+            RecurringMovement.NO_END);
+        assertEquals("RecurringMovement:120:INBOUND:10080:None:ShipMovement:120:INBOUND:1234567",
+            endless.encode());
+        assertEquals(RecurringMovement.NO_END,
+            RecurringMovement.fromString(endless.encode()).getEnd());
+    }
+
+    @Test
+    public void portExpandsOneOccurrenceAtATime() {
+        Port port = new Port("Brisbane");
+        port.addMovement(delivery(5, 10, 35));
+        assertEquals(1, port.getMovements().size());
+
+        for (int i = 0; i < 50; i++) {
+            port.elapseOneMinute();
+            assertTrue(port.getMovements().size() <= 1);
+        }
+
+        // occurrences at 5, 15, 25 and 35, each delivering two new pieces of cargo
+        List<Cargo> stored = port.getCargoView();
+        assertEquals(8, stored.size());
+        Set<Integer> ids = new HashSet<>();
+        for (Cargo cargo : stored) {
+            ids.add(cargo.getId());
+        }
+        assertEquals(8, ids.size());
+        assertTrue(port.getMovements().isEmpty());
+    }
+}
@@ -0,0 +1,108 @@
+package portsim.port;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.Cargo;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.movement.CargoMovement;
+import portsim.movement.MovementDirection;
+import portsim.ship.BulkCarrier;
+import portsim.ship.ContainerShip;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PortSnapshotTest {
+
+    private Port port;
+    private Quay quay;
+    private ContainerShip docked;
+    private Ship queued;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+        port = new Port("Brisbane");
+        quay = new ContainerQuay(0, 100, 2);
+        docked = new ContainerShip(1234567, "Evergreen", "Australia", NauticalFlag.NOVEMBER, 10);
+        for (int i = 0; i < 4; i++) {
+            docked.loadCargo(new Container(i, "Australia",
+                i % 2 == 0 ? ContainerType.STANDARD : ContainerType.REEFER));
+        }
+        quay.shipArrives(docked);
+        port.addQuay(quay);
+        queued = new BulkCarrier(7654321, "Bulky", "Australia", NauticalFlag.NOVEMBER, 100);
+        port.getShipQueue().add(queued);
+    }
+
+    @Test
+    public void unchangedPartsShared() {
+        PortSnapshot first = new PortSnapshot(port, 0, null);
+        PortSnapshot second = new PortSnapshot(port, 1, first);
+
+        assertSame(first.getQuays(), second.getQuays());
+        assertSame(first.getQueuedShips(), second.getQueuedShips());
+        assertSame(first.getShipCargo(docked), second.getShipCargo(docked));
+        assertSame(first.getShipCargo(queued), second.getShipCargo(queued));
+        assertEquals(4, second.getShipCargo(docked).getCount());
+        assertEquals(0, second.getShipCargo(queued).getCount());
+    }
+
+    @Test
+    public void unloadedQuayRecordedAgain() {
+        PortSnapshot first = new PortSnapshot(port, 0, null);
+        List<Cargo> unloaded = new ArrayList<>();
+        quay.unload(unloaded::add);
+        PortSnapshot second = new PortSnapshot(port, 1, first);
+
+        assertNotSame(first.getQuays(), second.getQuays());
+        assertEquals(2, first.getQuays().get(0).getContainerCount(ContainerType.STANDARD));
+        assertEquals(1, second.getQuays().get(0).getContainerCount(ContainerType.STANDARD));
+        assertEquals(2, second.getShipCargo(docked).getCount());
+        assertSame(first.getQueuedShips(), second.getQueuedShips());
+
+        quay.shipDeparts();
+        PortSnapshot third = new PortSnapshot(port, 2, second);
+        assertNull(third.getQuays().get(0).getShip());
+        assertNull(third.getShipCargo(docked));
+    }
+
+    @Test
+    public void changedQueueRecordedAgain() {
+        PortSnapshot first = new PortSnapshot(port, 0, null);
+        Ship joined = new BulkCarrier(1111111, "Late", "Japan", NauticalFlag.BRAVO, 100);
+        port.getShipQueue().add(joined);
+        PortSnapshot second = new PortSnapshot(port, 1, first);
+
+        assertEquals(List.of(queued, joined), second.getQueuedShips());
+        assertEquals(1, second.getQueuedShipCount(QueuePriority.of(joined)));
+        assertEquals(0, second.getShipCargo(joined).getCount());
+        assertSame(first.getQuays(), second.getQuays());
+
+        port.getShipQueue().poll();
+        PortSnapshot third = new PortSnapshot(port, 2, second);
+        assertEquals(List.of(queued), third.getQueuedShips());
+        assertNull(third.getShipCargo(joined));
+    }
+
+    @Test
+    public void storedCargoCountedAsItChanges() {
+        List<Cargo> unloaded = new ArrayList<>();
+        quay.unload(unloaded::add);
+        port.processMovement(new CargoMovement(0, MovementDirection.INBOUND, unloaded));
+        PortSnapshot snapshot = new PortSnapshot(port, 0, null);
+        assertEquals(1, snapshot.getStoredContainerCount(ContainerType.STANDARD));
+        assertEquals(1, snapshot.getStoredContainerCount(ContainerType.REEFER));
+        assertEquals(2, snapshot.getStoredCargoCount());
+        assertEquals(0, snapshot.getStoredBulkCargoCount());
+    }
+}
@@ -0,0 +1,346 @@
+package portsim.port;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.BulkCargo;
+import portsim.cargo.BulkCargoType;
+import portsim.cargo.Cargo;
+import portsim.cargo.CargoStore;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.evaluators.CargoDecompositionEvaluator;
+import portsim.evaluators.ShipFlagEvaluator;
+import portsim.evaluators.StatisticsEvaluator;
+import portsim.movement.CargoMovement;
+import portsim.movement.Movement;
+import portsim.movement.MovementDirection;
+import portsim.movement.ShipMovement;
+import portsim.ship.BulkCarrier;
+import portsim.ship.ContainerShip;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class PortTest {
+
+    private static final int MINUTES = 30;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+    }
+
+    /* Creates a port with a cargo and a flag evaluator */
+    private static Port portWithEvaluators(String name) {
+        Port port = new Port(name);
+        port.addStatisticsEvaluator(new CargoDecompositionEvaluator());
+        port.addStatisticsEvaluator(new ShipFlagEvaluator());
+        return port;
+    }
+
+    /*
+     * Creates random movements for each minute up to MINUTES, indexed by minute. Runs of inbound
+     * and outbound cargo movements are mixed with ship movements, and cargo only leaves after
+     * it has arrived.
+     */
+    private static List<List<Movement>> randomMovements(long seed) {
+        Random random = new Random(seed);
+        List<List<Movement>> byMinute = new ArrayList<>();
+        List<Cargo> arrived = new ArrayList<>();
+        int nextCargoId = 0;
+        long nextImo = 1000000;
+        for (int minute = 0; minute <= MINUTES; minute++) {
+            List<Movement> movements = new ArrayList<>();
+            int count = minute == 0 ? 0 : random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                int kind = random.nextInt(5);
+                if (kind == 0) {
+                    Ship ship = new ContainerShip(nextImo++, "Ship",
+                        random.nextBoolean() ? "Australia" : "Japan", NauticalFlag.BRAVO, 10);
+                    movements.add(new ShipMovement(minute, MovementDirection.INBOUND, ship));
+                } else if (kind <= 2 || arrived.isEmpty()) {
+                    List<Cargo> cargo = new ArrayList<>();
+                    for (int j = random.nextInt(3) + 1; j > 0; j--) {
+                        Cargo piece = random.nextBoolean()
+                            ? new Container(nextCargoId++, "Sydney",
+                                ContainerType.values()[random.nextInt(3)])
+                            : new BulkCargo(nextCargoId++, "Perth", 10, BulkCargoType.OIL);
+                        cargo.add(piece);
+                        arrived.add(piece);
+                    }
+                    movements.add(new CargoMovement(minute, MovementDirection.INBOUND, cargo));
+                } else {
+                    List<Cargo> cargo = new ArrayList<>();
+                    for (int j = random.nextInt(Math.min(arrived.size(), 3)) + 1; j > 0; j--) {
+                        cargo.add(arrived.remove(random.nextInt(arrived.size())));
+                    }
+                    movements.add(new CargoMovement(minute, MovementDirection.OUTBOUND, cargo));
+                }
+            }
+            byMinute.add(movements);
+        }
+        return byMinute;
+    }
+
+    @Test
+    public void batchedMovementsMatchProcessingEachInTurn() {
+        for (long seed = 0; seed < 20; seed++) {
+            setUp();
+            List<List<Movement>> byMinute = randomMovements(seed);
+            Port batched = portWithEvaluators("Batched");
+            Port reference = portWithEvaluators("Reference");
+            for (List<Movement> movements : byMinute) {
+                for (Movement movement : movements) {
+                    batched.addMovement(movement);
+                }
+            }
+
+            for (int minute = 1; minute <= MINUTES; minute++) {
+                batched.elapseOneMinute();
+                reference.elapseOneMinute();
+                for (Movement movement : byMinute.get(minute)) {
+                    reference.processMovement(movement);
+                }
+                assertEquals("seed " + seed + " minute " + minute,
+                    reference.getCargoView(), batched.getCargoView());
+            }
+
+            assertEquals(reference.getShipQueue().getShipQueueView(),
+                batched.getShipQueue().getShipQueueView());
+            List<StatisticsEvaluator> expected = reference.getEvaluators();
+            List<StatisticsEvaluator> actual = batched.getEvaluators();
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getCounters(), actual.get(i).getCounters());
+            }
+        }
+    }
+
+    @Test
+    public void pastMovementRejected() {
+        Port port = new Port("Brisbane");
+        port.elapseOneMinute();
+        port.elapseOneMinute();
+        assertThrows(IllegalArgumentException.class, () -> port.addMovement(
+            new CargoMovement(1, MovementDirection.INBOUND, new ArrayList<>())));
+    }
+
+    /*
+     * Stores the given cargo at the port, docks a container ship and a bulk carrier from
+     * Australia and lets them depart, then removes some cargo. Ships are numbered from the
+     * given IMO number. Returns the departed ships.
+     */
+    private static List<Ship> dockAndDepart(Port port, List<Cargo> cargo, long imoNumber) {
+        port.addQuay(new ContainerQuay(0, 100));
+        port.addQuay(new BulkQuay(1, 1000));
+        port.processMovement(new CargoMovement(0, MovementDirection.INBOUND, cargo));
+        Ship containerShip = new ContainerShip(imoNumber, "Evergreen", "Australia",
+            NauticalFlag.BRAVO, 4);
+        Ship bulkCarrier = new BulkCarrier(imoNumber + 1, "Bulky", "Australia",
+            NauticalFlag.BRAVO, 300);
+        List<Ship> ships = List.of(containerShip, bulkCarrier);
+        for (Ship ship : ships) {
+            port.processMovement(new ShipMovement(port.getTime(), MovementDirection.INBOUND,
+                ship));
+            for (int i = 0; i < 10; i++) {
+                port.elapseOneMinute();
+            }
+        }
+        for (Ship ship : ships) {
+            port.processMovement(new ShipMovement(port.getTime(), MovementDirection.OUTBOUND,
+                ship));
+        }
+        port.processMovement(new CargoMovement(port.getTime(), MovementDirection.OUTBOUND,
+            List.of(cargo.get(0), cargo.get(1))));
+        return ships;
+    }
+
+    @Test
+    public void cargoStoreLoadsSameCargoAsWarehouse() {
+        List<Cargo> cargo = new ArrayList<>();
+        String[] destinations = {"Australia", "Japan"};
+        for (int i = 0; i < 24; i++) {
+            String destination = destinations[i % 3 == 0 ? 1 : 0];
+            cargo.add(i % 2 == 0
+                ? new Container(i, destination, ContainerType.values()[i % 3])
+                : new BulkCargo(i, destination, 100 * (i % 5), BulkCargoType.OIL));
+        }
+        Port plain = new Port("Plain");
+        Port columnar = new Port("Columnar");
+        CargoStore store = new CargoStore(4);
+        columnar.setCargoStore(store);
+
+        List<Ship> plainShips = dockAndDepart(plain, cargo, 1000000);
+        List<Ship> columnarShips = dockAndDepart(columnar, cargo, 2000000);
+
+        assertEquals(plain.getCargoView(), columnar.getCargoView());
+        for (int i = 0; i < plainShips.size(); i++) {
+            assertEquals(plainShips.get(i).toString(), columnarShips.get(i).toString());
+        }
+        assertEquals(4, ((ContainerShip) columnarShips.get(0)).getCargoView().size());
+        assertEquals(plain.getCargoView().size(), store.size());
+        for (int row = 0, i = 0; row < store.getRowCount(); row++) {
+            if (!store.isRemoved(row)) {
+                assertEquals(plain.getCargoView().get(i++).getId(), store.getId(row));
+            }
+        }
+
+        int[] containerCounts = new int[ContainerType.values().length];
+        int bulkCargoCount = 0;
+        for (Cargo stored : plain.getCargoView()) {
+            if (stored instanceof Container) {
+                containerCounts[((Container) stored).getType().ordinal()]++;
+            } else {
+                bulkCargoCount++;
+            }
+        }
+        PortSnapshot expected = new PortSnapshot(plain, 0, null);
+        PortSnapshot actual = new PortSnapshot(columnar, 0, null);
+        for (ContainerType type : ContainerType.values()) {
+            assertEquals(containerCounts[type.ordinal()], plain.getStoredContainerCount(type));
+            assertEquals(expected.getStoredContainerCount(type),
+                actual.getStoredContainerCount(type));
+        }
+        assertEquals(bulkCargoCount, plain.getStoredBulkCargoCount());
+        assertEquals(expected.getStoredBulkCargoCount(), actual.getStoredBulkCargoCount());
+    }
+
+    @Test
+    public void cargoStoreFilledWhenAttached() {
+        List<Cargo> cargo = List.of(new Container(0, "Sydney", ContainerType.STANDARD),
+            new BulkCargo(1, "Perth", 10, BulkCargoType.GRAIN));
+        Port port = new Port("Brisbane");
+        port.processMovement(new CargoMovement(0, MovementDirection.INBOUND, cargo));
+        String encoded = port.encode();
+        CargoStore store = new CargoStore();
+        port.setCargoStore(store);
+        assertEquals(2, store.size());
+        assertEquals(1, store.getId(1));
+        assertEquals(cargo, port.getCargoView());
+        assertSame(cargo.get(1), port.getCargoView().get(1));
+        assertEquals(cargo, port.getCargo());
+        assertEquals(encoded, port.encode());
+
+        port.processMovement(new CargoMovement(0, MovementDirection.OUTBOUND,
+            List.of(cargo.get(0))));
+        assertEquals(List.of(cargo.get(1)), port.getCargoView());
+        assertEquals(-1, store.findRow(0));
+
+        port.setCargoStore(null);
+        assertNull(port.getCargoStore());
+        assertEquals(List.of(cargo.get(1)), port.getCargoView());
+        assertThrows(IllegalArgumentException.class, () -> port.setCargoStore(store));
+    }
+
+    @Test
+    public void nextMovementTimeIncludesSources() {
+        Port port = new Port("Brisbane");
+        assertEquals(Long.MAX_VALUE, port.getNextMovementTime());
+        port.addMovement(new CargoMovement(100, MovementDirection.INBOUND, new ArrayList<>()));
+        assertEquals(100, port.getNextMovementTime());
+
+        Ship ship = new BulkCarrier(1234567, "Ship", "Australia", NauticalFlag.BRAVO, 100);
+        String schedule = new ShipMovement(50, MovementDirection.INBOUND, ship).encode();
+        port.addMovementSource(new ScheduledMovementReader(new StringReader(schedule), 10));
+        assertEquals(1, port.getMovements().size());
+        assertEquals(50, port.getNextMovementTime());
+    }
+
+    @Test
+    public void submittedMovementAddedAtNextMinute() {
+        Port port = new Port("Brisbane");
+        Movement movement = new CargoMovement(5, MovementDirection.INBOUND, new ArrayList<>());
+        CompletableFuture<Void> added = port.submitMovement(movement);
+        assertFalse(added.isDone());
+        assertEquals(1, port.getSubmittedMovementCount());
+        assertEquals(0, port.getMovements().size());
+
+        port.elapseOneMinute();
+        assertTrue(added.isDone());
+        assertFalse(added.isCompletedExceptionally());
+        assertEquals(0, port.getSubmittedMovementCount());
+        assertSame(movement, port.getMovements().peek());
+    }
+
+    @Test
+    public void submittedMovementCheckedAgainstNextMinute() {
+        Port port = new Port("Brisbane");
+        port.elapseOneMinute();
+        port.elapseOneMinute();
+        CompletableFuture<Void> current = port.submitMovement(
+            new CargoMovement(2, MovementDirection.INBOUND, new ArrayList<>()));
+        CompletableFuture<Void> past = port.submitMovement(
+            new CargoMovement(1, MovementDirection.INBOUND, new ArrayList<>()));
+
+        port.elapseOneMinute();
+        assertTrue(current.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, past::get);
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+        assertEquals(0, port.getSubmittedMovementCount());
+    }
+
+    @Test
+    public void movementSubmittedForNextMinuteProcessedOnNextTick() {
+        Port port = new Port("Brisbane");
+        port.elapseOneMinute();
+        Cargo cargo = new Container(1, "Sydney", ContainerType.STANDARD);
+        CompletableFuture<Void> added = port.submitMovement(new CargoMovement(
+            port.getTime() + 1, MovementDirection.INBOUND, List.of(cargo)));
+
+        port.elapseOneMinute();
+        assertTrue(added.isDone());
+        assertFalse(added.isCompletedExceptionally());
+        assertEquals(List.of(cargo), port.getCargoView());
+        assertEquals(0, port.getMovements().size());
+    }
+
+    @Test
+    public void movementsSubmittedFromManyThreadsAllAdded() throws InterruptedException {
+        Port port = new Port("Brisbane");
+        int threads = 4;
+        int perThread = 250;
+        List<List<CompletableFuture<Void>>> results = new ArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<CompletableFuture<Void>> submitted = new ArrayList<>();
+            results.add(submitted);
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    submitted.add(port.submitMovement(new CargoMovement(10 + i,
+                        MovementDirection.INBOUND, new ArrayList<>())));
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertEquals(threads * perThread, port.getSubmittedMovementCount());
+
+        port.elapseOneMinute();
+        assertEquals(0, port.getSubmittedMovementCount());
+        assertEquals(threads * perThread, port.getMovements().size());
+        for (List<CompletableFuture<Void>> submitted : results) {
+            assertEquals(perThread, submitted.size());
+            for (CompletableFuture<Void> result : submitted) {
+                assertTrue(result.isDone());
+                assertFalse(result.isCompletedExceptionally());
+            }
+        }
+    }
+}
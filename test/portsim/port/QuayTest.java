@@ -0,0 +1,126 @@
+package portsim.port;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.BulkCargo;
+import portsim.cargo.BulkCargoType;
+import portsim.cargo.Cargo;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+import portsim.ship.BulkCarrier;
+import portsim.ship.ContainerShip;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+import portsim.util.BadEncodingException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class QuayTest {
+
+    private BulkCarrier bulkCarrier;
+    private ContainerShip containerShip;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+        bulkCarrier = new BulkCarrier(1258691, "Glory", "Australia", NauticalFlag.HOTEL, 200);
+        bulkCarrier.loadCargo(new BulkCargo(1, "Australia", 100, BulkCargoType.GRAIN));
+        containerShip = new ContainerShip(2372721, "Evergreen", "Australia",
+            NauticalFlag.BRAVO, 50);
+        for (int i = 10; i < 20; i++) {
+            containerShip.loadCargo(new Container(i, "Australia", ContainerType.STANDARD));
+        }
+    }
+
+    @Test
+    public void bulkQuayMovesCargoOnceTonnageHandled() {
+        BulkQuay quay = new BulkQuay(3, 120, 40);
+        quay.shipArrives(bulkCarrier);
+        List<Cargo> warehouse = new ArrayList<>();
+        assertEquals(0, quay.unload(warehouse::add));
+        assertEquals(40, quay.getProgress());
+        assertEquals(0, quay.unload(warehouse::add));
+        assertEquals(1, quay.unload(warehouse::add));
+        assertEquals(100, quay.getProgress());
+        assertEquals(1, warehouse.size());
+    }
+
+    @Test
+    public void containerQuayUnloadsAtHandlingRate() {
+        ContainerQuay quay = new ContainerQuay(4, 100, 4);
+        quay.shipArrives(containerShip);
+        List<Cargo> warehouse = new ArrayList<>();
+        assertEquals(4, quay.unload(warehouse::add));
+        assertEquals(4, quay.unload(warehouse::add));
+        assertEquals(2, quay.unload(warehouse::add));
+        assertEquals(0, quay.unload(warehouse::add));
+        assertEquals(10, quay.getProgress());
+        assertEquals(10, warehouse.size());
+    }
+
+    @Test
+    public void progressSurvivesEncoding() throws BadEncodingException {
+        BulkQuay quay = new BulkQuay(3, 120, 40);
+        quay.shipArrives(bulkCarrier);
+        quay.unload(c -> { });
+        assertEquals("BulkQuay:3:1258691:120:40:40", quay.encode());
+
+        Quay decoded = Quay.fromString(quay.encode());
+        assertEquals(40, decoded.getProgress());
+        List<Cargo> warehouse = new ArrayList<>();
+        assertEquals(0, decoded.unload(warehouse::add));
+        assertEquals(1, decoded.unload(warehouse::add));
+    }
+
+    @Test
+    public void unlimitedRateQuaysEncodeWithoutProgress() throws BadEncodingException {
+        ContainerQuay containerQuay = new ContainerQuay(4, 100);
+        containerQuay.shipArrives(containerShip);
+        assertEquals(10, containerQuay.unload(c -> { }));
+        assertEquals(0, containerQuay.getProgress());
+        assertEquals("ContainerQuay:4:2372721:100", containerQuay.encode());
+        assertEquals(containerQuay, Quay.fromString(containerQuay.encode()));
+
+        BulkQuay bulkQuay = new BulkQuay(3, 120);
+        bulkQuay.shipArrives(bulkCarrier);
+        assertEquals(1, bulkQuay.unload(c -> { }));
+        assertEquals(0, bulkQuay.getProgress());
+        assertEquals("BulkQuay:3:1258691:120", bulkQuay.encode());
+    }
+
+    @Test
+    public void encodingOmitsDefaults() throws BadEncodingException {
+        assertEquals("ContainerQuay:4:None:100", new ContainerQuay(4, 100).encode());
+        assertEquals("BulkQuay:3:None:120:40", new BulkQuay(3, 120, 40).encode());
+        assertEquals(0, Quay.fromString("BulkQuay:3:None:120:40").getProgress());
+    }
+
+    @Test
+    public void departureResetsProgress() {
+        ContainerQuay quay = new ContainerQuay(4, 100, 4);
+        quay.shipArrives(containerShip);
+        quay.unload(c -> { });
+        quay.shipDeparts();
+        assertEquals(0, quay.getProgress());
+        assertEquals("ContainerQuay:4:None:100:4", quay.encode());
+    }
+
+    @Test
+    public void invalidProgressRejected() {
+        assertThrows(BadEncodingException.class,
+            () -> Quay.fromString("BulkQuay:3:1258691:120:40:-5"));
+        assertThrows(BadEncodingException.class,
+            () -> Quay.fromString("BulkQuay:3:1258691:120:40:lots"));
+        assertThrows(BadEncodingException.class,
+            () -> Quay.fromString("BulkQuay:3:1258691:120:40:5:6"));
+        assertThrows(BadEncodingException.class,
+            () -> Quay.fromString("BulkQuay:3:None:120:40:5"));
+        assertThrows(BadEncodingException.class,
+            () -> Quay.fromString("BulkQuay:3:1258691:120:0:5"));
+    }
+}
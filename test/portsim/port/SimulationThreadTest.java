@@ -0,0 +1,138 @@
+package portsim.port;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.Cargo;
+import portsim.movement.MovementDirection;
+import portsim.movement.ShipMovement;
+import portsim.ship.BulkCarrier;
+import portsim.ship.NauticalFlag;
+import portsim.ship.Ship;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationThreadTest {
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+    }
+
+    @Test
+    public void commandsRunOnThread() throws Exception {
+        SimulationThread simulation = new SimulationThread(new Port("Brisbane"), null);
+        simulation.start();
+        try {
+            CompletableFuture<Thread> ran = simulation.submit(Thread::currentThread);
+            assertSame(simulation, ran.get(5, TimeUnit.SECONDS));
+        } finally {
+            simulation.shutdown();
+            simulation.join();
+        }
+    }
+
+    @Test
+    public void startsAsNamedDaemon() throws Exception {
+        SimulationThread simulation = new SimulationThread(new Port("Brisbane"), null);
+        simulation.start();
+        try {
+            assertTrue(simulation.isDaemon());
+            assertEquals("portsim-simulation", simulation.getName());
+        } finally {
+            simulation.shutdown();
+            simulation.join();
+        }
+    }
+
+    @Test
+    public void commandSubmittedAfterShutdownRunsOnCaller() throws Exception {
+        SimulationThread simulation = new SimulationThread(new Port("Brisbane"), null);
+        simulation.start();
+        simulation.shutdown();
+        simulation.join();
+        CompletableFuture<Thread> ran = simulation.submit(Thread::currentThread);
+        assertTrue(ran.isDone());
+        assertSame(Thread.currentThread(), ran.get());
+    }
+
+    @Test
+    public void commandsCompleteWhenTickThrowsError() throws Exception {
+        Port port = new Port("Brisbane") {
+            @Override
+            public void elapseOneMinute() {
+                throw new AssertionError("tick failed");
+            }
+        };
+        SimulationThread simulation = new SimulationThread(port, null);
+        simulation.setUncaughtExceptionHandler((thread, error) -> { });
+        simulation.setSpeed(SimulationThread.AS_FAST_AS_POSSIBLE);
+        simulation.start();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            results.add(simulation.submit(() -> value));
+        }
+        simulation.setPaused(false);
+        simulation.join(5000);
+
+        assertFalse(simulation.isAlive());
+        results.add(simulation.submit(() -> 100));
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(Integer.valueOf(i), results.get(i).get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void fastForwardStopsBeforeMovementFromSource() throws Exception {
+        Port port = new Port("Brisbane");
+        Ship ship = new BulkCarrier(1234567, "Ship", "Australia", NauticalFlag.BRAVO, 100);
+        String schedule = new ShipMovement(50, MovementDirection.INBOUND, ship).encode();
+        port.addMovementSource(new ScheduledMovementReader(new StringReader(schedule), 10));
+        SimulationThread simulation = new SimulationThread(port, null);
+        simulation.start();
+        try {
+            assertTrue(simulation.fastForwardToNextMovement().get(5, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (simulation.isFastForwarding() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertFalse(simulation.isFastForwarding());
+            assertEquals(Long.valueOf(49),
+                simulation.submit(port::getTime).get(5, TimeUnit.SECONDS));
+            assertFalse(simulation.fastForwardToNextMovement().get(5, TimeUnit.SECONDS));
+        } finally {
+            simulation.shutdown();
+            simulation.join();
+        }
+    }
+
+    @Test
+    public void commandErrorCompletesFuture() throws Exception {
+        SimulationThread simulation = new SimulationThread(new Port("Brisbane"), null);
+        simulation.start();
+        try {
+            CompletableFuture<Void> failed = simulation.execute(() -> {
+                throw new AssertionError("command failed");
+            });
+            ExecutionException e = assertThrows(ExecutionException.class,
+                () -> failed.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof AssertionError);
+            assertTrue(simulation.isAlive());
+        } finally {
+            simulation.shutdown();
+            simulation.join();
+        }
+    }
+}
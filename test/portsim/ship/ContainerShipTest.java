@@ -0,0 +1,119 @@
+package portsim.ship;
+
+import org.junit.Before;
+import org.junit.Test;
+import portsim.cargo.Cargo;
+import portsim.cargo.Container;
+import portsim.cargo.ContainerType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ContainerShipTest {
+
+    private ContainerShip ship;
+    private List<Container> loaded;
+
+    @Before
+    public void setUp() {
+        Ship.resetShipRegistry();
+        Cargo.resetCargoRegistry();
+        ship = new ContainerShip(1234567, "Evergreen", "Australia", NauticalFlag.BRAVO, 100);
+        loaded = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Container container = new Container(i, "Australia", ContainerType.STANDARD);
+            ship.loadCargo(container);
+            loaded.add(container);
+        }
+    }
+
+    @Test
+    public void limitedUnloadTakesOldestFirst() {
+        List<Container> unloaded = new ArrayList<>();
+        assertEquals(3, ship.unloadInto(unloaded::add, 3));
+        assertEquals(loaded.subList(0, 3), unloaded);
+        assertEquals(loaded.subList(3, 10), ship.getCargoView());
+        assertEquals(loaded.subList(3, 10), ship.getCargo());
+
+        assertEquals(4, ship.unloadInto(unloaded::add, 4));
+        assertEquals(loaded.subList(0, 7), unloaded);
+        assertEquals(loaded.subList(7, 10), ship.getCargoView());
+        assertEquals("ContainerShip:1234567:Evergreen:Australia:BRAVO:100:3:7,8,9",
+            ship.encode());
+    }
+
+    @Test
+    public void limitedUnloadStopsWhenEmpty() {
+        List<Container> unloaded = new ArrayList<>();
+        assertEquals(10, ship.unloadInto(unloaded::add, 25));
+        assertEquals(loaded, unloaded);
+        assertTrue(ship.getCargoView().isEmpty());
+        assertEquals(0, ship.unloadInto(unloaded::add, 5));
+        assertEquals(10, unloaded.size());
+    }
+
+    @Test
+    public void loadingAfterPartialUnloadKeepsOrder() {
+        ship.unloadInto(c -> { }, 2);
+        Container extra = new Container(100, "Australia", ContainerType.REEFER);
+        ship.loadCargo(extra);
+        List<Container> expected = new ArrayList<>(loaded.subList(2, 10));
+        expected.add(extra);
+        assertEquals(expected, ship.getCargoView());
+
+        List<Container> unloaded = new ArrayList<>();
+        while (ship.unloadInto(unloaded::add, 3) > 0) {
+            assertEquals(expected.subList(unloaded.size(), expected.size()),
+                ship.getCargoView());
+        }
+        assertEquals(expected, unloaded);
+    }
+
+    @Test
+    public void capacityCountsOnlyContainersOnboard() {
+        ContainerShip small = new ContainerShip(7654321, "Small", "Australia",
+            NauticalFlag.BRAVO, 2);
+        small.loadCargo(new Container(200, "Australia", ContainerType.STANDARD));
+        small.loadCargo(new Container(201, "Australia", ContainerType.STANDARD));
+        Container next = new Container(202, "Australia", ContainerType.STANDARD);
+        assertFalse(small.canLoad(next));
+        small.unloadInto(c -> { }, 1);
+        assertTrue(small.canLoad(next));
+    }
+
+    @Test
+    public void viewIsReadOnly() {
+        ship.unloadInto(c -> { }, 1);
+        assertThrows(UnsupportedOperationException.class,
+            () -> ship.getCargoView().remove(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> ship.getCargoView().get(9));
+    }
+
+    @Test
+    public void negativeLimitRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ship.unloadInto(c -> { }, -1));
+    }
+
+    @Test
+    public void unloadingLargeShipAFewAtATimeIsLinear() {
+        int count = 200000;
+        ContainerShip megaShip = new ContainerShip(2345678, "Mega", "Australia",
+            NauticalFlag.BRAVO, count);
+        for (int i = 0; i < count; i++) {
+            megaShip.loadCargo(new Container(1000 + i, "Australia", ContainerType.STANDARD));
+        }
+        int[] next = {1000};
+        long start = System.nanoTime();
+        while (megaShip.unloadInto(c -> assertEquals(next[0]++, c.getId()), 2) > 0) {
+            // unload two containers per cycle
+        }
+        assertEquals(1000 + count, next[0]);
+        // shifting the hold on every cycle would take tens of seconds
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+}